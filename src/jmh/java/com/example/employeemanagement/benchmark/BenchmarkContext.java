@@ -0,0 +1,39 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.EmployeeManagementSystemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Boots the application against the embedded H2 database of the "test" profile
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, Object> properties) {
+        // DevTools is on the test classpath; its restart class loader would wrap the benchmark's context
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("server.port", "0");
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("spring.jpa.properties.hibernate.generate_statistics", "false");
+        defaults.put("employee.audit.flush-interval-ms", "200");
+        defaults.put("employee.audit.wal-dir", "target/jmh/audit-wal");
+        defaults.put("employee.documents.dir", "target/jmh/documents");
+        defaults.putAll(properties);
+        // Passed as command-line arguments: default properties would lose to application.properties
+        String[] args = defaults.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(EmployeeManagementSystemApplication.class)
+                .profiles("test")
+                .run(args);
+    }
+
+    static ConfigurableApplicationContext start() {
+        return start(Map.of());
+    }
+}
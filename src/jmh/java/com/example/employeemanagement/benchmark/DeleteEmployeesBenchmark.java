@@ -0,0 +1,64 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Wall time of one deleteEmployees call; each iteration first seeds the employees it deletes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class DeleteEmployeesBenchmark {
+
+    @Param("10000")
+    private int datasetSize;
+
+    @Param({"10", "1000", "10000"})
+    private int deleteCount;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private EmployeeDataGenerator generator;
+    private List<String> toDelete;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        employeeService = context.getBean(EmployeeService.class);
+        generator = new EmployeeDataGenerator(EmployeeDataGenerator.DEFAULT_SEED);
+        generator.seed(context, datasetSize);
+    }
+
+    @Setup(Level.Iteration)
+    public void seedBatch() {
+        toDelete = generator.seed(context, deleteCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deleteEmployees() {
+        employeeService.deleteEmployees(toDelete);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.service.IdProofAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Documents per second through the pipeline's stages (checksum, structure check, text, thumbnail) for
+ * worker pools of different sizes, over the sample PDFs in uploads/ (each invocation cycles through
+ * them for 64 documents). Up to the machine's core count, the score should grow in step with the
+ * threads; past it, extra threads only add contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = "-Djava.awt.headless=true")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class DocumentPipelineBenchmark {
+    private static final int DOCUMENTS = 64;
+
+    @Param({"1", "2", "4"})
+    private int threads;
+
+    private IdProofAnalyzer analyzer;
+    private ExecutorService workers;
+    private List<Path> documents;
+
+    @Setup
+    public void setUp() throws IOException {
+        analyzer = new IdProofAnalyzer(100_000, 200);
+        workers = Executors.newFixedThreadPool(threads);
+        List<Path> samples;
+        try (Stream<Path> files = Files.list(Paths.get("uploads"))) {
+            samples = files.filter(path -> path.toString().endsWith(".pdf")).sorted().toList();
+        }
+        documents = new ArrayList<>();
+        while (documents.size() < DOCUMENTS) {
+            documents.add(samples.get(documents.size() % samples.size()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public int process() throws Exception {
+        List<Future<IdProofAnalyzer.Result>> results = new ArrayList<>(DOCUMENTS);
+        for (Path document : documents) {
+            results.add(workers.submit(() -> analyzer.analyze(document, document.getFileName().toString(),
+                    IdProofAnalyzer.StageListener.NONE)));
+        }
+        int pages = 0;
+        for (Future<IdProofAnalyzer.Result> result : results) {
+            pages += result.get().pageCount();
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository;
+import com.example.employeemanagement.service.EmployeeSearchBackend;
+import com.example.employeemanagement.service.IdAllocator;
+import com.example.employeemanagement.service.ShardRouter;
+import org.springframework.context.ApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic employee generator: the same seed and count always produce the same names,
+ * departments, birth dates and salaries, so runs on different commits search the same data.
+ * IDs come from {@link IdAllocator}, which limits a dataset to 26 x 26 initials x 1001 login slots.
+ */
+public class EmployeeDataGenerator {
+    public static final long DEFAULT_SEED = 42;
+
+    static final String[] FIRST_NAMES = {"Alice", "Bruno", "Chitra", "Dmitri", "Elena", "Farid", "Grace", "Hiro",
+            "Ines", "Jonas", "Kavya", "Liam", "Mei", "Nadia", "Omar", "Priya", "Quinn", "Rosa", "Sven", "Tariq",
+            "Uma", "Victor", "Wen", "Ximena", "Yusuf", "Zoe"};
+    static final String[] LAST_NAMES = {"Anders", "Bauer", "Costa", "Dubois", "Evans", "Fischer", "Garcia",
+            "Hansen", "Ito", "Jensen", "Kim", "Lopez", "Murphy", "Nguyen", "Okafor", "Patel", "Quist", "Rossi",
+            "Silva", "Tanaka", "Ueda", "Vargas", "Weber", "Xu", "Yilmaz", "Zhang"};
+    static final String[] DEPARTMENTS = {"Engineering", "Support", "HR", "Finance"};
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final Random random;
+
+    public EmployeeDataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public Employee next() {
+        Employee employee = new Employee();
+        employee.setFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+        employee.setLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        employee.setDepartment(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+        employee.setDateOfBirth(LocalDate.of(1960, 1, 1).plusDays(random.nextInt(40 * 365)));
+        employee.setSalary(30_000 + random.nextInt(170_000));
+        employee.setPermanentAddress(random.nextInt(999) + " Main Street");
+        employee.setCurrentAddress(random.nextInt(999) + " Market Street");
+        return employee;
+    }
+
+    // Inserts count employees with JDBC batches (on their shards) and registers them with the search backend
+    public List<String> seed(ApplicationContext context, int count) {
+        IdAllocator idAllocator = context.getBean(IdAllocator.class);
+        ShardRouter shardRouter = context.getBean(ShardRouter.class);
+        EmployeeJdbcRepository jdbcRepository = context.getBean(EmployeeJdbcRepository.class);
+        EmployeeSearchBackend searchBackend = context.getBean(EmployeeSearchBackend.class);
+
+        List<String> ids = new ArrayList<>(count);
+        List<Employee> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            Employee employee = next();
+            employee.setEmployeeId(idAllocator.nextEmployeeId(employee.getDepartment()));
+            employee.setLoginId(idAllocator.claimLoginId(
+                    IdAllocator.loginIdBase(employee.getFirstName(), employee.getLastName())));
+            batch.add(employee);
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                shardRouter.groupByShard(batch, Employee::getEmployeeId).forEach((shard, employees) ->
+                        shardRouter.run(shard, () -> jdbcRepository.insertEmployees(employees)));
+                for (Employee inserted : batch) {
+                    searchBackend.onEmployeeSaved(inserted);
+                    ids.add(inserted.getEmployeeId());
+                }
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeServiceBenchmark {
+
+    @Param("10000")
+    private int datasetSize;
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private EmployeeDataGenerator newEmployees;
+    private List<String> employeeIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of("employee.cache.enabled", cache));
+        employeeService = context.getBean(EmployeeService.class);
+        employeeIds = new EmployeeDataGenerator(EmployeeDataGenerator.DEFAULT_SEED).seed(context, datasetSize);
+        newEmployees = new EmployeeDataGenerator(EmployeeDataGenerator.DEFAULT_SEED + 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee addEmployee() throws Exception {
+        return employeeService.addEmployee(newEmployees.next(), null);
+    }
+
+    @Benchmark
+    public Employee getEmployeeById() {
+        next = (next + 1) % employeeIds.size();
+        return employeeService.getEmployeeById(employeeIds.get(next));
+    }
+}
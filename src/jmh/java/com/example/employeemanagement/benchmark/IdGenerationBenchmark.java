@@ -0,0 +1,55 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.service.IdAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class IdGenerationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private IdAllocator idAllocator;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        idAllocator = context.getBean(IdAllocator.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String nextEmployeeId() {
+        return idAllocator.nextEmployeeId();
+    }
+
+    // Released again so the prefix's 1001 slots never run out
+    @Benchmark
+    public String claimAndReleaseLoginId() {
+        String loginId = idAllocator.claimLoginId("ab");
+        idAllocator.releaseLoginId(loginId);
+        return loginId;
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.employeemanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process load generator: boots the application on a random port, seeds it, and drives it with
+ * many concurrent clients that mix results-page searches with ID-proof uploads. Reports throughput
+ * and latency percentiles per request type for platform threads and, on Java 21+, virtual threads.
+ *
+ * <p>Clients share a pool of logged-in sessions: logging in is deliberately expensive (BCrypt), and
+ * this measures steady-state traffic rather than a login storm.
+ *
+ * <p>Requests shed by admission control (503) are counted apart from served ones and not included in
+ * the latency percentiles; the client waits for the {@code Retry-After} before its next request.
+ *
+ * <p>Latency is reported as the clients see it and as the server measured it ({@code http.server.requests},
+ * served requests only). On a single machine the client figures also include the time the load
+ * generator's own threads wait for the CPU; the server figures are the ones the target latency of
+ * admission control applies to.
+ *
+ * <p>Options: --clients=2000 --sessions=50 --dataset=10000 --upload-percent=20 --warmup=10
+ * --duration=30 --mode=both|platform|virtual --admission=true|false. Results are also written to
+ * target/jmh/load-test.json.
+ */
+public class LoadTest {
+    private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Pattern SET_COOKIE = Pattern.compile("^([^=;]+)=([^;]*)");
+    private static final String BOUNDARY = "----load-test-boundary";
+
+    private record Sample(boolean upload, long nanos, boolean ok, boolean shed) {
+    }
+
+    record Session(String cookie, String csrfToken) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+                "clients", "2000", "dataset", "10000", "upload-percent", "20",
+                "warmup", "10", "duration", "30", "mode", "both", "sessions", "50", "admission", "true"));
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+
+        boolean virtualSupported = Runtime.version().feature() >= 21;
+        List<String> modes = new ArrayList<>();
+        String mode = options.get("mode");
+        if (!"virtual".equals(mode)) {
+            modes.add("platform");
+        }
+        if (!"platform".equals(mode)) {
+            if (virtualSupported) {
+                modes.add("virtual");
+            } else {
+                System.out.println("Virtual threads need Java 21+, running on " + Runtime.version() + "; skipping");
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String threads : modes) {
+            results.add(run("virtual".equals(threads), options));
+        }
+        Path output = Path.of("target", "jmh", "load-test.json");
+        Files.createDirectories(output.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output);
+    }
+
+    private static Map<String, Object> run(boolean virtualThreads, Map<String, String> options) throws Exception {
+        int clients = Integer.parseInt(options.get("clients"));
+        int uploadPercent = Integer.parseInt(options.get("upload-percent"));
+        long warmupNanos = Duration.ofSeconds(Long.parseLong(options.get("warmup"))).toNanos();
+        long durationNanos = Duration.ofSeconds(Long.parseLong(options.get("duration"))).toNanos();
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(Map.of(
+                "spring.threads.virtual.enabled", virtualThreads,
+                "employee.admission.enabled", options.get("admission"),
+                "spring.thymeleaf.cache", true))) {
+            List<String> employeeIds = new EmployeeDataGenerator(EmployeeDataGenerator.DEFAULT_SEED)
+                    .seed(context, Integer.parseInt(options.get("dataset")));
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < Integer.parseInt(options.get("sessions")); i++) {
+                sessions.add(logIn(http, baseUrl, employeeIds.get(0)));
+            }
+
+            List<List<Sample>> samples = new ArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            CountDownLatch done = new CountDownLatch(clients);
+            long start = System.nanoTime();
+            long measureFrom = start + warmupNanos;
+            long measureUntil = measureFrom + durationNanos;
+            for (int i = 0; i < clients; i++) {
+                List<Sample> clientSamples = new ArrayList<>();
+                samples.add(clientSamples);
+                long seed = i;
+                Session session = sessions.get(i % sessions.size());
+                executor.execute(() -> {
+                    try {
+                        runClient(http, baseUrl, session, employeeIds, uploadPercent, seed, measureFrom, measureUntil,
+                                clientSamples);
+                    } catch (Exception e) {
+                        System.err.println("Client failed: " + e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            Thread.sleep(Math.max(0, (measureFrom - System.nanoTime()) / 1_000_000));
+            CountAtBucket[] searchesBefore = serverHistogram(meterRegistry, "/employee/results", "200");
+            CountAtBucket[] uploadsBefore = serverHistogram(meterRegistry, "/employee/edit/{id}", "302");
+            done.await();
+            executor.shutdown();
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("threads", virtualThreads ? "virtual" : "platform");
+            result.put("clients", clients);
+            result.put("uploadPercent", uploadPercent);
+            result.put("admission", Boolean.parseBoolean(options.get("admission")));
+            result.put("search", summarize(samples, false, durationNanos));
+            result.put("upload", summarize(samples, true, durationNanos));
+            result.put("serverSearch", summarizeServer(searchesBefore,
+                    serverHistogram(meterRegistry, "/employee/results", "200")));
+            result.put("serverUpload", summarizeServer(uploadsBefore,
+                    serverHistogram(meterRegistry, "/employee/edit/{id}", "302")));
+            System.out.println(result);
+            return result;
+        }
+    }
+
+    private static void runClient(HttpClient http, String baseUrl, Session session, List<String> employeeIds,
+                                  int uploadPercent, long seed, long measureFrom, long measureUntil,
+                                  List<Sample> samples) throws Exception {
+        Random random = new Random(seed);
+        String employeeId = employeeIds.get(random.nextInt(employeeIds.size()));
+        byte[] pdf = new byte[20 * 1024];
+
+        String[] departments = EmployeeDataGenerator.DEPARTMENTS;
+        long now;
+        while ((now = System.nanoTime()) < measureUntil) {
+            boolean upload = random.nextInt(100) < uploadPercent;
+            HttpRequest request;
+            if (upload) {
+                random.nextBytes(pdf);
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/employee/edit/" + employeeId))
+                        .header("Cookie", session.cookie())
+                        .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(session.csrfToken(), pdf)))
+                        .build();
+            } else {
+                String department = departments[random.nextInt(departments.length)];
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/employee/results?department=" + department))
+                        .header("Cookie", session.cookie())
+                        .build();
+            }
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            long elapsed = System.nanoTime() - now;
+            boolean shed = response.statusCode() == 503;
+            if (now >= measureFrom) {
+                // Uploads answer with a redirect back to the results page
+                boolean ok = upload ? response.statusCode() == 302 : response.statusCode() == 200;
+                samples.add(new Sample(upload, elapsed, ok || shed, shed));
+            }
+            if (shed) {
+                Thread.sleep(1000 * Long.parseLong(response.headers().firstValue("Retry-After").orElse("1")));
+            }
+        }
+    }
+
+    // Logs in through the form, as a browser would, and reads a CSRF token from an edit form. The
+    // login cookie and the CSRF cookie are sent together on every request.
+    static Session logIn(HttpClient http, String baseUrl, String employeeId) throws Exception {
+        Map<String, String> cookies = new LinkedHashMap<>();
+        HttpResponse<String> page = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        storeCookies(page, cookies);
+        String form = "username=admin&password=password&_csrf="
+                + URLEncoder.encode(csrfToken(page), StandardCharsets.UTF_8);
+        HttpResponse<Void> login = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                        .header("Cookie", cookieHeader(cookies))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (login.statusCode() != 302 || login.headers().firstValue("Location").orElse("").contains("error")) {
+            throw new IllegalStateException("Login failed: " + login.statusCode());
+        }
+        storeCookies(login, cookies);
+        HttpResponse<String> editForm = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/employee/edit/" + employeeId))
+                        .header("Cookie", cookieHeader(cookies)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        storeCookies(editForm, cookies);
+        if (!cookies.containsKey("EMPLOYEE_AUTH")) {
+            throw new IllegalStateException("No login cookie after login");
+        }
+        return new Session(cookieHeader(cookies), csrfToken(editForm));
+    }
+
+    private static String csrfToken(HttpResponse<String> page) {
+        Matcher csrf = CSRF_INPUT.matcher(page.body());
+        if (!csrf.find()) {
+            throw new IllegalStateException("No CSRF token in response: " + page.statusCode());
+        }
+        return csrf.group(1);
+    }
+
+    // Empty values are deletions (login clears the CSRF cookie)
+    private static void storeCookies(HttpResponse<?> response, Map<String, String> cookies) {
+        for (String header : response.headers().allValues("Set-Cookie")) {
+            Matcher cookie = SET_COOKIE.matcher(header);
+            if (cookie.find()) {
+                if (cookie.group(2).isEmpty()) {
+                    cookies.remove(cookie.group(1));
+                } else {
+                    cookies.put(cookie.group(1), cookie.group(2));
+                }
+            }
+        }
+    }
+
+    private static String cookieHeader(Map<String, String> cookies) {
+        StringBuilder header = new StringBuilder();
+        cookies.forEach((name, value) -> header.append(header.isEmpty() ? "" : "; ").append(name).append('=').append(value));
+        return header.toString();
+    }
+
+    private static byte[] multipart(String csrfToken, byte[] pdf) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(pdf.length + 512);
+        String head = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"_csrf\"\r\n\r\n" + csrfToken + "\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"idProof\"; filename=\"id.pdf\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n";
+        body.writeBytes(head.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(pdf);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static Map<String, Object> summarize(List<List<Sample>> samples, boolean upload, long durationNanos) {
+        List<Long> latencies = new ArrayList<>();
+        long errors = 0;
+        long shed = 0;
+        for (List<Sample> clientSamples : samples) {
+            for (Sample sample : clientSamples) {
+                if (sample.upload() == upload && sample.shed()) {
+                    shed++;
+                } else if (sample.upload() == upload) {
+                    latencies.add(sample.nanos());
+                    if (!sample.ok()) {
+                        errors++;
+                    }
+                }
+            }
+        }
+        latencies.sort(null);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", latencies.size());
+        summary.put("errors", errors);
+        summary.put("shed", shed);
+        summary.put("throughputPerSecond", Math.round(latencies.size() / (durationNanos / 1e9)));
+        summary.put("p50Millis", percentileMillis(latencies, 0.50));
+        summary.put("p99Millis", percentileMillis(latencies, 0.99));
+        return summary;
+    }
+
+    // Cumulative bucket counts of the server's request timer for one URI and status, or none before the
+    // first such request
+    private static CountAtBucket[] serverHistogram(MeterRegistry meterRegistry, String uri, String status) {
+        Timer timer = meterRegistry.find("http.server.requests").tags("uri", uri, "status", status).timer();
+        return timer == null ? new CountAtBucket[0] : timer.takeSnapshot().histogramCounts();
+    }
+
+    // Percentiles of the requests recorded between the two snapshots, as the upper bound of the
+    // histogram bucket they fall in
+    private static Map<String, Object> summarizeServer(CountAtBucket[] before, CountAtBucket[] after) {
+        double[] counts = new double[after.length];
+        for (int i = 0; i < after.length; i++) {
+            counts[i] = after[i].count() - (i < before.length ? before[i].count() : 0);
+        }
+        double total = counts.length == 0 ? 0 : counts[counts.length - 1];
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", Math.round(total));
+        summary.put("p50Millis", bucketMillis(after, counts, total * 0.50));
+        summary.put("p99Millis", bucketMillis(after, counts, total * 0.99));
+        return summary;
+    }
+
+    private static double bucketMillis(CountAtBucket[] buckets, double[] counts, double rank) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] >= rank && counts[i] > 0) {
+                return Math.round(buckets[i].bucket() / 10_000.0) / 100.0;
+            }
+        }
+        return 0;
+    }
+
+    private static double percentileMillis(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1);
+        return Math.round(sorted.get(Math.max(0, index)) / 10_000.0) / 100.0;
+    }
+}
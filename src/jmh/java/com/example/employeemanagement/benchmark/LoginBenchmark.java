@@ -0,0 +1,61 @@
+package com.example.employeemanagement.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// One thread, so the score is logins per second per core
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(1)
+public class LoginBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    @Param({"10", "12"})
+    private int strength;
+
+    private ConfigurableApplicationContext context;
+    private DaoAuthenticationProvider authenticationProvider;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of(
+                "employee.security.cache.enabled", cache,
+                "employee.security.bcrypt-strength", strength));
+        authenticationProvider = context.getBean(DaoAuthenticationProvider.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // The admin user created at startup, logging in again and again
+    @Benchmark
+    public Authentication login() {
+        return authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password"));
+    }
+}
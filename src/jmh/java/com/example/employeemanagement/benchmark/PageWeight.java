@@ -0,0 +1,132 @@
+package com.example.employeemanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the results page as a browser fetches it: HTML bytes on the wire and uncompressed, time
+ * to first byte and to the last byte, and the size and caching headers of the assets it references.
+ * Run once without and once with {@code --profile=prod} to compare.
+ *
+ * <p>Options: --profile= --dataset=10000 --size=100 --requests=200. Results are also written to
+ * target/jmh/page-weight[-profile].json.
+ */
+public class PageWeight {
+    private static final Pattern ASSET = Pattern.compile("(?:href|src)=\"(/webjars/[^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+                "profile", "", "dataset", "10000", "size", "100", "requests", "200"));
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        String profile = options.get("profile");
+        Map<String, Object> properties = new HashMap<>();
+        if (!profile.isEmpty()) {
+            properties.put("spring.profiles.active", profile);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(properties)) {
+            List<String> employeeIds = new EmployeeDataGenerator(EmployeeDataGenerator.DEFAULT_SEED)
+                    .seed(context, Integer.parseInt(options.get("dataset")));
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            LoadTest.Session session = LoadTest.logIn(http, baseUrl, employeeIds.get(0));
+            URI page = URI.create(baseUrl + "/employee/results?department=Finance&size=" + options.get("size"));
+
+            int requests = Integer.parseInt(options.get("requests"));
+            for (int i = 0; i < requests / 4; i++) {
+                fetch(http, page, session, true);
+            }
+            List<Long> firstByte = new ArrayList<>();
+            List<Long> lastByte = new ArrayList<>();
+            Fetch compressed = null;
+            for (int i = 0; i < requests; i++) {
+                compressed = fetch(http, page, session, true);
+                firstByte.add(compressed.firstByteNanos());
+                lastByte.add(compressed.lastByteNanos());
+            }
+            Fetch plain = fetch(http, page, session, false);
+
+            result.put("profile", profile.isEmpty() ? "default" : profile);
+            result.put("rows", Integer.parseInt(options.get("size")));
+            result.put("htmlBytes", plain.body().length);
+            result.put("htmlWireBytes", compressed.body().length);
+            result.put("htmlContentEncoding", compressed.response().headers().firstValue("Content-Encoding").orElse("identity"));
+            result.put("firstByteP50Millis", percentileMillis(firstByte, 0.50));
+            result.put("lastByteP50Millis", percentileMillis(lastByte, 0.50));
+            result.put("lastByteP99Millis", percentileMillis(lastByte, 0.99));
+
+            Set<String> assets = new LinkedHashSet<>();
+            Matcher asset = ASSET.matcher(new String(plain.body()));
+            while (asset.find()) {
+                assets.add(asset.group(1));
+            }
+            Map<String, Object> assetResults = new LinkedHashMap<>();
+            for (String path : assets) {
+                Fetch fetched = fetch(http, URI.create(baseUrl + path), session, true);
+                Map<String, Object> assetResult = new LinkedHashMap<>();
+                assetResult.put("status", fetched.response().statusCode());
+                assetResult.put("wireBytes", fetched.body().length);
+                assetResult.put("contentEncoding", fetched.response().headers().firstValue("Content-Encoding").orElse("identity"));
+                assetResult.put("cacheControl", fetched.response().headers().firstValue("Cache-Control").orElse(""));
+                assetResults.put(path, assetResult);
+            }
+            result.put("assets", assetResults);
+        }
+
+        System.out.println(new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(result));
+        Path output = Path.of("target", "jmh", "page-weight" + (profile.isEmpty() ? "" : "-" + profile) + ".json");
+        Files.createDirectories(output.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), result);
+        System.out.println("Results written to " + output);
+    }
+
+    private record Fetch(HttpResponse<InputStream> response, byte[] body, long firstByteNanos, long lastByteNanos) {
+    }
+
+    // The response is returned once its headers arrive, which marks the first byte
+    private static Fetch fetch(HttpClient http, URI uri, LoadTest.Session session, boolean gzip) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).header("Cookie", session.cookie());
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = http.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        long firstByte = System.nanoTime() - start;
+        byte[] body;
+        try (InputStream in = response.body()) {
+            body = in.readAllBytes();
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri + " returned " + response.statusCode());
+        }
+        return new Fetch(response, body, firstByte, System.nanoTime() - start);
+    }
+
+    private static double percentileMillis(List<Long> samples, double percentile) {
+        List<Long> sorted = new ArrayList<>(samples);
+        sorted.sort(null);
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1);
+        return Math.round(sorted.get(Math.max(0, index)) / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.controller.EmployeeController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.ui.ExtendedModelMap;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The results page handler end to end (session, service, cache, backend), without template rendering
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResultsPageBenchmark {
+
+    private static final CsrfToken CSRF_TOKEN = new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "token");
+
+    @Param("10000")
+    private int datasetSize;
+
+    @Param({"offset", "keyset"})
+    private String pagination;
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeController employeeController;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of(
+                "employee.search.pagination", pagination,
+                "employee.cache.enabled", cache));
+        new EmployeeDataGenerator(EmployeeDataGenerator.DEFAULT_SEED).seed(context, datasetSize);
+        employeeController = context.getBean(EmployeeController.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExtendedModelMap departmentResults() {
+        ExtendedModelMap model = new ExtendedModelMap();
+        employeeController.searchEmployees(null, null, null, null, "Finance", null, null, 0, 10, null,
+                new MockHttpServletResponse(), CSRF_TOKEN, model);
+        return model;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.service.EmployeeSearchBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Search latency per backend and filter combination, uncached; SampleTime reports p50/p90/p99.
+// The login ID scheme allows about 676,000 employees, but the generator's random names fill their first
+// prefix at about 620,000 (see EmployeeDataGenerator), so the largest dataset is 500,000.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+    @Param({"100000", "500000"})
+    private int datasetSize;
+
+    @Param({"index", "jpql"})
+    private String backend;
+
+    @Param({"none", "employeeId", "firstName", "lastName", "loginId", "department", "dateRange",
+            "firstName+department", "lastName+dateRange"})
+    private String filter;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeSearchBackend searchBackend;
+    private EmployeeSearchCriteria criteria;
+    // Nine tenths of the way through the employees, in ID order
+    private String deepCursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of("employee.search.backend", backend));
+        List<String> ids = new ArrayList<>(
+                new EmployeeDataGenerator(EmployeeDataGenerator.DEFAULT_SEED).seed(context, datasetSize));
+        ids.sort(null);
+        deepCursor = ids.get(ids.size() * 9 / 10);
+        searchBackend = context.getBean(EmployeeSearchBackend.class);
+        criteria = criteria(filter);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<EmployeeSummary> offsetPage() {
+        return searchBackend.search(criteria, PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public Slice<EmployeeSummary> keysetPage() {
+        return searchBackend.searchAfter(criteria, null, 10);
+    }
+
+    @Benchmark
+    public Slice<EmployeeSummary> deepKeysetPage() {
+        return searchBackend.searchAfter(criteria, deepCursor, 10);
+    }
+
+    static EmployeeSearchCriteria criteria(String filter) {
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria();
+        for (String part : filter.split("\\+")) {
+            switch (part) {
+                case "none" -> { }
+                case "employeeId" -> criteria.setEmployeeId("0012");
+                case "firstName" -> criteria.setFirstName("ali");
+                case "lastName" -> criteria.setLastName("an");
+                case "loginId" -> criteria.setLoginId("ab1");
+                case "department" -> criteria.setDepartment("Finance");
+                case "dateRange" -> {
+                    criteria.setStartDate(LocalDate.of(1980, 1, 1));
+                    criteria.setEndDate(LocalDate.of(1985, 12, 31));
+                }
+                default -> throw new IllegalArgumentException("Unknown filter " + part);
+            }
+        }
+        return criteria;
+    }
+}
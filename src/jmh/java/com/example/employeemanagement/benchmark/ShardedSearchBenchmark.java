@@ -0,0 +1,84 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.service.EmployeeSearchBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Uncached search throughput over 1 to 8 embedded shards, with concurrent callers as on a busy node
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ShardedSearchBenchmark {
+
+    @Param("100000")
+    private int datasetSize;
+
+    @Param({"1", "2", "4", "8"})
+    private int shards;
+
+    @Param({"employee-id", "department"})
+    private String key;
+
+    @Param({"none", "lastName", "department"})
+    private String filter;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeSearchBackend searchBackend;
+    private EmployeeSearchCriteria criteria;
+
+    @Setup
+    public void setUp() {
+        String shardUrls = IntStream.range(0, shards)
+                .mapToObj(shard -> "jdbc:h2:mem:bench_shard_" + shard + ";DB_CLOSE_DELAY=-1")
+                .collect(Collectors.joining(","));
+        context = BenchmarkContext.start(Map.of(
+                "employee.sharding.shard-urls", shardUrls,
+                "employee.sharding.key", key,
+                "employee.search.backend", "jpql",
+                "employee.cache.enabled", "false"));
+        new EmployeeDataGenerator(EmployeeDataGenerator.DEFAULT_SEED).seed(context, datasetSize);
+        searchBackend = context.getBean(EmployeeSearchBackend.class);
+        criteria = SearchBenchmark.criteria(filter);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<EmployeeSummary> offsetPage() {
+        return searchBackend.search(criteria, PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public Slice<EmployeeSummary> keysetPage() {
+        return searchBackend.searchAfter(criteria, null, 10);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.employeemanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Time to first request of the packaged application, from JVM launch to the first 200 response for
+ * /login, in a series of startup modes that each add one change to the one before:
+ * <ol>
+ *   <li>current: {@code java -jar}, {@code ddl-auto=update}, all beans created at startup</li>
+ *   <li>validate: migrated schema, {@code ddl-auto=validate}</li>
+ *   <li>lazy: lazy initialization (the prod profile as it is)</li>
+ *   <li>extracted: the jar extracted with {@code -Djarmode=tools} instead of run as a nested jar</li>
+ *   <li>aot: {@code -Dspring.aot.enabled=true}, needs a jar built with {@code -Paot}</li>
+ *   <li>aot-cds: plus a class data sharing archive made by a training run</li>
+ * </ol>
+ * Each mode is started --runs times against the same embedded H2 file database, seeded with --dataset
+ * employees; modes take turns so drift on the machine spreads evenly. Options: --jar=target/*.jar
+ * --runs=5 --dataset=10000. Results are also written to target/jmh/startup-report.json.
+ */
+public class StartupReport {
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([\\d.]+) seconds");
+    private static final String MAIN_CLASS = "com.example.employeemanagement.EmployeeManagementSystemApplication";
+    private static final Path WORK_DIR = Path.of("target", "startup");
+
+    private record Mode(String name, boolean extracted, List<String> jvmArgs, List<String> appArgs) {
+    }
+
+    private record Run(long firstResponseMillis, Double startedSeconds) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of("jar", "", "runs", "5", "dataset", "10000"));
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        Path jar = options.get("jar").isEmpty() ? findJar() : Path.of(options.get("jar"));
+        String h2Jar = Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> entry.matches(".*[/\\\\]h2-[^/\\\\]*\\.jar"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("H2 is not on the benchmark classpath"));
+        deleteRecursively(WORK_DIR);
+        Files.createDirectories(WORK_DIR);
+
+        Path extracted = WORK_DIR.resolve("app");
+        exec(List.of(java(), "-Djarmode=tools", "-jar", jar.toString(), "extract", "--destination", extracted.toString()),
+                WORK_DIR.resolve("extract.log"));
+        Path extractedJar = extracted.resolve(jar.getFileName());
+        boolean aot = hasAotClasses(jar);
+        Path archive = WORK_DIR.resolve("application.jsa");
+
+        String url = "jdbc:h2:file:" + WORK_DIR.toAbsolutePath().resolve("db/employee_db") + ";MODE=MySQL";
+        List<String> common = List.of("--spring.datasource.url=" + url, "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa", "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--employee.audit.wal-dir=" + WORK_DIR.resolve("audit-wal"),
+                "--employee.documents.dir=" + WORK_DIR.resolve("documents"),
+                "--employee.security.token-secret=startup-report-login-token-key-0123456789",
+                "--employee.search.token-secret=startup-report-search-token-key-0123456789");
+        List<String> prod = Stream.concat(common.stream(), Stream.of("--spring.profiles.active=prod")).toList();
+        List<String> eager = Stream.concat(prod.stream(), Stream.of("--spring.main.lazy-initialization=false")).toList();
+        List<String> update = Stream.concat(eager.stream(), Stream.of("--spring.jpa.hibernate.ddl-auto=update",
+                "--employee.schema.migrations.enabled=false")).toList();
+
+        List<Mode> modes = new ArrayList<>(List.of(
+                new Mode("current", false, List.of(), update),
+                new Mode("validate", false, List.of(), eager),
+                new Mode("lazy", false, List.of(), prod),
+                new Mode("extracted", true, List.of(), prod)));
+        if (aot) {
+            modes.add(new Mode("aot", true, List.of("-Dspring.aot.enabled=true"), prod));
+            modes.add(new Mode("aot-cds", true, List.of("-Dspring.aot.enabled=true",
+                    "-XX:SharedArchiveFile=" + archive), prod));
+        } else {
+            System.out.println("No AOT classes in " + jar + " (build it with mvn -Paot package); skipping aot modes");
+        }
+
+        // The training run migrates the empty database and, stopping once the context is refreshed,
+        // records the classes it loaded in the archive
+        List<String> training = new ArrayList<>(List.of(java(), "-XX:ArchiveClassesAtExit=" + archive,
+                "-Dspring.context.exit=onRefresh", "-cp", extractedJar + File.pathSeparator + h2Jar));
+        if (aot) {
+            training.add("-Dspring.aot.enabled=true");
+        }
+        training.add(MAIN_CLASS);
+        training.addAll(prod);
+        exec(training, WORK_DIR.resolve("training.log"));
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(Map.of(
+                "spring.datasource.url", url, "spring.jpa.hibernate.ddl-auto", "validate"))) {
+            new EmployeeDataGenerator(EmployeeDataGenerator.DEFAULT_SEED)
+                    .seed(context, Integer.parseInt(options.get("dataset")));
+        }
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        Map<String, List<Run>> runs = new LinkedHashMap<>();
+        for (int i = 0; i < Integer.parseInt(options.get("runs")); i++) {
+            for (Mode mode : modes) {
+                List<String> command = new ArrayList<>(List.of(java()));
+                command.addAll(mode.jvmArgs());
+                if (mode.extracted()) {
+                    command.addAll(List.of("-cp", extractedJar + File.pathSeparator + h2Jar, MAIN_CLASS));
+                } else {
+                    // JarLauncher reads the nested jars, as java -jar does, and H2 comes from the class path
+                    command.addAll(List.of("-cp", jar + File.pathSeparator + h2Jar,
+                            "org.springframework.boot.loader.launch.JarLauncher"));
+                }
+                command.addAll(mode.appArgs());
+                Run run = timeFirstRequest(http, command, WORK_DIR.resolve(mode.name() + "-" + i + ".log"));
+                runs.computeIfAbsent(mode.name(), name -> new ArrayList<>()).add(run);
+                System.out.printf("%-10s run %d: first response after %d ms%n", mode.name(), i + 1, run.firstResponseMillis());
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jar", jar.toString());
+        result.put("dataset", Integer.parseInt(options.get("dataset")));
+        result.put("cpus", Runtime.getRuntime().availableProcessors());
+        Map<String, Object> modeResults = new LinkedHashMap<>();
+        System.out.printf("%n%-10s %12s %12s %12s %14s%n", "mode", "median ms", "min ms", "max ms", "started in s");
+        runs.forEach((mode, samples) -> {
+            List<Long> millis = samples.stream().map(Run::firstResponseMillis).sorted().toList();
+            List<Double> started = samples.stream().map(Run::startedSeconds).filter(Objects::nonNull).sorted().toList();
+            Map<String, Object> modeResult = new LinkedHashMap<>();
+            modeResult.put("firstResponseMedianMillis", millis.get(millis.size() / 2));
+            modeResult.put("firstResponseMinMillis", millis.get(0));
+            modeResult.put("firstResponseMaxMillis", millis.get(millis.size() - 1));
+            modeResult.put("startedMedianSeconds", started.isEmpty() ? null : started.get(started.size() / 2));
+            modeResult.put("firstResponseMillis", samples.stream().map(Run::firstResponseMillis).toList());
+            modeResults.put(mode, modeResult);
+            System.out.printf("%-10s %12d %12d %12d %14s%n", mode, millis.get(millis.size() / 2), millis.get(0),
+                    millis.get(millis.size() - 1), started.isEmpty() ? "-" : started.get(started.size() / 2));
+        });
+        result.put("modes", modeResults);
+
+        Path output = Path.of("target", "jmh", "startup-report.json");
+        Files.createDirectories(output.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), result);
+        System.out.println("Results written to " + output);
+    }
+
+    // Polls /login from launch until it answers 200, then stops the application
+    private static Run timeFirstRequest(HttpClient http, List<String> command, Path log) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+                .timeout(Duration.ofSeconds(30)).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(withPort).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (http.send(login, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException notListening) {
+                    // Not accepting connections yet
+                }
+                Thread.sleep(10);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+            Matcher started = STARTED.matcher(Files.readString(log));
+            return new Run(millis, started.find() ? Double.valueOf(started.group(1)) : null);
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    private static void exec(List<String> command, Path log) throws Exception {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(String.join(" ", command) + " exited with " + process.exitValue() + ", see " + log);
+        }
+    }
+
+    private static boolean hasAotClasses(Path jar) throws Exception {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            return file.getEntry("BOOT-INF/classes/" + MAIN_CLASS.replace('.', '/')
+                    + "__ApplicationContextInitializer.class") != null;
+        }
+    }
+
+    private static Path findJar() throws Exception {
+        try (Stream<Path> files = Files.list(Path.of("target"))) {
+            return files.filter(file -> file.toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No jar in target; run mvn package first"));
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static void deleteRecursively(Path dir) throws Exception {
+        if (Files.exists(dir)) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path file : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
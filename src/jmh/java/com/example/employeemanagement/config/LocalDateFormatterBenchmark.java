@@ -0,0 +1,49 @@
+package com.example.employeemanagement.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the config package because WebConfig.LocalDateFormatter is package-private
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LocalDateFormatterBenchmark {
+
+    private final WebConfig.LocalDateFormatter formatter = new WebConfig.LocalDateFormatter();
+    private final LocalDate date = LocalDate.of(1990, 5, 17);
+
+    @Benchmark
+    public LocalDate parse() throws ParseException {
+        return formatter.parse("1990-05-17", Locale.ENGLISH);
+    }
+
+    @Benchmark
+    public ParseException parseInvalid() {
+        try {
+            formatter.parse("17/05/1990", Locale.ENGLISH);
+            return null;
+        } catch (ParseException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public String print() {
+        return formatter.print(date, Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.employeemanagement.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A concurrency limit that follows latency, after the gradient limit of Netflix's concurrency-limits
+ * library. Each finished request compares the long-run average latency with its own: when requests
+ * take longer than usual they are queueing somewhere (threads, connections, CPU), and the limit shrinks
+ * in proportion; otherwise it grows by the square root of the limit, probing for more capacity. The
+ * limit stays between a configured minimum and maximum.
+ *
+ * <p>Latency is also held to a target: under a sustained overload the long-run average is itself
+ * slow, and comparing against it alone would accept any latency.
+ */
+class AdaptiveConcurrencyLimit {
+    // Latency up to this multiple of the long-run average is not taken as queueing
+    private static final double TOLERANCE = 1.5;
+    // Weight of each new limit estimate, so a single slow request does not halve the limit
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatency;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+    private double longLatency;
+    private long samples;
+
+    AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit, Duration targetLatency) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatency = targetLatency.toNanos();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Called once for every successful tryAcquire, with the time the request took
+    void release(long latencyNanos) {
+        update(Math.max(1, latencyNanos), inFlight.getAndDecrement());
+    }
+
+    private synchronized void update(long latency, int concurrent) {
+        samples++;
+        if (samples <= WARMUP_SAMPLES) {
+            longLatency += (latency - longLatency) / samples;
+            return;
+        }
+        longLatency += (latency - longLatency) / LONG_WINDOW;
+        // After a long overload the average is slow to come down, and would let the limit grow into the
+        // next one; it is pulled towards recent latency instead
+        if (longLatency > 2 * latency) {
+            longLatency *= 0.95;
+        }
+        // Well under the limit, latency says nothing about whether the limit is right
+        if (concurrent < limit / 2) {
+            return;
+        }
+        double expected = Math.min(TOLERANCE * longLatency, targetLatency);
+        double gradient = Math.max(0.5, Math.min(1.0, expected / latency));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + estimate * SMOOTHING));
+    }
+
+    String getName() { return name; }
+    int getLimit() { return (int) limit; }
+    int getInFlight() { return inFlight.get(); }
+    long getRejectedCount() { return rejected.get(); }
+}
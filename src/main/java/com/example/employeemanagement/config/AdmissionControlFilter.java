@@ -0,0 +1,113 @@
+package com.example.employeemanagement.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Admission control: uploads (add, edit and import forms) and searches (the results page and the
+ * JSON search) each have their own {@link AdaptiveConcurrencyLimit}, so a burst of one cannot take the
+ * threads and connections the other needs. A request over its limit is answered at once with a 503
+ * and a {@code Retry-After} header instead of waiting. Runs in the security filter chain after
+ * authorization, so an unauthenticated request gets its 401 without taking a slot; a rejected import is
+ * still never read or parsed. Other requests are not limited.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final RequestMatcher UPLOADS = new OrRequestMatcher(
+            new AntPathRequestMatcher("/employee/add", "POST"),
+            new AntPathRequestMatcher("/employee/edit/*", "POST"),
+            new AntPathRequestMatcher("/employee/import", "POST"));
+    private static final RequestMatcher SEARCHES = new OrRequestMatcher(
+            new AntPathRequestMatcher("/employee/results", "GET"),
+            new AntPathRequestMatcher("/search-results.html", "GET"),
+            new AntPathRequestMatcher("/api/employees", "GET"));
+
+    @Value("${employee.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${employee.admission.retry-after:5s}")
+    private Duration retryAfter;
+
+    @Value("${employee.admission.upload.initial-limit:4}")
+    private int uploadInitialLimit;
+
+    @Value("${employee.admission.upload.min-limit:1}")
+    private int uploadMinLimit;
+
+    @Value("${employee.admission.upload.max-limit:10}")
+    private int uploadMaxLimit;
+
+    @Value("${employee.admission.upload.target-latency:2s}")
+    private Duration uploadTargetLatency;
+
+    @Value("${employee.admission.search.initial-limit:20}")
+    private int searchInitialLimit;
+
+    @Value("${employee.admission.search.min-limit:4}")
+    private int searchMinLimit;
+
+    @Value("${employee.admission.search.max-limit:200}")
+    private int searchMaxLimit;
+
+    @Value("${employee.admission.search.target-latency:500ms}")
+    private Duration searchTargetLatency;
+
+    private AdaptiveConcurrencyLimit uploadLimit;
+    private AdaptiveConcurrencyLimit searchLimit;
+
+    @PostConstruct
+    public void init() {
+        uploadLimit = new AdaptiveConcurrencyLimit("upload", uploadInitialLimit, uploadMinLimit, uploadMaxLimit,
+                uploadTargetLatency);
+        searchLimit = new AdaptiveConcurrencyLimit("search", searchInitialLimit, searchMinLimit, searchMaxLimit,
+                searchTargetLatency);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimit limit = UPLOADS.matches(request) ? uploadLimit
+                : SEARCHES.matches(request) ? searchLimit : null;
+        if (limit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            // Written here rather than through the error page, which would cost a render per rejection
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Too many " + limit.getName() + " requests in progress, please try again shortly.\n");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - start);
+        }
+    }
+
+    List<AdaptiveConcurrencyLimit> getLimits() {
+        return List.of(uploadLimit, searchLimit);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.service.AuthenticationCache;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Checks a password against recently verified credentials before running the (slow) delegate
+class CachingPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final AuthenticationCache cache;
+
+    CachingPasswordEncoder(PasswordEncoder delegate, AuthenticationCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (cache.isVerified(rawPassword, encodedPassword)) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            cache.markVerified(rawPassword, encodedPassword);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.employeemanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting, enabled by listing replicas in {@code employee.datasource.replica-urls}.
+ * The primary pool is configured by {@code spring.datasource.*}. Each replica gets its own pool with the
+ * same settings, sized by {@code employee.datasource.replica-pool-size}. Read-only transactions go to the
+ * replicas, and {@link ReadYourWritesFilter} keeps a client on the primary just after it has written.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.datasource.replica-urls")
+public class DataSourceConfig implements DisposableBean {
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${employee.datasource.replica-urls}")
+    private List<String> replicaUrls;
+
+    @Value("${employee.datasource.replica-username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${employee.datasource.replica-password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${employee.datasource.replica-pool-size:0}")
+    private int replicaPoolSize;
+
+    @Value("${employee.datasource.read-your-writes-window:5s}")
+    private Duration readYourWritesWindow;
+
+    private ReplicaRoutingDataSource routing;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurePool(primary, "primary", environment, meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            configurePool(replica, "replica-" + (replicas.size() + 1), environment, meterRegistry);
+            if (replicaPoolSize > 0) {
+                replica.setMaximumPoolSize(replicaPoolSize);
+                replica.setMinimumIdle(replicaPoolSize);
+            }
+            replicas.add(replica);
+        }
+
+        routing = new ReplicaRoutingDataSource(primary, replicas);
+        for (ReplicaRoutingDataSource.Replica replica : routing.getReplicas()) {
+            Gauge.builder("employee.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica is receiving read-only transactions")
+                    .tag("pool", replica.pool.getPoolName())
+                    .register(meterRegistry);
+        }
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter(readYourWritesWindow);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.datasource.replica-health-interval-ms:5000}")
+    public void checkReplicas() {
+        if (routing != null) {
+            routing.checkReplicas();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (routing != null) {
+            routing.close();
+        }
+    }
+
+    // spring.datasource.hikari.* applies to every pool; pools report hikaricp_* metrics tagged by name
+    static void configurePool(HikariDataSource pool, String name, Environment environment, MeterRegistry meterRegistry) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.employeemanagement.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves text resources gzip-compressed to clients that accept it. Webjars ship no precompressed
+ * copies, so each resource is compressed once, on first request, and the bytes kept in memory.
+ */
+class GzipResourceResolver extends AbstractResourceResolver {
+    private static final Set<String> COMPRESSIBLE = Set.of("css", "js", "map", "svg", "json", "txt", "html");
+
+    private final Map<String, GzippedResource> compressed = new ConcurrentHashMap<>();
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null || request == null || !acceptsGzip(request) || !isCompressible(resource)) {
+            return resource;
+        }
+        try {
+            return compressed.computeIfAbsent(resource.getDescription() + '@' + resource.lastModified(),
+                    key -> new GzippedResource(resource));
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Serving " + requestPath + " uncompressed", e);
+            return resource;
+        }
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static boolean isCompressible(Resource resource) {
+        String filename = resource.getFilename();
+        int dot = filename == null ? -1 : filename.lastIndexOf('.');
+        return dot >= 0 && COMPRESSIBLE.contains(filename.substring(dot + 1).toLowerCase());
+    }
+
+    static class GzippedResource extends AbstractResource implements HttpResource {
+        private final Resource original;
+        private final byte[] bytes;
+        private final long lastModified;
+
+        GzippedResource(Resource original) {
+            this.original = original;
+            try (InputStream in = original.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    StreamUtils.copy(in, gzip);
+                }
+                this.bytes = out.toByteArray();
+                this.lastModified = original.lastModified();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public String getFilename() {
+            return original.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return "gzip of " + original.getDescription();
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            // Keeps the ETag added to versioned resources
+            if (original instanceof HttpResource httpResource) {
+                headers.putAll(httpResource.getResponseHeaders());
+            }
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            return headers;
+        }
+    }
+}
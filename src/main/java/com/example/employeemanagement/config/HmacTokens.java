@@ -0,0 +1,72 @@
+package com.example.employeemanagement.config;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+// The signed token format shared by the login cookie and the search tokens:
+// base64url(payload).base64url(hmac), where the payload holds the fields URL-encoded and separated by &.
+public final class HmacTokens {
+    private static final String ALGORITHM = "HmacSHA256";
+    // Truncated HMAC: 128 bits are plenty for tamper detection
+    private static final int SIGNATURE_BYTES = 16;
+
+    private final SecretKeySpec key;
+
+    public HmacTokens(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public String sign(String... fields) {
+        String payload = String.join("&", Arrays.stream(fields)
+                .map(field -> URLEncoder.encode(field, StandardCharsets.UTF_8))
+                .toArray(String[]::new));
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(bytes) + "." + encoder.encodeToString(hmac(bytes));
+    }
+
+    // Returns the fields of a token signed with this key, or null for a missing, malformed or tampered
+    // token, or one without the expected number of fields
+    public String[] verify(String token, int fields) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(token.substring(0, dot));
+            if (!MessageDigest.isEqual(hmac(payload), decoder.decode(token.substring(dot + 1)))) {
+                return null;
+            }
+            String[] values = new String(payload, StandardCharsets.UTF_8).split("&", -1);
+            if (values.length != fields) {
+                return null;
+            }
+            return Arrays.stream(values)
+                    .map(value -> URLDecoder.decode(value, StandardCharsets.UTF_8))
+                    .toArray(String[]::new);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] hmac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload), SIGNATURE_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
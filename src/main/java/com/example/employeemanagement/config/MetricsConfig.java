@@ -0,0 +1,205 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.service.AuditLog;
+import com.example.employeemanagement.service.AuthenticationCache;
+import com.example.employeemanagement.service.ChangeFeed;
+import com.example.employeemanagement.service.DocumentProcessor;
+import com.example.employeemanagement.service.EmployeeArchiver;
+import com.example.employeemanagement.service.EmployeeCache;
+import com.example.employeemanagement.service.SearchCountCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Application metrics beyond what Spring Boot binds on its own (HTTP server requests, Hikari pool,
+ * JVM). All of them are scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Static: post-processors are created before the rest of the configuration
+    @Bean
+    public static BeanPostProcessor timedDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource(dataSource, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder auditLogMetrics(AuditLog auditLog) {
+        return registry -> {
+            Gauge.builder("employee.audit.queue.depth", auditLog, AuditLog::getQueueDepth)
+                    .description("Audit events buffered and not yet written")
+                    .register(registry);
+            Gauge.builder("employee.audit.queue.capacity", auditLog, AuditLog::getCapacity)
+                    .register(registry);
+            FunctionCounter.builder("employee.audit.events.published", auditLog, AuditLog::getPublishedCount)
+                    .register(registry);
+            FunctionCounter.builder("employee.audit.events.written", auditLog, AuditLog::getWrittenCount)
+                    .register(registry);
+            FunctionCounter.builder("employee.audit.batches", auditLog, AuditLog::getBatchCount)
+                    .register(registry);
+            FunctionCounter.builder("employee.audit.publish.blocked", auditLog, AuditLog::getBlockedPublishCount)
+                    .description("Publishes that waited for room in a full buffer")
+                    .register(registry);
+            FunctionCounter.builder("employee.audit.publish.blocked.time", auditLog, a -> a.getBlockedNanos() / 1e9)
+                    .baseUnit("seconds")
+                    .register(registry);
+            FunctionCounter.builder("employee.audit.events.dead.lettered", auditLog, AuditLog::getDeadLetterCount)
+                    .description("Audit events set aside in the dead-letter file after the last attempt")
+                    .register(registry);
+            FunctionCounter.builder("employee.audit.wal.syncs", auditLog, AuditLog::getSyncCount)
+                    .description("Write-ahead log fsyncs, each covering every event appended before it")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder employeeCacheMetrics(EmployeeCache employeeCache, SearchCountCache searchCountCache) {
+        return registry -> {
+            bindCache(registry, "employees", employeeCache::getEmployeeStats, employeeCache::getEmployeeCacheSize);
+            bindCache(registry, "searches", employeeCache::getSearchStats, employeeCache::getSearchCacheSize);
+            Gauge.builder("employee.search.count.cache.size", searchCountCache, SearchCountCache::getSize)
+                    .description("Search totals cached for keyset pages")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder authenticationCacheMetrics(AuthenticationCache authenticationCache) {
+        return registry -> {
+            bindCache(registry, "users", authenticationCache::getUserStats, authenticationCache::getUserCacheSize);
+            bindCache(registry, "credentials", authenticationCache::getCredentialStats,
+                    authenticationCache::getCredentialCacheSize);
+        };
+    }
+
+    @Bean
+    public MeterBinder admissionMetrics(AdmissionControlFilter admissionControlFilter) {
+        return registry -> {
+            for (AdaptiveConcurrencyLimit limit : admissionControlFilter.getLimits()) {
+                Gauge.builder("employee.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                        .description("Requests of the group allowed to run at once")
+                        .tag("group", limit.getName())
+                        .register(registry);
+                Gauge.builder("employee.admission.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                        .tag("group", limit.getName())
+                        .register(registry);
+                FunctionCounter.builder("employee.admission.rejected", limit, AdaptiveConcurrencyLimit::getRejectedCount)
+                        .description("Requests answered with a 503 because the group was at its limit")
+                        .tag("group", limit.getName())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder changeFeedMetrics(ChangeFeed changeFeed) {
+        return registry -> {
+            Gauge.builder("employee.changes.subscribers", changeFeed, ChangeFeed::getSubscriberCount)
+                    .description("Open change feed streams")
+                    .register(registry);
+            FunctionCounter.builder("employee.changes.events", changeFeed, ChangeFeed::getAppendedCount)
+                    .description("History rows read into the change feed buffer")
+                    .register(registry);
+            FunctionCounter.builder("employee.changes.catch.up.reads", changeFeed, ChangeFeed::getCatchUpReads)
+                    .description("Database reads for subscribers resuming from before the buffer")
+                    .register(registry);
+            FunctionCounter.builder("employee.changes.late", changeFeed, ChangeFeed::getLateCount)
+                    .description("History rows sent after their ID had been skipped as a gap")
+                    .register(registry);
+            FunctionCounter.builder("employee.changes.slow.disconnects", changeFeed, ChangeFeed::getSlowDisconnects)
+                    .description("Subscribers disconnected because their outbox was full")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder archiveMetrics(EmployeeArchiver archiver) {
+        return registry -> {
+            FunctionCounter.builder("employee.archive.history.moved", archiver, EmployeeArchiver::getHistoryMovedCount)
+                    .description("History rows moved from employee_history to the archive")
+                    .register(registry);
+            FunctionCounter.builder("employee.archive.history.expired", archiver,
+                            EmployeeArchiver::getHistoryExpiredCount)
+                    .description("Archived history rows deleted after the retention period")
+                    .register(registry);
+            FunctionCounter.builder("employee.archive.employees.expired", archiver,
+                            EmployeeArchiver::getEmployeesExpiredCount)
+                    .description("Archived employees deleted after the retention period")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder documentProcessorMetrics(DocumentProcessor processor) {
+        return registry -> {
+            Gauge.builder("employee.documents.queue.depth", processor, DocumentProcessor::getQueueDepth)
+                    .description("Stored documents waiting for a processing worker")
+                    .register(registry);
+            Gauge.builder("employee.documents.queue.capacity", processor, DocumentProcessor::getCapacity)
+                    .register(registry);
+            Gauge.builder("employee.documents.workers", processor, DocumentProcessor::getThreads)
+                    .register(registry);
+            Gauge.builder("employee.documents.workers.busy", processor, DocumentProcessor::getBusyWorkers)
+                    .register(registry);
+            FunctionCounter.builder("employee.documents.submitted", processor, DocumentProcessor::getSubmittedCount)
+                    .register(registry);
+            FunctionCounter.builder("employee.documents.processed", processor, DocumentProcessor::getReadyCount)
+                    .tag("status", "ready")
+                    .register(registry);
+            FunctionCounter.builder("employee.documents.processed", processor, DocumentProcessor::getInvalidCount)
+                    .tag("status", "invalid")
+                    .register(registry);
+            FunctionCounter.builder("employee.documents.processed", processor, DocumentProcessor::getFailedCount)
+                    .tag("status", "failed")
+                    .register(registry);
+            FunctionCounter.builder("employee.documents.submit.blocked", processor,
+                            DocumentProcessor::getBlockedSubmitCount)
+                    .description("Uploads that waited for room in a full processing queue")
+                    .register(registry);
+            FunctionCounter.builder("employee.documents.submit.blocked.time", processor,
+                            p -> p.getBlockedNanos() / 1e9)
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, Supplier<CacheStats> stats,
+                                  Supplier<Long> size) {
+        bindStat(registry, "employee.cache.gets", name, "result", "hit", stats, CacheStats::hitCount);
+        bindStat(registry, "employee.cache.gets", name, "result", "miss", stats, CacheStats::missCount);
+        bindStat(registry, "employee.cache.evictions", name, null, null, stats, CacheStats::evictionCount);
+        Gauge.builder("employee.cache.size", size, Supplier::get)
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private static void bindStat(MeterRegistry registry, String meter, String cache, String tag, String value,
+                                 Supplier<CacheStats> stats, Function<CacheStats, Long> stat) {
+        FunctionCounter.Builder<Supplier<CacheStats>> counter = FunctionCounter
+                .builder(meter, stats, s -> stat.apply(s.get()))
+                .tag("cache", cache);
+        if (tag != null) {
+            counter.tag(tag, value);
+        }
+        counter.register(registry);
+    }
+}
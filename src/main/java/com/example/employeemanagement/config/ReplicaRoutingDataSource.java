@@ -0,0 +1,120 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.service.ReplicaReads;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica, round-robin, and everything
+ * else to the primary. Must sit behind a {@code LazyConnectionDataSourceProxy}, so the connection is
+ * only fetched once the transaction's read-only flag is known. A thread can be pinned to the primary
+ * for reads that have to see its own recent writes.
+ */
+class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    // Reachable and carrying the schema
+    private static final String HEALTH_QUERY = "SELECT 1 FROM employee WHERE 1 = 0";
+    private static final ThreadLocal<Boolean> primaryPinned = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    static class Replica {
+        final HikariDataSource pool;
+        // Down until the first check has seen the schema, so startup reads cannot reach an empty replica
+        volatile boolean healthy;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+
+    ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+    }
+
+    static void pinToPrimary() {
+        primaryPinned.set(Boolean.TRUE);
+    }
+
+    static void unpin() {
+        primaryPinned.remove();
+    }
+
+    List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || primaryPinned.get() != null) {
+            return primary.getConnection();
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                ReplicaReads.record();
+                return connection;
+            } catch (SQLException e) {
+                markHealthy(replica, false, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    // Credentials are configured per pool; the primary answers as a plain pool would (Hikari reports
+    // SQLFeatureNotSupportedException)
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // Marks each replica up or down; a replica that is down gets no reads until a check succeeds
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                statement.executeQuery(HEALTH_QUERY).close();
+                markHealthy(replica, true, null);
+            } catch (SQLException e) {
+                markHealthy(replica, false, e);
+            }
+        }
+    }
+
+    private static void markHealthy(Replica replica, boolean healthy, SQLException cause) {
+        if (replica.healthy == healthy) {
+            return;
+        }
+        replica.healthy = healthy;
+        if (healthy) {
+            log.info("Replica {} is up, routing reads to it", replica.pool.getPoolName());
+        } else {
+            log.warn("Replica {} is down, routing its reads to the primary: {}",
+                    replica.pool.getPoolName(), cause.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.employeemanagement.config;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Timings collected for the request running on the current thread: SQL statements (from
+ * {@link TimedDataSource}), handler time and view render time (from {@link RequestTimingInterceptor}).
+ * Work handed to other threads, such as background counts, is not attributed to the request.
+ */
+final class RequestMetrics {
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+    // Statements kept with their SQL text for the slow-request log
+    private static final int MAX_STATEMENTS = 50;
+
+    record Statement(String sql, long nanos) {
+    }
+
+    private int sqlStatements;
+    private long sqlNanos;
+    private long handlerNanos;
+    private long renderNanos;
+    private final List<Statement> statements = new ArrayList<>();
+
+    static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // Null outside a request, e.g. on background threads
+    static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(String sql, long nanos) {
+        sqlStatements++;
+        sqlNanos += nanos;
+        if (statements.size() < MAX_STATEMENTS) {
+            statements.add(new Statement(sql, nanos));
+        }
+    }
+
+    void recordHandler(long nanos) {
+        handlerNanos += nanos;
+    }
+
+    void recordRender(long nanos) {
+        renderNanos += nanos;
+    }
+
+    int getSqlStatements() { return sqlStatements; }
+    long getSqlNanos() { return sqlNanos; }
+    long getHandlerNanos() { return handlerNanos; }
+    long getRenderNanos() { return renderNanos; }
+
+    List<Statement> slowestStatements(int limit) {
+        return statements.stream()
+                .sorted(Comparator.comparingLong(Statement::nanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+}
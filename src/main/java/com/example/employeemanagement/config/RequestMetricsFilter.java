@@ -0,0 +1,93 @@
+package com.example.employeemanagement.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Outermost filter, so its timings include security and session handling. Records the SQL
+ * statement count and time per endpoint and logs requests slower than
+ * {@code employee.metrics.slow-request-threshold} with their query string (the search criteria)
+ * and the slowest statements.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+    private static final int SLOW_STATEMENTS_LOGGED = 5;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${employee.metrics.slow-request-threshold:500ms}")
+    private Duration slowRequestThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestMetrics metrics = RequestMetrics.begin();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            RequestMetrics.end();
+            // Only requests that reached a handler have a route; others (login redirects, 404s) are not tagged
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                record(request.getMethod(), pattern.toString(), metrics);
+            }
+            if (elapsed >= slowRequestThreshold.toNanos()) {
+                logSlowRequest(request, response, elapsed, metrics);
+            }
+        }
+    }
+
+    private void record(String method, String uri, RequestMetrics metrics) {
+        DistributionSummary.builder("employee.request.sql.statements")
+                .description("SQL statements issued per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(metrics.getSqlStatements());
+        Timer.builder("employee.request.sql.time")
+                .description("Time spent executing SQL per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(metrics.getSqlNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void logSlowRequest(HttpServletRequest request, HttpServletResponse response, long elapsed,
+                                RequestMetrics metrics) {
+        String query = request.getQueryString();
+        String slowest = metrics.slowestStatements(SLOW_STATEMENTS_LOGGED).stream()
+                .map(statement -> String.format("%n  %d ms: %s", millis(statement.nanos()), statement.sql()))
+                .collect(Collectors.joining());
+        log.warn("Slow request {} {}{} (status {}): {} ms total, {} ms handler, {} ms render, "
+                        + "{} SQL statements in {} ms{}",
+                request.getMethod(), request.getRequestURI(), query != null ? "?" + query : "", response.getStatus(),
+                millis(elapsed), millis(metrics.getHandlerNanos()), millis(metrics.getRenderNanos()),
+                metrics.getSqlStatements(), millis(metrics.getSqlNanos()), slowest);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
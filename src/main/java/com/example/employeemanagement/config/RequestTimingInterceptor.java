@@ -0,0 +1,66 @@
+package com.example.employeemanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits a request into handler time (controller and services) and view render time. Spring MVC
+ * calls {@code postHandle} after the handler returns and {@code afterCompletion} after the view is
+ * rendered, so the gap between them is the Thymeleaf render, recorded per view name.
+ */
+class RequestTimingInterceptor implements HandlerInterceptor {
+    private static final String HANDLER_START = RequestTimingInterceptor.class.getName() + ".handlerStart";
+    private static final String RENDER_START = RequestTimingInterceptor.class.getName() + ".renderStart";
+    private static final String VIEW_NAME = RequestTimingInterceptor.class.getName() + ".viewName";
+
+    private final MeterRegistry meterRegistry;
+
+    RequestTimingInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(HANDLER_START, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        long now = System.nanoTime();
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null && request.getAttribute(HANDLER_START) instanceof Long start) {
+            metrics.recordHandler(now - start);
+        }
+        String viewName = modelAndView != null ? modelAndView.getViewName() : null;
+        if (viewName != null && !viewName.startsWith("redirect:") && !viewName.startsWith("forward:")) {
+            request.setAttribute(VIEW_NAME, viewName);
+            request.setAttribute(RENDER_START, now);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(RENDER_START) instanceof Long start)) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        Timer.builder("employee.view.render")
+                .description("Thymeleaf view render time")
+                .tag("view", (String) request.getAttribute(VIEW_NAME))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.recordRender(nanos);
+        }
+    }
+}
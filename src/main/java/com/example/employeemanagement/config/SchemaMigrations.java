@@ -0,0 +1,237 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.service.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.AbstractBeansOfTypeDatabaseInitializerDetector;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned schema migrations, enabled by {@code employee.schema.migrations.enabled} (on in the prod
+ * profile, where Hibernate only validates the schema). Scripts named {@code V<version>__<description>.sql}
+ * in {@code classpath:db/migration} are applied in version order and recorded, with a checksum, in the
+ * {@code schema_version} table; an applied script is never run again and must not be edited.
+ *
+ * <p>A database whose tables were created by {@code ddl-auto=update} before migrations existed is
+ * baselined: versions up to {@code employee.schema.baseline-version} are recorded without running.
+ * With sharded storage the migrations run on the catalog and on every shard. Migrations run before the
+ * entity manager factory is built, so Hibernate's validation sees the migrated schema.
+ *
+ * <p>Instances starting together take turns: each database is migrated by the holder of the row in
+ * {@code schema_lock}, and the others wait up to {@code employee.schema.lock-wait} for it. The row is a
+ * plain insert rather than a row or named lock because MySQL commits each DDL statement, which would
+ * release a transaction's locks halfway through a script. An instance killed while migrating leaves the
+ * row behind; it names the holder, and is deleted by hand once that instance is known to be gone.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.schema.migrations.enabled", havingValue = "true")
+public class SchemaMigrations {
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrations.class);
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String VERSION_TABLE = "schema_version";
+    private static final String LOCK_TABLE = "schema_lock";
+    private static final long LOCK_POLL_MILLIS = 500;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${employee.schema.migrations.location:classpath:db/migration/}")
+    private String location;
+
+    @Value("${employee.schema.baseline-version:1}")
+    private int baselineVersion;
+
+    @Value("${employee.schema.lock-wait:10m}")
+    Duration lockWait;
+
+    record Migration(int version, String description, long checksum, Resource script) {
+    }
+
+    // Registered in META-INF/spring.factories: beans that use the database wait for the migrations
+    static class Detector extends AbstractBeansOfTypeDatabaseInitializerDetector {
+        @Override
+        protected Set<Class<?>> getDatabaseInitializerBeanTypes() {
+            return Set.of(SchemaMigrations.class);
+        }
+    }
+
+    @PostConstruct
+    public void migrate() throws IOException {
+        List<Migration> migrations = load();
+        migrate(dataSource, migrations, shardRouter.isSharded() ? "catalog" : "database");
+        if (shardRouter.isSharded()) {
+            for (int shard : shardRouter.allShards()) {
+                shardRouter.run(shard, () -> migrate(dataSource, migrations, "shard " + shard));
+            }
+        }
+    }
+
+    List<Migration> load() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource script : new PathMatchingResourcePatternResolver().getResources(location + "V*__*.sql")) {
+            Matcher name = SCRIPT_NAME.matcher(script.getFilename());
+            if (!name.matches()) {
+                throw new IllegalStateException("Migration script name is not V<version>__<description>.sql: " + script);
+            }
+            migrations.add(new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '),
+                    checksum(script), script));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new IllegalStateException("Two migration scripts for version " + migrations.get(i).version());
+            }
+        }
+        return migrations;
+    }
+
+    void migrate(DataSource target, List<Migration> migrations, String name) {
+        JdbcTemplate jdbc = new JdbcTemplate(target);
+        lock(jdbc, name);
+        try {
+            apply(target, jdbc, migrations, name);
+        } finally {
+            jdbc.update("delete from " + LOCK_TABLE + " where id = 1");
+        }
+    }
+
+    private void lock(JdbcTemplate jdbc, String name) {
+        jdbc.execute("create table if not exists " + LOCK_TABLE + " (id int not null, locked_by varchar(255) not null, "
+                + "locked_at timestamp not null, primary key (id))");
+        String owner = ManagementFactory.getRuntimeMXBean().getName();
+        long deadline = System.nanoTime() + lockWait.toNanos();
+        boolean waiting = false;
+        while (true) {
+            try {
+                jdbc.update("insert into " + LOCK_TABLE + " (id, locked_by, locked_at) values (1, ?, ?)",
+                        owner, Timestamp.from(Instant.now()));
+                return;
+            } catch (DuplicateKeyException e) {
+                List<String> holder = jdbc.queryForList("select concat(locked_by, ' since ', locked_at) from "
+                        + LOCK_TABLE + " where id = 1", String.class);
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Migrations of the " + name + " are locked by " + holder
+                            + "; if that instance is no longer running, delete the row from " + LOCK_TABLE);
+                }
+                if (!waiting) {
+                    log.info("Waiting for the migrations of the {} held by {}", name, holder);
+                    waiting = true;
+                }
+            }
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the migration lock", e);
+            }
+        }
+    }
+
+    private void apply(DataSource target, JdbcTemplate jdbc, List<Migration> migrations, String name) {
+        if (!tableExists(target, VERSION_TABLE)) {
+            boolean existingSchema = tableExists(target, "employee");
+            jdbc.execute("create table " + VERSION_TABLE + " (version int not null, description varchar(200) not null, "
+                    + "checksum bigint not null, installed_on timestamp not null, primary key (version))");
+            if (existingSchema) {
+                log.info("Baselining the existing schema of the {} at version {}", name, baselineVersion);
+                migrations.stream()
+                        .filter(migration -> migration.version() <= baselineVersion)
+                        .forEach(migration -> record(jdbc, migration));
+            }
+        }
+
+        Map<Integer, Long> applied = jdbc.query("select version, checksum from " + VERSION_TABLE,
+                        (row, i) -> Map.entry(row.getInt(1), row.getLong(2))).stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.version());
+            if (checksum != null) {
+                if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration V" + migration.version()
+                            + " was changed after it was applied to the " + name);
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            // MySQL commits each DDL statement, so a script that fails halfway has to be finished by hand
+            Connection connection = DataSourceUtils.getConnection(target);
+            try {
+                ScriptUtils.executeSqlScript(connection, migration.script());
+            } finally {
+                DataSourceUtils.releaseConnection(connection, target);
+            }
+            record(jdbc, migration);
+            log.info("Applied migration V{} ({}) to the {} in {} ms", migration.version(), migration.description(),
+                    name, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static void record(JdbcTemplate jdbc, Migration migration) {
+        jdbc.update("insert into " + VERSION_TABLE + " (version, description, checksum, installed_on) values (?, ?, ?, ?)",
+                migration.version(), migration.description(), migration.checksum(), Timestamp.from(Instant.now()));
+    }
+
+    private static boolean tableExists(DataSource target, String table) {
+        Connection connection = DataSourceUtils.getConnection(target);
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the table list", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, target);
+        }
+    }
+
+    // Line endings are ignored, so a checkout with CRLF endings computes the same checksum
+    private static long checksum(Resource script) {
+        CRC32 crc = new CRC32();
+        try (InputStream in = script.getInputStream()) {
+            crc.update(new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return crc.getValue();
+    }
+}
@@ -1,23 +1,81 @@
 package com.example.employeemanagement.config;
 
+import com.example.employeemanagement.service.AuthenticationCache;
+import com.example.employeemanagement.service.UserAccountService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.CookieRequestCache;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+    private static final String BCRYPT = "bcrypt";
+
+    @Value("${employee.security.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${employee.security.token-secret}")
+    private String tokenSecret;
+
+    @Value("${employee.security.idle-timeout:30m}")
+    private Duration idleTimeout;
+
+    @Value("${employee.security.token-ttl:8h}")
+    private Duration tokenTtl;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AdmissionControlFilter admissionControlFilter)
+            throws Exception {
+        SignedTokenSecurityContextRepository tokens = new SignedTokenSecurityContextRepository(
+                SigningSecrets.require("employee.security.token-secret", tokenSecret), idleTimeout, tokenTtl);
         http
+            // No HTTP session: the login is a signed cookie, and the page to return to after login is a cookie too
+            .sessionManagement((session) -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .securityContext((context) -> context.securityContextRepository(tokens))
+            // Keeps an active user's cookie from reaching its idle timeout
+            .addFilterAfter(new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                FilterChain chain) throws ServletException, IOException {
+                    tokens.refresh(request, response);
+                    chain.doFilter(request, response);
+                }
+            }, SecurityContextHolderFilter.class)
+            // Only authenticated, authorized requests count against the upload and search limits
+            .addFilterAfter(admissionControlFilter, AuthorizationFilter.class)
+            .requestCache((cache) -> cache.requestCache(new CookieRequestCache()))
             .authorizeHttpRequests((requests) -> requests
                 .requestMatchers("/login", "/login.html", "/css/**", "/js/**", "/webjars/**").permitAll()
+                // Error pages render a status already decided for the original request; with no session,
+                // the Basic credentials of that request would otherwise be missing and turn it into a 401
+                .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
                 .anyRequest().authenticated()
             )
             .formLogin((form) -> form
@@ -25,17 +83,50 @@ public class SecurityConfig {
                 .defaultSuccessUrl("/employee/search")
                 .permitAll()
             )
-            .logout((logout) -> logout.permitAll());
+            .logout((logout) -> logout
+                .deleteCookies(SignedTokenSecurityContextRepository.COOKIE)
+                .permitAll()
+            )
+            // Bulk import and the JSON API are called by scripts rather than the browser forms
+            .httpBasic(Customizer.withDefaults())
+            // API clients get a 401 rather than a redirect to the login page
+            .exceptionHandling((exceptions) -> exceptions
+                .defaultAuthenticationEntryPointFor(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED),
+                    new AntPathRequestMatcher("/api/**")))
+            // CSRF tokens live in a cookie rather than the session, so any node can check a form post.
+            // API writes only accept JSON bodies, and the import only CSV or NDJSON ones, none of which a
+            // cross-site form or simple request can send.
+            .csrf((csrf) -> csrf
+                .csrfTokenRepository(new CookieCsrfTokenRepository())
+                .ignoringRequestMatchers("/employee/import", "/api/**"));
         
         return http.build();
     }
 
+    // Runs in the security filter chain above, not as a servlet filter of its own
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+            AdmissionControlFilter admissionControlFilter) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(admissionControlFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    // Hashes carry their encoder id; raising the strength rehashes each password at its next login
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, new BCryptPasswordEncoder(bcryptStrength)));
+    }
+
     @Bean
-    public UserDetailsService userDetailsService() {
-        var user = User.withUsername("admin")
-            .password("{noop}password")
-            .roles("USER")
-            .build();
-        return new InMemoryUserDetailsManager(user);
+    public DaoAuthenticationProvider authenticationProvider(UserAccountService userAccountService,
+                                                            AuthenticationCache authenticationCache,
+                                                            PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(new CachingPasswordEncoder(passwordEncoder, authenticationCache));
+        provider.setUserDetailsService(userAccountService::loadUserByUsername);
+        provider.setUserDetailsPasswordService(userAccountService);
+        provider.setUserCache(authenticationCache);
+        return provider;
     }
 }
@@ -0,0 +1,134 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.service.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sharded storage, enabled by listing the shard databases in {@code employee.sharding.shard-urls}.
+ * The database configured by {@code spring.datasource.*} becomes the catalog, which holds the ID
+ * sequence. Employees and their history live on the shard {@link ShardRouter} maps them to. Each
+ * shard gets its own pool with the same settings, sized by {@code employee.sharding.shard-pool-size},
+ * and Hibernate's schema management ({@code spring.jpa.hibernate.ddl-auto}) runs on every shard.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.sharding.shard-urls")
+public class ShardingConfig implements DisposableBean {
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${employee.sharding.shard-urls}")
+    private List<String> shardUrls;
+
+    @Value("${employee.sharding.shard-username:${spring.datasource.username:}}")
+    private String shardUsername;
+
+    @Value("${employee.sharding.shard-password:${spring.datasource.password:}}")
+    private String shardPassword;
+
+    @Value("${employee.sharding.shard-pool-size:0}")
+    private int shardPoolSize;
+
+    @Value("${employee.search.backend:jpql}")
+    private String searchBackend;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    // Connections come from the shard selected on the calling thread, or the catalog when none is
+    private static class ShardRoutingDataSource extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return ShardRouter.currentShard();
+        }
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties) {
+        if (!"jpql".equals(searchBackend)) {
+            throw new IllegalStateException("Sharded storage needs employee.search.backend=jpql; "
+                    + "the search index only covers a single database");
+        }
+        HikariDataSource catalog = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        DataSourceConfig.configurePool(catalog, "catalog", environment, meterRegistry);
+        pools.add(catalog);
+
+        Map<Object, Object> shards = new HashMap<>();
+        for (String url : shardUrls) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setDriverClassName(properties.determineDriverClassName());
+            shard.setJdbcUrl(url.trim());
+            shard.setUsername(shardUsername);
+            shard.setPassword(shardPassword);
+            DataSourceConfig.configurePool(shard, "shard-" + shards.size(), environment, meterRegistry);
+            if (shardPoolSize > 0) {
+                shard.setMaximumPoolSize(shardPoolSize);
+                shard.setMinimumIdle(shardPoolSize);
+            }
+            pools.add(shard);
+            shards.put(shards.size(), shard);
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(shards);
+        routing.setDefaultTargetDataSource(catalog);
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    // Hibernate only manages the schema of the catalog; this applies the same action to each shard
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaManagement(ShardRouter shardRouter) {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                                  SessionFactoryImplementor sessionFactory) {
+                Map<String, Object> settings = sessionFactory.getServiceRegistry()
+                        .requireService(ConfigurationService.class).getSettings();
+                for (int shard : shardRouter.allShards()) {
+                    // Objects are not dropped from the shards on shutdown, even with create-drop
+                    shardRouter.run(shard, () -> SchemaManagementToolCoordinator.process(
+                            metadata, sessionFactory.getServiceRegistry(), settings, action -> { }));
+                }
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                     SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return properties -> properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(integrator));
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.employeemanagement.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the login in a signed cookie instead of the HTTP session, so an authenticated request is
+ * checked with one HMAC and no session or user lookup, on any node. The token is an {@link HmacTokens}
+ * token of the username, the authorities, the idle expiry and the absolute expiry (epoch seconds).
+ * A token expires after {@code employee.security.idle-timeout} without requests, like the HTTP session
+ * it replaces; {@link #refresh} reissues it on activity, but never past {@code employee.security.token-ttl}
+ * after login. Every node must be configured with the same {@code employee.security.token-secret}.
+ *
+ * <p>A token cannot be revoked before it expires: disabling a user or changing their roles takes
+ * effect at their next login, and changing the secret logs everyone out.
+ */
+class SignedTokenSecurityContextRepository implements SecurityContextRepository {
+    static final String COOKIE = "EMPLOYEE_AUTH";
+    private static final int FIELDS = 4;
+    // An active user's cookie is reissued at most this often, so responses do not all set it
+    private static final long REFRESH_AFTER_SECONDS = 60;
+
+    private record Token(String username, List<GrantedAuthority> authorities, long idleExpiresAt, long expiresAt) {
+    }
+
+    private final HmacTokens tokens;
+    private final Duration idleTimeout;
+    private final Duration ttl;
+
+    SignedTokenSecurityContextRepository(String secret, Duration idleTimeout, Duration ttl) {
+        this.tokens = new HmacTokens(secret);
+        this.idleTimeout = idleTimeout;
+        this.ttl = ttl;
+    }
+
+    // The cookie is only checked when something asks for the context
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+        return new DeferredSecurityContext() {
+            private SecurityContext context;
+            private boolean generated;
+
+            @Override
+            public SecurityContext get() {
+                if (context == null) {
+                    Authentication authentication = decode(token(request));
+                    generated = authentication == null;
+                    context = generated ? SecurityContextHolder.createEmptyContext() : new SecurityContextImpl(authentication);
+                }
+                return context;
+            }
+
+            @Override
+            public boolean isGenerated() {
+                get();
+                return generated;
+            }
+        };
+    }
+
+    @Override
+    @Deprecated
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        return loadDeferredContext(requestResponseHolder.getRequest()).get();
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            if (token(request) != null) {
+                response.addCookie(cookie(request, "", 0));
+            }
+            return;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        long expiresAt = now + ttl.toSeconds();
+        issue(request, response, authentication.getName(), authentication.getAuthorities(),
+                Math.min(now + idleTimeout.toSeconds(), expiresAt), expiresAt);
+    }
+
+    // Moves the idle expiry of a valid token forward; called on every request before it is handled
+    void refresh(HttpServletRequest request, HttpServletResponse response) {
+        Token token = parse(token(request));
+        if (token == null) {
+            return;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        long idleExpiresAt = Math.min(now + idleTimeout.toSeconds(), token.expiresAt());
+        if (idleExpiresAt - token.idleExpiresAt() >= REFRESH_AFTER_SECONDS) {
+            issue(request, response, token.username(), token.authorities(), idleExpiresAt, token.expiresAt());
+        }
+    }
+
+    private void issue(HttpServletRequest request, HttpServletResponse response, String username,
+                       Collection<? extends GrantedAuthority> authorities, long idleExpiresAt, long expiresAt) {
+        long maxAge = idleExpiresAt - System.currentTimeMillis() / 1000;
+        response.addCookie(cookie(request, encode(username, authorities, idleExpiresAt, expiresAt), (int) maxAge));
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return decode(token(request)) != null;
+    }
+
+    String encode(String username, Collection<? extends GrantedAuthority> authorities, long idleExpiresAt,
+                  long expiresAt) {
+        return tokens.sign(username,
+                authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(",")),
+                Long.toString(idleExpiresAt), Long.toString(expiresAt));
+    }
+
+    // Returns null for a missing, malformed, tampered or expired token, which leaves the request anonymous
+    Authentication decode(String token) {
+        Token parsed = parse(token);
+        if (parsed == null) {
+            return null;
+        }
+        User principal = new User(parsed.username(), "", parsed.authorities());
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, parsed.authorities());
+    }
+
+    private Token parse(String token) {
+        String[] fields = tokens.verify(token, FIELDS);
+        if (fields == null) {
+            return null;
+        }
+        try {
+            long now = System.currentTimeMillis() / 1000;
+            long idleExpiresAt = Long.parseLong(fields[2]);
+            long expiresAt = Long.parseLong(fields[3]);
+            if (idleExpiresAt <= now || expiresAt <= now) {
+                return null;
+            }
+            return new Token(fields[0], AuthorityUtils.commaSeparatedStringToAuthorityList(fields[1]),
+                    idleExpiresAt, expiresAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String token(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        return Arrays.stream(cookies)
+                .filter(cookie -> COOKIE.equals(cookie.getName()))
+                .map(Cookie::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Cookie cookie(HttpServletRequest request, String value, int maxAge) {
+        Cookie cookie = new Cookie(COOKIE, value);
+        String contextPath = request.getContextPath();
+        cookie.setPath(contextPath.isEmpty() ? "/" : contextPath);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setAttribute("SameSite", "Lax");
+        cookie.setMaxAge(maxAge);
+        return cookie;
+    }
+}
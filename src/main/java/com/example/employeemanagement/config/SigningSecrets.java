@@ -0,0 +1,25 @@
+package com.example.employeemanagement.config;
+
+// Checks the HMAC keys of the login cookie and the search tokens at startup. Anyone who knows a key
+// can forge what it signs, so a missing, short or sample key stops the application instead of
+// running with it.
+public final class SigningSecrets {
+    static final int MIN_LENGTH = 32;
+    private static final String SAMPLE_PREFIX = "change-me";
+
+    private SigningSecrets() {
+    }
+
+    public static String require(String property, String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException(property + " must be set");
+        }
+        if (secret.startsWith(SAMPLE_PREFIX)) {
+            throw new IllegalStateException(property + " is still the sample value; set a random key");
+        }
+        if (secret.length() < MIN_LENGTH) {
+            throw new IllegalStateException(property + " must be at least " + MIN_LENGTH + " characters");
+        }
+        return secret;
+    }
+}
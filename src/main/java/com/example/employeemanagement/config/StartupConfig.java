@@ -0,0 +1,26 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.service.AuditLog;
+import com.example.employeemanagement.service.DepartmentAggregates;
+import com.example.employeemanagement.service.EmployeeSearchBackend;
+import com.example.employeemanagement.service.IdAllocator;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans that are created at startup even with {@code spring.main.lazy-initialization=true} (prod
+ * profile). Everything else, such as controllers, templates and the API, is created on first use.
+ */
+@Configuration
+public class StartupConfig {
+
+    // The audit log replays the write-ahead log of a crashed node; the schema is migrated and validated
+    // before the node reports ready; ID bitmaps, the search index and the department aggregates are
+    // loaded before the first request, and the aggregates' reconciliation is only scheduled once created
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AuditLog.class, SchemaMigrations.class,
+                IdAllocator.class, EmployeeSearchBackend.class, DepartmentAggregates.class);
+    }
+}
@@ -1,23 +1,73 @@
 package com.example.employeemanagement.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.WebProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.format.Formatter;
 import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
 
 import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WebProperties webProperties;
+
+    // Compresses webjars and static files in memory (prod profile); see GzipResourceResolver
+    @Value("${employee.web.gzip-static-resources:false}")
+    private boolean gzipStaticResources;
 
     @Override
     public void addFormatters(FormatterRegistry registry) {
         registry.addFormatter(new LocalDateFormatter());
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestTimingInterceptor(meterRegistry));
+    }
+
+    // Replaces Boot's resource handlers (spring.web.resources.add-mappings=false) with ones that also
+    // gzip. URLs carry a content hash so they can be cached for as long as spring.web.resources.cache
+    // allows. There is no catch-all /** handler: every URL a page links to would otherwise be looked up
+    // on the classpath while the page renders.
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        if (!gzipStaticResources) {
+            return;
+        }
+        WebProperties.Resources resources = webProperties.getResources();
+        addResourceHandler(registry, "/webjars/**", "classpath:/META-INF/resources/webjars/");
+        for (String directory : List.of("css", "js")) {
+            addResourceHandler(registry, "/" + directory + "/**", Arrays.stream(resources.getStaticLocations())
+                    .map(location -> location + directory + "/")
+                    .toArray(String[]::new));
+        }
+    }
+
+    private void addResourceHandler(ResourceHandlerRegistry registry, String pattern, String... locations) {
+        registry.addResourceHandler(pattern)
+                .addResourceLocations(locations)
+                .setCacheControl(webProperties.getResources().getCache().getCachecontrol().toHttpCacheControl())
+                .resourceChain(true)
+                .addResolver(new GzipResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
     static class LocalDateFormatter implements Formatter<LocalDate> {
 
         private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
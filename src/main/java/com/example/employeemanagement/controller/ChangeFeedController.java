@@ -0,0 +1,76 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.service.ChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Employee changes as server-sent events, for dashboards and sync jobs that would otherwise poll the
+ * results page. Each event's {@code id} is its offset: browsers send it back as {@code Last-Event-ID}
+ * when they reconnect, and other clients can pass it as {@code offset} to resume where they stopped.
+ */
+@RestController
+public class ChangeFeedController {
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @GetMapping("/api/changes")
+    public ResponseEntity<ResponseBodyEmitter> changes(
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String offset,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // No timeout: the stream stays open until the client leaves
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(
+                StringUtils.hasText(department) ? department : null,
+                StringUtils.hasText(lastEventId) ? lastEventId : StringUtils.hasText(offset) ? offset : null,
+                new ChangeFeed.Sink() {
+                    @Override
+                    public void write(byte[] events) throws IOException {
+                        emitter.send(events);
+                    }
+
+                    @Override
+                    public void close() {
+                        emitter.complete();
+                    }
+                });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noStore())
+                // Proxies that buffer responses (nginx) would hold events back
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(Map.of("error", e.getMessage()));
+    }
+
+    // Too many subscribers on this instance
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalState(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+}
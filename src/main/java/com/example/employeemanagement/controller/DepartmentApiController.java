@@ -0,0 +1,21 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.model.DepartmentStats;
+import com.example.employeemanagement.service.DepartmentAggregates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class DepartmentApiController {
+    @Autowired
+    private DepartmentAggregates departmentAggregates;
+
+    // Served from the in-memory aggregates, without touching the database
+    @GetMapping("/api/departments")
+    public List<DepartmentStats> getDepartments() {
+        return departmentAggregates.getStats();
+    }
+}
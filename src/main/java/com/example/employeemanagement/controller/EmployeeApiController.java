@@ -0,0 +1,191 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON API over the same service as the HTML pages, for scripts and analytics jobs. Searches page by
+ * cursor like the results page; {@code /export} streams every match as NDJSON or CSV in one response.
+ */
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeApiController {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String CSV_HEADER = "employeeId,firstName,lastName,loginId,dateOfBirth,department,salary\n";
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public record EmployeePage(List<EmployeeSummary> employees, String nextCursor) {
+    }
+
+    // Up to size employees in employeeId order; pass nextCursor back as cursor for the following page.
+    // Deleted employees are only searched with includeArchived.
+    @GetMapping
+    public EmployeePage search(
+            @RequestParam(required = false) String employeeId,
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String loginId,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria(
+                employeeId, firstName, lastName, loginId, department, startDate, endDate);
+        Slice<EmployeeSummary> slice = employeeService.searchEmployeesAfter(
+                criteria, SearchCursors.decode(cursor), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), includeArchived);
+        List<EmployeeSummary> employees = slice.getContent();
+        return new EmployeePage(employees, slice.hasNext()
+                ? SearchCursors.encode(employees.get(employees.size() - 1).getEmployeeId()) : null);
+    }
+
+    @GetMapping("/{id}")
+    public Employee getEmployee(@PathVariable String id) {
+        return employeeService.getEmployeeById(id);
+    }
+
+    // Same rules as the add-employee form; IDs are generated and the ID proof can be uploaded later
+    @PostMapping
+    public ResponseEntity<Employee> addEmployee(@RequestBody Employee employee) throws IOException {
+        if (employee.getDateOfBirth() == null) {
+            throw new IllegalArgumentException("dateOfBirth is required");
+        }
+        if (employee.getDepartment() == null || employee.getDepartment().isBlank()) {
+            throw new IllegalArgumentException("department is required");
+        }
+        Employee saved = employeeService.addEmployee(employee, null);
+        return ResponseEntity.created(URI.create("/api/employees/" + saved.getEmployeeId())).body(saved);
+    }
+
+    // Body is a JSON array of employee IDs; nothing is deleted if any of them does not exist
+    @DeleteMapping
+    public ResponseEntity<Void> deleteEmployees(@RequestBody List<String> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            throw new IllegalArgumentException("No employee IDs given");
+        }
+        employeeService.deleteEmployees(employeeIds);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Every match, written row by row as it is read from the database cursor
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(required = false) String employeeId,
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String loginId,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria(
+                employeeId, firstName, lastName, loginId, department, startDate, endDate);
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"employees." + (csv ? "csv" : "ndjson") + "\"");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)) {
+            if (csv) {
+                writer.write(CSV_HEADER);
+            }
+            employeeService.exportEmployees(criteria, includeArchived, employee -> {
+                try {
+                    if (csv) {
+                        writeCsv(writer, employee);
+                    } else {
+                        writeJson(json, employee);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client going away mid-export
+            throw e.getCause();
+        }
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException e) {
+        HttpStatus status = "Employee not found".equals(e.getMessage()) ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(Map.of("error", e.getMessage()));
+    }
+
+    private static void writeJson(JsonGenerator json, EmployeeSummary employee) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("employeeId", employee.getEmployeeId());
+        json.writeStringField("firstName", employee.getFirstName());
+        json.writeStringField("lastName", employee.getLastName());
+        json.writeStringField("loginId", employee.getLoginId());
+        json.writeStringField("dateOfBirth", employee.getDateOfBirth() == null ? null : employee.getDateOfBirth().toString());
+        json.writeStringField("department", employee.getDepartment());
+        json.writeNumberField("salary", employee.getSalary());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeCsv(Writer writer, EmployeeSummary employee) throws IOException {
+        writer.write(csvValue(employee.getEmployeeId()));
+        writer.write(',');
+        writer.write(csvValue(employee.getFirstName()));
+        writer.write(',');
+        writer.write(csvValue(employee.getLastName()));
+        writer.write(',');
+        writer.write(csvValue(employee.getLoginId()));
+        writer.write(',');
+        writer.write(employee.getDateOfBirth() == null ? "" : employee.getDateOfBirth().toString());
+        writer.write(',');
+        writer.write(csvValue(employee.getDepartment()));
+        writer.write(',');
+        writer.write(Double.toString(employee.getSalary()));
+        writer.write('\n');
+    }
+
+    // Quotes values containing separators, quotes or line breaks, doubling embedded quotes
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
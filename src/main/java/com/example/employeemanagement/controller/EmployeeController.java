@@ -1,19 +1,27 @@
 package com.example.employeemanagement.controller;
 
 import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeHistory;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
 import com.example.employeemanagement.service.EmployeeService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 
-import jakarta.servlet.http.HttpSession;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -22,14 +30,22 @@ public class EmployeeController {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private SearchTokens searchTokens;
+
+    // "keyset" pages by cursor without COUNT queries, "offset" uses numbered pages
+    @Value("${employee.search.pagination:keyset}")
+    private String paginationMode;
+
     @GetMapping({"/login", "/login.html"})
     public String showLoginPage() {
         return "login";
     }
 
     @GetMapping({"/employee/add", "/add-employee.html"})
-    public String showAddEmployeeForm(Model model) {
+    public String showAddEmployeeForm(@RequestParam(required = false) String search, Model model) {
         model.addAttribute("employee", new Employee());
+        model.addAttribute("search", search);
         return "add-employee";
     }
 
@@ -44,8 +60,8 @@ public class EmployeeController {
             @RequestParam("permanentAddress") String permanentAddress,
             @RequestParam("currentAddress") String currentAddress,
             @RequestParam(value = "idProof", required = false) MultipartFile idProof,
-            Model model,
-            HttpSession session) {
+            @RequestParam(required = false) String search,
+            Model model) {
         try {
             if (idProof == null || idProof.isEmpty()) {
                 throw new IllegalArgumentException("ID Proof file is required");
@@ -60,9 +76,10 @@ public class EmployeeController {
             employee.setPermanentAddress(permanentAddress);
             employee.setCurrentAddress(currentAddress);
             employeeService.addEmployee(employee, idProof);
-            return redirectToSearchResults(session, model);
+            return redirectToSearchResults(search);
         } catch (Exception e) {
             model.addAttribute("error", e.getMessage());
+            model.addAttribute("search", search);
             return "add-employee";
         }
     }
@@ -90,19 +107,33 @@ public class EmployeeController {
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            Model model,
-            HttpSession session) {
-        // Store search criteria in session
-        session.setAttribute("searchEmployeeId", employeeId);
-        session.setAttribute("searchFirstName", firstName);
-        session.setAttribute("searchLastName", lastName);
-        session.setAttribute("searchLoginId", loginId);
-        session.setAttribute("searchDepartment", department);
-        session.setAttribute("searchStartDate", startDate);
-        session.setAttribute("searchEndDate", endDate);
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response,
+            CsrfToken csrfToken,
+            Model model) {
+        // The page flushes while it renders, so the CSRF cookie its forms need is set before that
+        csrfToken.getToken();
+        model.addAttribute("flush", new PageFlush(response));
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria(
+                employeeId, firstName, lastName, loginId, department, startDate, endDate);
+        // Forms and links on the page carry the criteria back, so mutations can return to this search
+        model.addAttribute("search", searchTokens.encode(criteria));
+
+        if (cursor != null || "keyset".equals(paginationMode)) {
+            String afterEmployeeId = SearchCursors.decode(cursor);
+            Slice<EmployeeSummary> employeeSlice = employeeService.searchEmployeesAfter(criteria, afterEmployeeId, size);
+            List<EmployeeSummary> employees = employeeSlice.getContent();
+            model.addAttribute("employees", employees);
+            model.addAttribute("keyset", true);
+            model.addAttribute("firstPage", afterEmployeeId == null);
+            model.addAttribute("nextCursor", employeeSlice.hasNext()
+                    ? SearchCursors.encode(employees.get(employees.size() - 1).getEmployeeId()) : null);
+            model.addAttribute("totalCount", employeeService.getApproximateCount(criteria));
+            return "search-results";
+        }
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Employee> employeePage = employeeService.searchEmployees(
+        Page<EmployeeSummary> employeePage = employeeService.searchEmployees(
                 employeeId, firstName, lastName, loginId, department, startDate, endDate, pageable);
         model.addAttribute("employees", employeePage.getContent());
         model.addAttribute("currentPage", employeePage.getNumber());
@@ -111,31 +142,40 @@ public class EmployeeController {
     }
 
     @GetMapping({"/employee/view/{id}", "/view-employee.html/{id}"})
-    public String viewEmployee(@PathVariable String id, Model model) {
+    public String viewEmployee(@PathVariable String id,
+                               @RequestParam(defaultValue = "0") int historyPage,
+                               Model model) {
         Employee employee = employeeService.getEmployeeById(id);
+        Slice<EmployeeHistory> history = employeeService.getEmployeeHistory(id, historyPage);
         model.addAttribute("employee", employee);
+        model.addAttribute("idProof", employeeService.getIdProofDocument(employee).orElse(null));
+        model.addAttribute("history", history.getContent());
+        model.addAttribute("historyPage", historyPage);
+        model.addAttribute("historyHasNext", history.hasNext());
         return "view-employee";
     }
 
     @GetMapping({"/employee/edit/{id}", "/edit-employee.html/{id}"})
-    public String showEditForm(@PathVariable String id, Model model) {
+    public String showEditForm(@PathVariable String id, @RequestParam(required = false) String search, Model model) {
         Employee employee = employeeService.getEmployeeById(id);
         model.addAttribute("employee", employee);
+        model.addAttribute("search", search);
         return "edit-employee";
     }
 
     @PostMapping("/employee/edit/{id}")
     public String updateEmployee(@PathVariable String id,
                                  @RequestParam(value = "idProof", required = false) MultipartFile idProof,
-                                 Model model,
-                                 HttpSession session) {
+                                 @RequestParam(required = false) String search,
+                                 Model model) {
+        model.addAttribute("search", search);
         try {
             if (idProof == null || idProof.isEmpty()) {
                 model.addAttribute("error", "No file selected for ID Proof update");
                 return "edit-employee";
             }
             employeeService.updateEmployee(id, idProof);
-            return redirectToSearchResults(session, model);
+            return redirectToSearchResults(search);
         } catch (Exception e) {
             model.addAttribute("error", e.getMessage());
             return "edit-employee";
@@ -146,56 +186,47 @@ public class EmployeeController {
     public String deleteEmployees(
             @RequestParam(value = "employeeIds", required = false) List<String> employeeIds,
             @RequestParam(value = "formSubmitted", required = false) String formSubmitted,
-            Model model,
-            HttpSession session) {
+            @RequestParam(required = false) String search,
+            Model model) {
         if ("true".equals(formSubmitted) && (employeeIds == null || employeeIds.isEmpty())) {
             model.addAttribute("error", "Please select at least one employee to delete.");
-            return redirectToSearchResults(session, model);
+            return redirectToSearchResults(search);
         }
         if (employeeIds == null || employeeIds.isEmpty()) {
-            return redirectToSearchResults(session, model);
+            return redirectToSearchResults(search);
         }
         employeeService.deleteEmployees(employeeIds);
-        return redirectToSearchResults(session, model);
+        return redirectToSearchResults(search);
     }
 
     @GetMapping("/employee/delete")
-    public String handleInvalidDelete(Model model, HttpSession session) {
+    public String handleInvalidDelete(@RequestParam(required = false) String search, Model model) {
         model.addAttribute("error", "Invalid delete request. Please use the search page to delete employees.");
-        return redirectToSearchResults(session, model);
+        return redirectToSearchResults(search);
     }
 
-    private String redirectToSearchResults(HttpSession session, Model model) {
-        String employeeId = (String) session.getAttribute("searchEmployeeId");
-        String firstName = (String) session.getAttribute("searchFirstName");
-        String lastName = (String) session.getAttribute("searchLastName");
-        String loginId = (String) session.getAttribute("searchLoginId");
-        String department = (String) session.getAttribute("searchDepartment");
-        LocalDate startDate = (LocalDate) session.getAttribute("searchStartDate");
-        LocalDate endDate = (LocalDate) session.getAttribute("searchEndDate");
-
+    // Rebuilds the results URL from the search token posted back by the page; an invalid token
+    // returns to an unfiltered search
+    private String redirectToSearchResults(String search) {
+        EmployeeSearchCriteria criteria = searchTokens.decode(search);
         StringBuilder redirectUrl = new StringBuilder("redirect:/employee/results?page=0");
-        if (employeeId != null && !employeeId.isEmpty()) {
-            redirectUrl.append("&employeeId=").append(employeeId);
-        }
-        if (firstName != null && !firstName.isEmpty()) {
-            redirectUrl.append("&firstName=").append(firstName);
-        }
-        if (lastName != null && !lastName.isEmpty()) {
-            redirectUrl.append("&lastName=").append(lastName);
-        }
-        if (loginId != null && !loginId.isEmpty()) {
-            redirectUrl.append("&loginId=").append(loginId);
-        }
-        if (department != null && !department.isEmpty()) {
-            redirectUrl.append("&department=").append(department);
-        }
-        if (startDate != null) {
-            redirectUrl.append("&startDate=").append(startDate.toString());
-        }
-        if (endDate != null) {
-            redirectUrl.append("&endDate=").append(endDate.toString());
+        if (criteria == null) {
+            return redirectUrl.toString();
         }
+        appendParam(redirectUrl, "employeeId", criteria.getEmployeeId());
+        appendParam(redirectUrl, "firstName", criteria.getFirstName());
+        appendParam(redirectUrl, "lastName", criteria.getLastName());
+        appendParam(redirectUrl, "loginId", criteria.getLoginId());
+        appendParam(redirectUrl, "department", criteria.getDepartment());
+        appendParam(redirectUrl, "startDate", criteria.getStartDate());
+        appendParam(redirectUrl, "endDate", criteria.getEndDate());
         return redirectUrl.toString();
     }
+
+    private static void appendParam(StringBuilder url, String name, Object value) {
+        if (value != null) {
+            url.append('&').append(name).append('=')
+                    .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+        }
+    }
 }
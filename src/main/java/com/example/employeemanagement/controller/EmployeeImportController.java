@@ -0,0 +1,54 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.model.ImportFormat;
+import com.example.employeemanagement.model.ImportJob;
+import com.example.employeemanagement.service.EmployeeImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+@RestController
+public class EmployeeImportController {
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
+    // Accepts a raw CSV (text/csv) or NDJSON (application/x-ndjson) body; the import runs in the background.
+    // Other content types get a 415: a cross-site form or simple request cannot send these two, which is
+    // why SecurityConfig lets this endpoint skip the CSRF token.
+    @PostMapping(value = "/employee/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportJob> importEmployees(
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) throws IOException {
+        ImportJob job = employeeImportService.startImport(request.getInputStream(), resolveFormat(format, request));
+        return ResponseEntity.accepted()
+                .location(URI.create("/employee/import/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/employee/import/{jobId}")
+    public ImportJob getImportStatus(@PathVariable String jobId) {
+        return employeeImportService.getJob(jobId);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException e) {
+        HttpStatus status = "Import job not found".equals(e.getMessage()) ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(Map.of("error", e.getMessage()));
+    }
+
+    private static ImportFormat resolveFormat(String format, HttpServletRequest request) {
+        if (format != null) {
+            return ImportFormat.valueOf(format.toUpperCase());
+        }
+        // consumes has already narrowed the content type to one of the two
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        return contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON) ? ImportFormat.NDJSON : ImportFormat.CSV;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.employeemanagement.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+// Lets a template send what it has rendered so far, such as the page head before a long table. Under
+// gzip compression nothing, not even the headers, reaches the client until the deflater has a block to
+// emit, which for most pages is the end; a flush ends the block early.
+public final class PageFlush {
+    private final HttpServletResponse response;
+
+    PageFlush(HttpServletResponse response) {
+        this.response = response;
+    }
+
+    // Renders nothing: ${flush.now()}
+    public String now() throws IOException {
+        response.flushBuffer();
+        return "";
+    }
+}
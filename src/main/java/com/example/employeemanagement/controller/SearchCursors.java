@@ -0,0 +1,34 @@
+package com.example.employeemanagement.controller;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque, URL-safe cursor tokens for keyset pagination; the token wraps the last employeeId of a page
+final class SearchCursors {
+
+    private SearchCursors() {
+    }
+
+    static String encode(String lastEmployeeId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastEmployeeId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for a missing or malformed token, which restarts from the first page. A token is
+    // not signed: an edited one that still decodes only moves where the page starts.
+    static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String employeeId;
+        try {
+            employeeId = StandardCharsets.UTF_8.newDecoder()
+                    .decode(ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor))).toString();
+        } catch (IllegalArgumentException | CharacterCodingException e) {
+            return null;
+        }
+        return employeeId.isBlank() || employeeId.chars().anyMatch(Character::isISOControl) ? null : employeeId;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.config.HmacTokens;
+import com.example.employeemanagement.config.SigningSecrets;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Compact, URL-safe, signed tokens carrying a search's criteria, so pages can return to the
+ * search after a mutation without keeping it in the HTTP session. A token is an {@link HmacTokens}
+ * token of the seven criteria. Every node must be configured with the same
+ * {@code employee.search.token-secret} to accept the others' tokens.
+ */
+@Component
+public class SearchTokens {
+    private static final int FIELDS = 7;
+
+    private final HmacTokens tokens;
+
+    public SearchTokens(@Value("${employee.search.token-secret}") String secret) {
+        this.tokens = new HmacTokens(SigningSecrets.require("employee.search.token-secret", secret));
+    }
+
+    public String encode(EmployeeSearchCriteria criteria) {
+        return tokens.sign(field(criteria.getEmployeeId()), field(criteria.getFirstName()),
+                field(criteria.getLastName()), field(criteria.getLoginId()), field(criteria.getDepartment()),
+                field(criteria.getStartDate()), field(criteria.getEndDate()));
+    }
+
+    // Returns null for a missing, malformed or tampered token, which falls back to an unfiltered search
+    public EmployeeSearchCriteria decode(String token) {
+        String[] values = tokens.verify(token, FIELDS);
+        if (values == null) {
+            return null;
+        }
+        try {
+            return new EmployeeSearchCriteria(values[0], values[1], values[2], values[3], values[4],
+                    date(values[5]), date(values[6]));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String field(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static LocalDate date(String value) {
+        return value.isEmpty() ? null : LocalDate.parse(value);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.employeemanagement.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A deleted employee, moved out of the employee table by the delete; the index matches V5
+@Entity
+@Table(name = "employee_archive", indexes = @Index(name = "idx_employee_archive_history_deleted",
+        columnList = "history_archived, deleted_at"))
+public class ArchivedEmployee {
+    @Id
+    private String employeeId;
+    private String firstName;
+    private String lastName;
+    private String middleName;
+    private String loginId;
+    private LocalDate dateOfBirth;
+    private String department;
+    private double salary;
+    private String permanentAddress;
+    private String currentAddress;
+    private String idProofPath;
+    private LocalDateTime deletedAt;
+    // Set once the archiver has moved the employee's history out of employee_history
+    private boolean historyArchived;
+
+    // Getters and Setters
+    public String getEmployeeId() { return employeeId; }
+    public void setEmployeeId(String employeeId) { this.employeeId = employeeId; }
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+    public String getMiddleName() { return middleName; }
+    public void setMiddleName(String middleName) { this.middleName = middleName; }
+    public String getLoginId() { return loginId; }
+    public void setLoginId(String loginId) { this.loginId = loginId; }
+    public LocalDate getDateOfBirth() { return dateOfBirth; }
+    public void setDateOfBirth(LocalDate dateOfBirth) { this.dateOfBirth = dateOfBirth; }
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+    public double getSalary() { return salary; }
+    public void setSalary(double salary) { this.salary = salary; }
+    public String getPermanentAddress() { return permanentAddress; }
+    public void setPermanentAddress(String permanentAddress) { this.permanentAddress = permanentAddress; }
+    public String getCurrentAddress() { return currentAddress; }
+    public void setCurrentAddress(String currentAddress) { this.currentAddress = currentAddress; }
+    public String getIdProofPath() { return idProofPath; }
+    public void setIdProofPath(String idProofPath) { this.idProofPath = idProofPath; }
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+    public boolean isHistoryArchived() { return historyArchived; }
+    public void setHistoryArchived(boolean historyArchived) { this.historyArchived = historyArchived; }
+}
@@ -0,0 +1,7 @@
+package com.example.employeemanagement.model;
+
+import java.time.LocalDateTime;
+
+// A history entry on its way to the employee_history table; sequence orders events in the write-ahead log
+public record AuditEvent(long sequence, String employeeId, String action, String department, LocalDateTime timestamp) {
+}
@@ -0,0 +1,8 @@
+package com.example.employeemanagement.model;
+
+import java.util.Map;
+
+// Headcount, salary figures and age distribution of one department; ageBands maps each band to its headcount
+public record DepartmentStats(String department, long headcount, double salaryTotal, double salaryAverage,
+                              double salaryMin, double salaryMax, Map<String, Long> ageBands) {
+}
@@ -1,17 +1,24 @@
 package com.example.employeemanagement.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+// Production schemas come from db/migration; these indexes match V2 and V10 for ddl-auto databases
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_employee_department", columnList = "department"),
+        @Index(name = "idx_employee_date_of_birth", columnList = "date_of_birth"),
+        @Index(name = "idx_employee_id_proof_path", columnList = "id_proof_path")})
 public class Employee {
     @Id
     private String employeeId;
     private String firstName;
     private String lastName;
     private String middleName;
+    @Column(unique = true)
     private String loginId;
     private LocalDate dateOfBirth;
     private String department;
@@ -20,7 +27,10 @@ public class Employee {
     private String currentAddress;
     private String idProofPath;
 
-    @OneToMany(mappedBy = "employee", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Lazy and not loaded for cached employees; history has its own paged query. Not cascaded: history
+    // is written by the audit log and outlives the employee, moving to the archive with it
+    @JsonIgnore
+    @OneToMany(mappedBy = "employee")
     private List<EmployeeHistory> history = new ArrayList<>();
 
     // Getters and Setters
@@ -0,0 +1,8 @@
+package com.example.employeemanagement.model;
+
+import java.time.LocalDateTime;
+
+// One history row as sent on the change feed; offset is where a client resumes after it
+public record EmployeeChange(String offset, String employeeId, String action, String department,
+                             LocalDateTime timestamp) {
+}
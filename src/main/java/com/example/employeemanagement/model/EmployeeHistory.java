@@ -4,15 +4,19 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_employee_history_employee_timestamp", columnList = "employee_id, timestamp"))
 public class EmployeeHistory {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String action;
     private LocalDateTime timestamp;
+    // The employee's department when the change was made
+    private String department;
 
-    @ManyToOne
-    @JoinColumn(name = "employee_id")
+    // No FK constraint: audit rows (including DELETED) outlive the employee row they describe
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Employee employee;
 
     // Getters and Setters
@@ -22,7 +26,8 @@ public class EmployeeHistory {
     public void setAction(String action) { this.action = action; }
     public LocalDateTime getTimestamp() { return timestamp; }
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
     public Employee getEmployee() { return employee; }
-    public void setEmployee(Employee employee) {
-}
+    public void setEmployee(Employee employee) { this.employee = employee; }
 }
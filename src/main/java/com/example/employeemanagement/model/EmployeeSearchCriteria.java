@@ -0,0 +1,72 @@
+package com.example.employeemanagement.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class EmployeeSearchCriteria {
+    private String employeeId;
+    private String firstName;
+    private String lastName;
+    private String loginId;
+    private String department;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    public EmployeeSearchCriteria() {
+    }
+
+    public EmployeeSearchCriteria(String employeeId, String firstName, String lastName, String loginId,
+                                  String department, LocalDate startDate, LocalDate endDate) {
+        this.employeeId = normalize(employeeId);
+        this.firstName = normalize(firstName);
+        this.lastName = normalize(lastName);
+        this.loginId = normalize(loginId);
+        this.department = normalize(department);
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Blank form fields are submitted as empty strings; treat them as "not specified"
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // Getters and Setters
+    public String getEmployeeId() { return employeeId; }
+    public void setEmployeeId(String employeeId) { this.employeeId = normalize(employeeId); }
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = normalize(firstName); }
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = normalize(lastName); }
+    public String getLoginId() { return loginId; }
+    public void setLoginId(String loginId) { this.loginId = normalize(loginId); }
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = normalize(department); }
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EmployeeSearchCriteria)) return false;
+        EmployeeSearchCriteria that = (EmployeeSearchCriteria) o;
+        return Objects.equals(employeeId, that.employeeId)
+                && Objects.equals(firstName, that.firstName)
+                && Objects.equals(lastName, that.lastName)
+                && Objects.equals(loginId, that.loginId)
+                && Objects.equals(department, that.department)
+                && Objects.equals(startDate, that.startDate)
+                && Objects.equals(endDate, that.endDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(employeeId, firstName, lastName, loginId, department, startDate, endDate);
+    }
+}
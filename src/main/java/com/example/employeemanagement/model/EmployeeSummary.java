@@ -0,0 +1,14 @@
+package com.example.employeemanagement.model;
+
+import java.time.LocalDate;
+
+// Projection of the columns used by search and the results grid
+public interface EmployeeSummary {
+    String getEmployeeId();
+    String getFirstName();
+    String getLastName();
+    String getLoginId();
+    LocalDate getDateOfBirth();
+    String getDepartment();
+    double getSalary();
+}
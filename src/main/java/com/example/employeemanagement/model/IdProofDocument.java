@@ -0,0 +1,58 @@
+package com.example.employeemanagement.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// What the document pipeline found in a stored ID proof, keyed like Employee.idProofPath. Documents are
+// content-addressed and shared by every employee who uploaded the same file, so this lives in the catalog.
+@Entity
+public class IdProofDocument {
+    public enum Status { PENDING, READY, INVALID, FAILED }
+
+    @Id
+    private String documentKey;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    private Integer pageCount;
+    // mediumtext on MySQL, read as a plain string rather than a LOB
+    @Column(length = 1_000_000)
+    private String extractedText;
+    private String checksum;
+    private boolean thumbnail;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+    // Times a worker has started on it, counted before the work so a crash counts too
+    private int attempts;
+
+    public IdProofDocument() {
+    }
+
+    public IdProofDocument(String documentKey) {
+        this.documentKey = documentKey;
+        this.status = Status.PENDING;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getDocumentKey() { return documentKey; }
+    public void setDocumentKey(String documentKey) { this.documentKey = documentKey; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public Integer getPageCount() { return pageCount; }
+    public void setPageCount(Integer pageCount) { this.pageCount = pageCount; }
+    public String getExtractedText() { return extractedText; }
+    public void setExtractedText(String extractedText) { this.extractedText = extractedText; }
+    public String getChecksum() { return checksum; }
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+    public boolean isThumbnail() { return thumbnail; }
+    public void setThumbnail(boolean thumbnail) { this.thumbnail = thumbnail; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+}
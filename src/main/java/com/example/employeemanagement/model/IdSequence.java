@@ -0,0 +1,24 @@
+package com.example.employeemanagement.model;
+
+import jakarta.persistence.*;
+
+@Entity
+public class IdSequence {
+    @Id
+    private String name;
+    private long nextValue;
+
+    public IdSequence() {
+    }
+
+    public IdSequence(String name, long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public long getNextValue() { return nextValue; }
+    public void setNextValue(long nextValue) { this.nextValue = nextValue; }
+}
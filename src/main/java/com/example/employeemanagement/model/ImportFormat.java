@@ -0,0 +1,3 @@
+package com.example.employeemanagement.model;
+
+public enum ImportFormat { CSV, NDJSON }
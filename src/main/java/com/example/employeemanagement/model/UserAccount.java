@@ -0,0 +1,33 @@
+package com.example.employeemanagement.model;
+
+import jakarta.persistence.*;
+
+// A login to the application; roles are comma-separated names without the ROLE_ prefix
+@Entity
+public class UserAccount {
+    @Id
+    private String username;
+    private String passwordHash;
+    private String roles;
+    private boolean enabled;
+
+    public UserAccount() {
+    }
+
+    public UserAccount(String username, String passwordHash, String roles) {
+        this.username = username;
+        this.passwordHash = passwordHash;
+        this.roles = roles;
+        this.enabled = true;
+    }
+
+    // Getters and Setters
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getPasswordHash() { return passwordHash; }
+    public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
+    public String getRoles() { return roles; }
+    public void setRoles(String roles) { this.roles = roles; }
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+}
@@ -0,0 +1,54 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.model.ArchivedEmployee;
+import com.example.employeemanagement.model.EmployeeSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static com.example.employeemanagement.repository.EmployeeRepository.SEARCH_FILTER;
+import static com.example.employeemanagement.repository.EmployeeRepository.SUMMARY_SELECT;
+
+// The searches of EmployeeRepository over deleted employees, for requests that include the archive
+@Repository
+@Transactional(readOnly = true)
+public interface ArchivedEmployeeRepository extends JpaRepository<ArchivedEmployee, String> {
+
+    @Query(SUMMARY_SELECT + "FROM ArchivedEmployee e WHERE " + SEARCH_FILTER +
+           " AND (:afterId IS NULL OR e.employeeId > :afterId) ORDER BY e.employeeId")
+    Slice<EmployeeSummary> searchEmployeesAfter(
+            @Param("employeeId") String employeeId,
+            @Param("firstName") String firstName,
+            @Param("lastName") String lastName,
+            @Param("loginId") String loginId,
+            @Param("department") String department,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("afterId") String afterId,
+            Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SUMMARY_SELECT + "FROM ArchivedEmployee e WHERE " + SEARCH_FILTER + " ORDER BY e.employeeId")
+    Stream<EmployeeSummary> streamEmployees(
+            @Param("employeeId") String employeeId,
+            @Param("firstName") String firstName,
+            @Param("lastName") String lastName,
+            @Param("loginId") String loginId,
+            @Param("department") String department,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e.employeeId FROM ArchivedEmployee e")
+    Stream<String> streamAllIds();
+}
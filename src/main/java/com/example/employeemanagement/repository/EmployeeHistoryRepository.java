@@ -0,0 +1,18 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.model.EmployeeHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+// Declared queries get no transaction by default; read-only lets a replica serve them
+@Repository
+@Transactional(readOnly = true)
+public interface EmployeeHistoryRepository extends JpaRepository<EmployeeHistory, Long> {
+
+    Slice<EmployeeHistory> findByEmployeeEmployeeId(String employeeId, Pageable pageable);
+
+    long countByEmployeeEmployeeId(String employeeId);
+}
@@ -0,0 +1,260 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.model.AuditEvent;
+import com.example.employeemanagement.model.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Set-based JDBC access for bulk operations, where going through the entity manager would
+ * cost one statement (or more) per employee.
+ */
+@Repository
+public class EmployeeJdbcRepository {
+    private static final String INSERT_EMPLOYEE = "INSERT INTO employee (employee_id, first_name, last_name, " +
+            "middle_name, login_id, date_of_birth, department, salary, permanent_address, current_address, " +
+            "id_proof_path) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_HISTORY =
+            "INSERT INTO employee_history (action, timestamp, employee_id, department) VALUES (?, ?, ?, ?)";
+    private static final String EMPLOYEE_COLUMNS = "employee_id, first_name, last_name, middle_name, login_id, " +
+            "date_of_birth, department, salary, permanent_address, current_address, id_proof_path";
+    private static final String HISTORY_COLUMNS = "id, employee_id, action, department, timestamp";
+    private static final RowMapper<HistoryRow> HISTORY_ROW = (rs, row) -> new HistoryRow(rs.getLong(1),
+            rs.getString(2), rs.getString(3), rs.getString(4),
+            rs.getTimestamp(5) == null ? null : rs.getTimestamp(5).toLocalDateTime());
+
+    public record DeletionCandidate(String employeeId, String loginId, String idProofPath,
+                                    String department, double salary, LocalDate dateOfBirth) {
+    }
+
+    // Employees of one department born on one day
+    public record BirthDateGroup(String department, LocalDate dateOfBirth, long count, double salaryTotal,
+                                 double salaryMin, double salaryMax) {
+    }
+
+    public record SalaryRange(double min, double max) {
+    }
+
+    public record HistoryRow(long id, String employeeId, String action, String department, LocalDateTime timestamp) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public void insertEmployees(List<Employee> employees) {
+        jdbcTemplate.batchUpdate(INSERT_EMPLOYEE, employees, employees.size(), (ps, e) -> {
+            ps.setString(1, e.getEmployeeId());
+            ps.setString(2, e.getFirstName());
+            ps.setString(3, e.getLastName());
+            ps.setString(4, e.getMiddleName());
+            ps.setString(5, e.getLoginId());
+            ps.setDate(6, Date.valueOf(e.getDateOfBirth()));
+            ps.setString(7, e.getDepartment());
+            ps.setDouble(8, e.getSalary());
+            ps.setString(9, e.getPermanentAddress());
+            ps.setString(10, e.getCurrentAddress());
+            ps.setString(11, e.getIdProofPath());
+        });
+    }
+
+    public void insertHistory(List<Employee> employees, String action, LocalDateTime timestamp) {
+        Timestamp at = Timestamp.valueOf(timestamp);
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, employees, employees.size(), (ps, employee) -> {
+            ps.setString(1, action);
+            ps.setTimestamp(2, at);
+            ps.setString(3, employee.getEmployeeId());
+            ps.setString(4, employee.getDepartment());
+        });
+    }
+
+    // All or nothing, so the audit writer's retry of a failed batch does not store its first rows twice
+    @Transactional
+    public void insertHistoryEvents(List<AuditEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.action());
+            ps.setTimestamp(2, Timestamp.valueOf(event.timestamp()));
+            ps.setString(3, event.employeeId());
+            ps.setString(4, event.department());
+        });
+    }
+
+    public List<DeletionCandidate> findDeletionCandidates(Collection<String> employeeIds) {
+        return queryDeletionCandidates(employeeIds, "");
+    }
+
+    // Same rows, locked until the surrounding transaction ends, so no other delete or update can change
+    // them between this read and the DELETE
+    public List<DeletionCandidate> lockDeletionCandidates(Collection<String> employeeIds) {
+        return queryDeletionCandidates(employeeIds, " FOR UPDATE");
+    }
+
+    private List<DeletionCandidate> queryDeletionCandidates(Collection<String> employeeIds, String lock) {
+        return namedParameterJdbcTemplate.query(
+                "SELECT employee_id, login_id, id_proof_path, department, salary, date_of_birth " +
+                        "FROM employee WHERE employee_id IN (:ids)" + lock,
+                new MapSqlParameterSource("ids", employeeIds),
+                (rs, row) -> new DeletionCandidate(rs.getString(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getDouble(5), toLocalDate(rs.getDate(6))));
+    }
+
+    // One row per department and birth date, handed to the consumer as the result is read
+    public void forEachBirthDateGroup(Consumer<BirthDateGroup> consumer) {
+        jdbcTemplate.query("SELECT department, date_of_birth, COUNT(*), SUM(salary), MIN(salary), MAX(salary) " +
+                        "FROM employee GROUP BY department, date_of_birth",
+                (RowCallbackHandler) rs -> consumer.accept(new BirthDateGroup(rs.getString(1),
+                        toLocalDate(rs.getDate(2)), rs.getLong(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6))));
+    }
+
+    // The same for one department; blank and missing departments are one group, as in the aggregates
+    public void forEachBirthDateGroup(String department, Consumer<BirthDateGroup> consumer) {
+        String where = department == null || department.isEmpty()
+                ? "department IS NULL OR department = ''" : "department = ?";
+        Object[] args = department == null || department.isEmpty() ? new Object[0] : new Object[] {department};
+        jdbcTemplate.query("SELECT department, date_of_birth, COUNT(*), SUM(salary), MIN(salary), MAX(salary) " +
+                        "FROM employee WHERE " + where + " GROUP BY department, date_of_birth",
+                (RowCallbackHandler) rs -> consumer.accept(new BirthDateGroup(rs.getString(1),
+                        toLocalDate(rs.getDate(2)), rs.getLong(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6))),
+                args);
+    }
+
+    // Null if the department has no employees
+    public SalaryRange findSalaryRange(String department) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*), MIN(salary), MAX(salary) FROM employee WHERE department = ?",
+                (rs, row) -> rs.getLong(1) == 0 ? null : new SalaryRange(rs.getDouble(2), rs.getDouble(3)), department);
+    }
+
+    // Up to limit history rows with afterId < id <= throughId, in ID order (a primary key range scan)
+    public List<HistoryRow> findHistoryBetween(long afterId, long throughId, int limit) {
+        return jdbcTemplate.query("SELECT " + HISTORY_COLUMNS + " FROM employee_history " +
+                        "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?",
+                HISTORY_ROW, afterId, throughId, limit);
+    }
+
+    // As findHistoryBetween, including rows already moved to the archive (read through its ID index)
+    public List<HistoryRow> findAllHistoryBetween(long afterId, long throughId, int limit) {
+        return jdbcTemplate.query("SELECT " + HISTORY_COLUMNS + " FROM (" +
+                        "(SELECT " + HISTORY_COLUMNS + " FROM employee_history " +
+                        "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?) UNION ALL " +
+                        "(SELECT " + HISTORY_COLUMNS + " FROM employee_history_archive " +
+                        "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?)) h ORDER BY id LIMIT ?",
+                HISTORY_ROW, afterId, throughId, limit, afterId, throughId, limit, limit);
+    }
+
+    // The rows among the given IDs that exist, in either table
+    public List<HistoryRow> findAllHistoryByIds(Collection<Long> ids) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        return namedParameterJdbcTemplate.query("SELECT " + HISTORY_COLUMNS + " FROM employee_history " +
+                "WHERE id IN (:ids) UNION ALL SELECT " + HISTORY_COLUMNS + " FROM employee_history_archive " +
+                "WHERE id IN (:ids) ORDER BY id", params, HISTORY_ROW);
+    }
+
+    public long findMaxHistoryId() {
+        return jdbcTemplate.queryForObject("SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM employee_history), " +
+                "(SELECT COALESCE(MAX(id), 0) FROM employee_history_archive))", Long.class);
+    }
+
+    // Copies the employees to employee_archive, before they are deleted in the same transaction
+    public int archiveEmployees(Collection<String> employeeIds, LocalDateTime deletedAt) {
+        return namedParameterJdbcTemplate.update("INSERT INTO employee_archive (" + EMPLOYEE_COLUMNS +
+                        ", deleted_at, history_archived) SELECT " + EMPLOYEE_COLUMNS + ", :deletedAt, FALSE " +
+                        "FROM employee WHERE employee_id IN (:ids)",
+                new MapSqlParameterSource("ids", employeeIds).addValue("deletedAt", Timestamp.valueOf(deletedAt)));
+    }
+
+    // Archived employees deleted before the given time whose history is still in employee_history
+    public List<String> findArchivedEmployeesWithHistory(LocalDateTime deletedBefore, int limit) {
+        return jdbcTemplate.queryForList("SELECT employee_id FROM employee_archive " +
+                        "WHERE history_archived = FALSE AND deleted_at < ? ORDER BY deleted_at LIMIT ?",
+                String.class, Timestamp.valueOf(deletedBefore), limit);
+    }
+
+    public List<HistoryRow> findHistoryOf(Collection<String> employeeIds) {
+        return namedParameterJdbcTemplate.query("SELECT " + HISTORY_COLUMNS + " FROM employee_history " +
+                "WHERE employee_id IN (:ids)", new MapSqlParameterSource("ids", employeeIds), HISTORY_ROW);
+    }
+
+    public void markHistoryArchived(Collection<String> employeeIds) {
+        namedParameterJdbcTemplate.update("UPDATE employee_archive SET history_archived = TRUE " +
+                "WHERE employee_id IN (:ids)", new MapSqlParameterSource("ids", employeeIds));
+    }
+
+    // Moves the rows to employee_history_archive under the month of their timestamp, keeping their IDs
+    public void archiveHistory(List<HistoryRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employee_history_archive (archive_month, " + HISTORY_COLUMNS +
+                ") VALUES (?, ?, ?, ?, ?, ?)", rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, archiveMonth(row.timestamp()));
+            ps.setLong(2, row.id());
+            ps.setString(3, row.employeeId());
+            ps.setString(4, row.action());
+            ps.setString(5, row.department());
+            ps.setTimestamp(6, row.timestamp() == null ? null : Timestamp.valueOf(row.timestamp()));
+        });
+        namedParameterJdbcTemplate.update("DELETE FROM employee_history WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", rows.stream().map(HistoryRow::id).toList()));
+    }
+
+    // yyyymm, or 0 for rows without a timestamp so they expire first
+    public static int archiveMonth(LocalDateTime timestamp) {
+        return timestamp == null ? 0 : timestamp.getYear() * 100 + timestamp.getMonthValue();
+    }
+
+    // An employee's archived history, newest first
+    public List<HistoryRow> findArchivedHistory(String employeeId, long offset, int limit) {
+        return jdbcTemplate.query("SELECT " + HISTORY_COLUMNS + " FROM employee_history_archive " +
+                        "WHERE employee_id = ? ORDER BY timestamp DESC, id DESC LIMIT ? OFFSET ?",
+                HISTORY_ROW, employeeId, limit, offset);
+    }
+
+    // Deletes up to limit archived history rows from months before the given one; returns how many
+    public int deleteArchivedHistoryBefore(int archiveMonth, int limit) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM employee_history_archive " +
+                "WHERE archive_month < ? ORDER BY archive_month, id LIMIT ?", Long.class, archiveMonth, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update("DELETE FROM employee_history_archive " +
+                        "WHERE archive_month < :month AND id IN (:ids)",
+                new MapSqlParameterSource("ids", ids).addValue("month", archiveMonth));
+    }
+
+    // Deletes up to limit archived employees deleted before the given time whose history has been archived
+    public int deleteArchivedEmployeesBefore(LocalDateTime deletedBefore, int limit) {
+        List<String> ids = jdbcTemplate.queryForList("SELECT employee_id FROM employee_archive " +
+                        "WHERE history_archived = TRUE AND deleted_at < ? LIMIT ?",
+                String.class, Timestamp.valueOf(deletedBefore), limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update("DELETE FROM employee_archive WHERE employee_id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+    public int deleteEmployees(Collection<String> employeeIds) {
+        return namedParameterJdbcTemplate.update("DELETE FROM employee WHERE employee_id IN (:ids)",
+                new MapSqlParameterSource("ids", employeeIds));
+    }
+}
@@ -1,27 +1,58 @@
 package com.example.employeemanagement.repository;
 
 import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+// Declared queries get no transaction by default; read-only lets a replica serve them
 @Repository
+@Transactional(readOnly = true)
 public interface EmployeeRepository extends JpaRepository<Employee, String> {
-    @Query("SELECT e FROM Employee e WHERE " +
+    String SEARCH_FILTER =
            "(:employeeId IS NULL OR LOWER(e.employeeId) LIKE LOWER(CONCAT('%', :employeeId, '%'))) " +
            "AND (:firstName IS NULL OR LOWER(e.firstName) LIKE LOWER(CONCAT('%', :firstName, '%'))) " +
            "AND (:lastName IS NULL OR LOWER(e.lastName) LIKE LOWER(CONCAT('%', :lastName, '%'))) " +
            "AND (:loginId IS NULL OR LOWER(e.loginId) LIKE LOWER(CONCAT('%', :loginId, '%'))) " +
            "AND (:department IS NULL OR e.department = :department) " +
            "AND (:startDate IS NULL OR e.dateOfBirth >= :startDate) " +
-           "AND (:endDate IS NULL OR e.dateOfBirth <= :endDate)")
-    Page<Employee> searchEmployees(
+           "AND (:endDate IS NULL OR e.dateOfBirth <= :endDate)";
+
+    // Only the columns shown in the results grid, mapped onto EmployeeSummary
+    String SUMMARY_SELECT =
+           "SELECT e.employeeId AS employeeId, e.firstName AS firstName, e.lastName AS lastName, " +
+           "e.loginId AS loginId, e.dateOfBirth AS dateOfBirth, e.department AS department, e.salary AS salary ";
+
+    @Query(value = SUMMARY_SELECT + "FROM Employee e WHERE " + SEARCH_FILTER,
+           countQuery = "SELECT COUNT(e) FROM Employee e WHERE " + SEARCH_FILTER)
+    Page<EmployeeSummary> searchEmployees(
+            @Param("employeeId") String employeeId,
+            @Param("firstName") String firstName,
+            @Param("lastName") String lastName,
+            @Param("loginId") String loginId,
+            @Param("department") String department,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable);
+
+    // Keyset (seek) variant: stable order on employeeId, no OFFSET and no count query
+    @Query(SUMMARY_SELECT + "FROM Employee e WHERE " + SEARCH_FILTER +
+           " AND (:afterId IS NULL OR e.employeeId > :afterId) ORDER BY e.employeeId")
+    Slice<EmployeeSummary> searchEmployeesAfter(
             @Param("employeeId") String employeeId,
             @Param("firstName") String firstName,
             @Param("lastName") String lastName,
@@ -29,7 +60,40 @@ public interface EmployeeRepository extends JpaRepository<Employee, String> {
             @Param("department") String department,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
+            @Param("afterId") String afterId,
             Pageable pageable);
 
+    @Query("SELECT COUNT(e) FROM Employee e WHERE " + SEARCH_FILTER)
+    long countEmployees(
+            @Param("employeeId") String employeeId,
+            @Param("firstName") String firstName,
+            @Param("lastName") String lastName,
+            @Param("loginId") String loginId,
+            @Param("department") String department,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    // Unpaged, in employeeId order, read through a cursor 1000 rows at a time (MySQL needs
+    // useCursorFetch=true for the fetch size to take effect)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SUMMARY_SELECT + "FROM Employee e WHERE " + SEARCH_FILTER + " ORDER BY e.employeeId")
+    Stream<EmployeeSummary> streamEmployees(
+            @Param("employeeId") String employeeId,
+            @Param("firstName") String firstName,
+            @Param("lastName") String lastName,
+            @Param("loginId") String loginId,
+            @Param("department") String department,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
     boolean existsByLoginId(String loginId);
+
+    boolean existsByIdProofPath(String idProofPath);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SUMMARY_SELECT + "FROM Employee e")
+    Stream<EmployeeSummary> streamAllSummaries();
+
+    @Query(SUMMARY_SELECT + "FROM Employee e WHERE e.employeeId IN :ids")
+    List<EmployeeSummary> findSummariesByIds(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,27 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.model.IdProofDocument;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface IdProofDocumentRepository extends JpaRepository<IdProofDocument, String> {
+
+    // Oldest first, for the processor's sweep; the status index keeps this off the finished documents
+    List<IdProofDocument> findByStatusAndCreatedAtBeforeOrderByCreatedAt(IdProofDocument.Status status,
+                                                                         LocalDateTime before, Pageable pageable);
+
+    // Locks the row until the transaction ends, so a delete cannot slip between the check and the write
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM IdProofDocument d WHERE d.documentKey = :key")
+    Optional<IdProofDocument> findForUpdate(@Param("key") String key);
+}
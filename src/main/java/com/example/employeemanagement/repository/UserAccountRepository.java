@@ -0,0 +1,9 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.model.UserAccount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserAccountRepository extends JpaRepository<UserAccount, String> {
+}
@@ -0,0 +1,497 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.AuditEvent;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Asynchronous writer for employee history. Mutations publish {@link AuditEvent}s into a bounded
+ * buffer and return; a background thread drains the buffer in batches of up to {@code batch-size}
+ * events or every {@code flush-interval-ms} and writes each batch with one JDBC batch insert.
+ *
+ * <p>Every event is appended to a local write-ahead log before it is buffered, under one lock, so the
+ * buffer holds events in sequence order. The fsync happens after the lock is released and is shared
+ * (group commit): the first publisher to wait syncs everything appended so far, and every publisher
+ * whose event that covers returns together, so concurrent mutations cost one fsync between them.
+ *
+ * <p>The log is split into segments of about {@code wal-segment-size}. The sequence number of the last
+ * written event is checkpointed after each batch; segments that end at or before the checkpoint are
+ * deleted, and the current one is truncated whenever nothing is pending. Events past the checkpoint
+ * are replayed at startup.
+ *
+ * <p>A failed batch is retried with a growing delay, up to {@code max-attempts} times. The events are
+ * then written one at a time, and those still failing are appended to {@code audit.dead-letter} in the
+ * log's line format, so that one bad event cannot hold back the rest of the history indefinitely.
+ *
+ * <p>When the buffer is full, publishers block until the writer catches up; how often and for how
+ * long is reported by {@link #getBlockedPublishCount()} and {@link #getBlockedNanos()}.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class AuditLog {
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    // Logs written before segments were introduced, read at startup only
+    private static final String LEGACY_WAL_FILE = "audit.wal";
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "audit.checkpoint";
+    private static final String DEAD_LETTER_FILE = "audit.dead-letter";
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    // An event to write, or (with a latch) a request to write everything buffered before it
+    private record Entry(AuditEvent event, CountDownLatch flushed) {
+    }
+
+    // A full segment of the log and the sequence number of its last event
+    private record Segment(Path path, long lastSequence) {
+    }
+
+    @Autowired
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${employee.audit.capacity:10000}")
+    private int capacity;
+
+    @Value("${employee.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${employee.audit.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${employee.audit.wal-dir:data/audit}")
+    private String walDir;
+
+    @Value("${employee.audit.wal-fsync:true}")
+    private boolean walFsync;
+
+    @Value("${employee.audit.wal-segment-size:16MB}")
+    private DataSize walSegmentSize;
+
+    @Value("${employee.audit.max-attempts:10}")
+    private int maxAttempts;
+
+    private BlockingQueue<Entry> buffer;
+    private Path dir;
+    private Path currentSegment;
+    // The current segment and its size; guarded by walLock
+    private FileChannel wal;
+    private long walSize;
+    // Full segments still needed, oldest first; added under walLock, removed by the writer without it
+    private final Deque<Segment> fullSegments = new ConcurrentLinkedDeque<>();
+    // Last event appended to the log, written under walLock
+    private volatile long appendedSequence;
+    // Last event known to be on disk, and whether a publisher is syncing; guarded by syncMonitor
+    private final Object syncMonitor = new Object();
+    private long durableSequence;
+    private boolean syncing;
+    private Path checkpointPath;
+    private Path deadLetterPath;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final List<Runnable> writeListeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock walLock = new ReentrantLock();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong deadLetterCount = new AtomicLong();
+    private final AtomicLong blockedPublishCount = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+    private final AtomicLong syncCount = new AtomicLong();
+
+    @PostConstruct
+    public void start() throws IOException {
+        buffer = new ArrayBlockingQueue<>(capacity);
+        dir = Paths.get(walDir);
+        Files.createDirectories(dir);
+        checkpointPath = dir.resolve(CHECKPOINT_FILE);
+        deadLetterPath = dir.resolve(DEAD_LETTER_FILE);
+        List<Path> logs = logFiles();
+        recover(logs);
+        for (Path path : logs) {
+            Files.delete(path);
+        }
+        appendedSequence = sequence.get();
+        durableSequence = sequence.get();
+        openSegment(sequence.get() + 1);
+
+        running = true;
+        writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        flush();
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        walLock.lock();
+        try {
+            wal.close();
+        } finally {
+            walLock.unlock();
+        }
+    }
+
+    // Returns once the event is on disk in the write-ahead log
+    public void publish(String employeeId, String action, String department) {
+        // Buffered under the lock too: a later sequence number queued first could be checkpointed
+        // before an earlier one is written. The writer never waits for this lock while events are pending.
+        long published;
+        walLock.lock();
+        try {
+            AuditEvent event = new AuditEvent(sequence.incrementAndGet(), employeeId, action, department,
+                    LocalDateTime.now());
+            appendToWal(event);
+            pending.incrementAndGet();
+            publishedCount.incrementAndGet();
+            enqueue(new Entry(event, null));
+            published = event.sequence();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not append to audit write-ahead log", e);
+        } finally {
+            walLock.unlock();
+        }
+        if (walFsync) {
+            awaitDurable(published);
+        }
+    }
+
+    // Group commit: waits for a sync in progress, or becomes the publisher that syncs
+    private void awaitDurable(long published) {
+        while (true) {
+            synchronized (syncMonitor) {
+                while (syncing && durableSequence < published) {
+                    try {
+                        syncMonitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while syncing the audit write-ahead log", e);
+                    }
+                }
+                if (durableSequence >= published) {
+                    return;
+                }
+                syncing = true;
+            }
+            long target;
+            FileChannel channel;
+            walLock.lock();
+            try {
+                target = appendedSequence;
+                channel = wal;
+            } finally {
+                walLock.unlock();
+            }
+            try {
+                channel.force(false);
+                syncCount.incrementAndGet();
+            } catch (ClosedChannelException e) {
+                // Rotated (and synced) since, or stopping
+            } catch (IOException e) {
+                // Lets the next waiter try again
+                markDurable(0);
+                throw new IllegalStateException("Could not sync the audit write-ahead log", e);
+            }
+            markDurable(target);
+        }
+    }
+
+    // Ends a sync, releasing every publisher whose event it covers
+    private void markDurable(long target) {
+        synchronized (syncMonitor) {
+            durableSequence = Math.max(durableSequence, target);
+            syncing = false;
+            syncMonitor.notifyAll();
+        }
+    }
+
+    // Called on the writer thread after each batch is stored; must return quickly
+    public void addWriteListener(Runnable listener) {
+        writeListeners.add(listener);
+    }
+
+    // Blocks until every event published before this call has been written to the database
+    public void flush() throws InterruptedException {
+        CountDownLatch flushed = new CountDownLatch(1);
+        enqueue(new Entry(null, flushed));
+        flushed.await();
+    }
+
+    private void enqueue(Entry entry) {
+        if (buffer.offer(entry)) {
+            return;
+        }
+        blockedPublishCount.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            buffer.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing audit event", e);
+        } finally {
+            blockedNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private void runWriter() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        List<CountDownLatch> flushRequests = new ArrayList<>();
+        int attempts = 0;
+        while (running || !buffer.isEmpty()) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize && flushRequests.isEmpty()) {
+                    long remaining = deadline - System.nanoTime();
+                    Entry entry = remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (entry == null) {
+                        break;
+                    }
+                    if (entry.event() != null) {
+                        batch.add(entry.event());
+                    } else {
+                        flushRequests.add(entry.flushed());
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    if (attempts < maxAttempts) {
+                        write(batch);
+                    } else {
+                        writeEachOrDeadLetter(batch);
+                    }
+                    batch.clear();
+                    attempts = 0;
+                }
+                for (CountDownLatch flushed : flushRequests) {
+                    flushed.countDown();
+                }
+                flushRequests.clear();
+            } catch (InterruptedException e) {
+                // stop() interrupts a pending poll; the loop condition decides whether to continue
+            } catch (RuntimeException | IOException e) {
+                // Keep the batch and retry; the events are safe in the write-ahead log meanwhile
+                attempts++;
+                log.error("Writing {} audit events failed (attempt {} of {}), retrying", batch.size(), attempts,
+                        maxAttempts, e);
+                try {
+                    Thread.sleep(Math.min(RETRY_DELAY_MILLIS << Math.min(attempts - 1, 16), MAX_RETRY_DELAY_MILLIS));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) throws IOException {
+        insert(batch);
+        completed(batch, batch.size());
+    }
+
+    // After the last attempt: writes what it can one event at a time and sets the rest aside
+    private void writeEachOrDeadLetter(List<AuditEvent> batch) throws IOException {
+        StringBuilder rejected = new StringBuilder();
+        int stored = 0;
+        for (AuditEvent event : batch) {
+            try {
+                insert(List.of(event));
+                stored++;
+            } catch (RuntimeException e) {
+                log.error("Audit event {} could not be written", event.sequence(), e);
+                rejected.append(line(event));
+            }
+        }
+        if (stored < batch.size()) {
+            Files.writeString(deadLetterPath, rejected, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+            deadLetterCount.addAndGet(batch.size() - stored);
+            log.error("Moved {} audit events to {} after {} attempts", batch.size() - stored, deadLetterPath,
+                    maxAttempts);
+        }
+        completed(batch, stored);
+    }
+
+    private void completed(List<AuditEvent> batch, int stored) throws IOException {
+        long checkpoint = batch.get(batch.size() - 1).sequence();
+        writeCheckpoint(checkpoint);
+        writtenCount.addAndGet(stored);
+        batchCount.incrementAndGet();
+        writeListeners.forEach(Runnable::run);
+        // Everything up to the checkpoint is stored, whether or not later events are pending
+        Segment oldest;
+        while ((oldest = fullSegments.peekFirst()) != null && oldest.lastSequence() <= checkpoint) {
+            try {
+                Files.deleteIfExists(oldest.path());
+            } catch (IOException e) {
+                // Not a failed batch: it is stored. Tried again after the next one
+                log.warn("Could not delete audit write-ahead log segment {}", oldest.path(), e);
+                break;
+            }
+            fullSegments.pollFirst();
+        }
+        if (pending.addAndGet(-batch.size()) == 0) {
+            walLock.lock();
+            try {
+                if (pending.get() == 0) {
+                    wal.truncate(0);
+                    walSize = 0;
+                }
+            } finally {
+                walLock.unlock();
+            }
+        }
+    }
+
+    // History rows are stored on the shard of the employee they describe
+    private void insert(List<AuditEvent> events) {
+        shardRouter.groupByShard(events, AuditEvent::employeeId).forEach((shard, shardEvents) ->
+                shardRouter.run(shard, () -> employeeJdbcRepository.insertHistoryEvents(shardEvents)));
+    }
+
+    private static String line(AuditEvent event) {
+        return event.sequence() + "\t" + event.employeeId() + "\t" + event.action() + "\t"
+                + event.timestamp() + "\t" + (event.department() == null ? "" : event.department()) + "\n";
+    }
+
+    // Called under walLock
+    private void appendToWal(AuditEvent event) throws IOException {
+        if (walSize >= walSegmentSize.toBytes()) {
+            rotate();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(line(event).getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            walSize += wal.write(bytes, walSize);
+        }
+        appendedSequence = event.sequence();
+    }
+
+    // Called under walLock: syncs and closes the current segment, and starts the next one
+    private void rotate() throws IOException {
+        if (walFsync) {
+            wal.force(false);
+            syncCount.incrementAndGet();
+        }
+        wal.close();
+        fullSegments.addLast(new Segment(currentSegment, appendedSequence));
+        synchronized (syncMonitor) {
+            durableSequence = Math.max(durableSequence, appendedSequence);
+            syncMonitor.notifyAll();
+        }
+        openSegment(appendedSequence + 1);
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        currentSegment = dir.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        wal = FileChannel.open(currentSegment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        walSize = 0;
+    }
+
+    // The legacy log first, then the segments in sequence order
+    private List<Path> logFiles() throws IOException {
+        List<Path> logs = new ArrayList<>();
+        Path legacy = dir.resolve(LEGACY_WAL_FILE);
+        if (Files.exists(legacy)) {
+            logs.add(legacy);
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(logs::add);
+        }
+        return logs;
+    }
+
+    private void writeCheckpoint(long lastWritten) throws IOException {
+        Files.writeString(checkpointPath, Long.toString(lastWritten), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SYNC);
+    }
+
+    // Writes events that were logged but not yet stored when the application last stopped
+    private void recover(List<Path> logs) throws IOException {
+        long checkpoint = Files.exists(checkpointPath)
+                ? Long.parseLong(Files.readString(checkpointPath, StandardCharsets.UTF_8).trim()) : 0;
+        sequence.set(checkpoint);
+        List<AuditEvent> unwritten = new ArrayList<>();
+        for (Path walPath : logs) {
+            readLog(walPath, checkpoint, unwritten);
+        }
+        for (int from = 0; from < unwritten.size(); from += batchSize) {
+            insert(unwritten.subList(from, Math.min(from + batchSize, unwritten.size())));
+        }
+        if (!unwritten.isEmpty()) {
+            writeCheckpoint(unwritten.get(unwritten.size() - 1).sequence());
+            log.info("Recovered {} audit events from the write-ahead log", unwritten.size());
+        }
+    }
+
+    private void readLog(Path walPath, long checkpoint, List<AuditEvent> unwritten) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(walPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                // Logs written before departments were recorded have four fields
+                if (fields.length != 4 && fields.length != 5) {
+                    continue; // torn final line from a crash mid-append
+                }
+                String department = fields.length == 5 && !fields[4].isEmpty() ? fields[4] : null;
+                AuditEvent event = new AuditEvent(Long.parseLong(fields[0]), fields[1], fields[2], department,
+                        LocalDateTime.parse(fields[3]));
+                sequence.set(Math.max(sequence.get(), event.sequence()));
+                if (event.sequence() > checkpoint) {
+                    unwritten.add(event);
+                }
+            }
+        }
+    }
+
+    public int getQueueDepth() { return buffer.size(); }
+    public int getCapacity() { return capacity; }
+    public long getPublishedCount() { return publishedCount.get(); }
+    public long getWrittenCount() { return writtenCount.get(); }
+    public long getBatchCount() { return batchCount.get(); }
+    public long getBlockedPublishCount() { return blockedPublishCount.get(); }
+    public long getBlockedNanos() { return blockedNanos.get(); }
+    public long getDeadLetterCount() { return deadLetterCount.get(); }
+    public long getSyncCount() { return syncCount.get(); }
+}
@@ -0,0 +1,121 @@
+package com.example.employeemanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-evicted caches in front of password verification. User details are cached by
+ * username, so a login does not read the user store; a login whose password does not match a cached
+ * user is retried against the store, which picks up a changed password.
+ *
+ * <p>Verified credentials are cached by password hash, as an HMAC of the password under a key that
+ * is generated at startup and never leaves the node. A login repeating a recently verified password
+ * compares two digests instead of running the slow hash; failed attempts are never cached, so guessing
+ * passwords still pays the full hash cost.
+ */
+@Component
+public class AuthenticationCache implements UserCache {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${employee.security.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${employee.security.cache.users.max-size:10000}")
+    private long userMaxSize;
+
+    @Value("${employee.security.cache.users.ttl:5m}")
+    private Duration userTtl;
+
+    @Value("${employee.security.cache.credentials.max-size:10000}")
+    private long credentialMaxSize;
+
+    @Value("${employee.security.cache.credentials.ttl:5m}")
+    private Duration credentialTtl;
+
+    private Cache<String, UserDetails> users;
+    private Cache<String, byte[]> credentials;
+    private SecretKeySpec digestKey;
+
+    @PostConstruct
+    public void init() {
+        users = Caffeine.newBuilder()
+                .maximumSize(userMaxSize)
+                .expireAfterWrite(userTtl)
+                .recordStats()
+                .build();
+        credentials = Caffeine.newBuilder()
+                .maximumSize(credentialMaxSize)
+                .expireAfterWrite(credentialTtl)
+                .recordStats()
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        digestKey = new SecretKeySpec(key, ALGORITHM);
+    }
+
+    // Copies in and out: the authentication manager erases the password of the user it is given
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        if (!enabled) {
+            return null;
+        }
+        UserDetails cached = users.getIfPresent(username);
+        return cached == null ? null : User.withUserDetails(cached).build();
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (enabled && user.getPassword() != null) {
+            users.put(user.getUsername(), User.withUserDetails(user).build());
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        users.invalidate(username);
+    }
+
+    public boolean isVerified(CharSequence rawPassword, String passwordHash) {
+        if (!enabled || rawPassword == null || passwordHash == null) {
+            return false;
+        }
+        byte[] cached = credentials.getIfPresent(passwordHash);
+        return cached != null && MessageDigest.isEqual(cached, digest(rawPassword));
+    }
+
+    public void markVerified(CharSequence rawPassword, String passwordHash) {
+        if (enabled && rawPassword != null && passwordHash != null) {
+            credentials.put(passwordHash, digest(rawPassword));
+        }
+    }
+
+    private byte[] digest(CharSequence rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(digestKey);
+            return mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public CacheStats getUserStats() { return users.stats(); }
+    public long getUserCacheSize() { return users.estimatedSize(); }
+    public CacheStats getCredentialStats() { return credentials.stats(); }
+    public long getCredentialCacheSize() { return credentials.estimatedSize(); }
+}
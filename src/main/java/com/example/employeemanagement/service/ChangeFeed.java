@@ -0,0 +1,617 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.EmployeeChange;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository.HistoryRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Feed of employee changes (the CREATED, ID_PROOF_UPDATED and DELETED history rows) as server-sent
+ * events. One poller tails {@code employee_history} by primary key on every shard (with the rows already
+ * moved to {@code employee_history_archive}, which keep their IDs), so changes made
+ * through other instances and bulk imports are seen too, and is woken at once when this instance's
+ * {@link AuditLog} writes a batch. Listeners get the rows of each poll, so per-node caches can drop what
+ * other nodes changed. Each row is encoded once into a shared ring buffer of the last
+ * {@code employee.changes.buffer-size} events; subscribers only keep a cursor into it.
+ *
+ * <p>An offset is the last history ID seen on each shard, comma-separated (a single number without
+ * sharding), and is the {@code id} of every event. A subscriber resuming from an offset that has left
+ * the buffer, or falling that far behind, reads the missing rows from the database before rejoining.
+ *
+ * <p>History IDs can be committed out of order by concurrent writers, so the poller waits up to
+ * {@code employee.changes.gap-timeout} for a missing ID before moving past it. Skipped IDs are looked up
+ * again at that interval for {@code employee.changes.gap-recheck-window}; one that turns up is sent to
+ * the connected subscribers as a late change, which does not move their offset.
+ *
+ * <p>Shared delivery threads only copy events into each subscriber's outbox, bounded by
+ * {@code employee.changes.subscriber-buffer}; the blocking socket writes run on separate writer
+ * threads, one outbox at a time. A subscriber whose outbox is full when new changes arrive is
+ * disconnected, and resumes from its last event when it reconnects. Catch-up reads pause while the
+ * outbox is half full instead.
+ */
+@Component
+public class ChangeFeed {
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+    private static final int READ_BATCH = 1000;
+    // Skipped IDs tracked per shard; a larger gap is usually a bulk insert that rolled back
+    private static final int MAX_SKIPPED = 10_000;
+    // An SSE comment: keeps idle connections open through proxies and finds clients that have gone
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    // Where a subscription's events are written, usually an HTTP response
+    public interface Sink {
+        void write(byte[] events) throws IOException;
+
+        void close();
+    }
+
+    public final class Subscription {
+        private final String department;
+        private final long[] position;
+        private final Sink sink;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean writing = new AtomicBoolean();
+        // Guarded by this: events waiting for the writer and their size
+        private final ArrayDeque<byte[]> outbox = new ArrayDeque<>(4);
+        private long outboxBytes;
+        private long cursor;
+        private volatile boolean heartbeatDue;
+        private volatile boolean catchUpPaused;
+
+        private Subscription(String department, long[] position, long cursor, Sink sink) {
+            this.department = department;
+            this.position = position;
+            this.cursor = cursor;
+            this.sink = sink;
+        }
+
+        public void cancel() {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+                synchronized (this) {
+                    outbox.clear();
+                    outboxBytes = 0;
+                }
+                sink.close();
+            }
+        }
+
+        private boolean wants(String changeDepartment) {
+            return department == null || department.equals(changeDepartment);
+        }
+    }
+
+    // A late change is one whose ID was skipped as a gap: it is sent regardless of the subscriber's position
+    private record Change(int shard, long id, String department, byte[] event, boolean late) {
+    }
+
+    @Autowired
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${employee.changes.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${employee.changes.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${employee.changes.gap-timeout:2s}")
+    private Duration gapTimeout;
+
+    @Value("${employee.changes.gap-recheck-window:10m}")
+    private Duration gapRecheckWindow;
+
+    @Value("${employee.changes.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
+
+    @Value("${employee.changes.delivery-threads:8}")
+    private int deliveryThreads;
+
+    @Value("${employee.changes.writer-threads:32}")
+    private int writerThreads;
+
+    @Value("${employee.changes.subscriber-buffer:1MB}")
+    private DataSize subscriberBuffer;
+
+    @Value("${employee.changes.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    // Guarded by this: the ring, the number of events ever appended, and per shard the last ID polled
+    // and the last ID evicted from the ring
+    private Change[] ring;
+    private long head;
+    private long[] polled;
+    private long[] evicted;
+
+    // Poller thread only: when the current gap was found, and the IDs skipped since with when
+    private long[] gapSince;
+    private List<LinkedHashMap<Long, Long>> skipped;
+    private long lastRecheck;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<List<HistoryRow>>> rowListeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong catchUpReads = new AtomicLong();
+    private final AtomicLong lateCount = new AtomicLong();
+    private final AtomicLong slowDisconnects = new AtomicLong();
+    private ScheduledExecutorService poller;
+    private ExecutorService delivery;
+    private ThreadPoolExecutor writers;
+
+    @PostConstruct
+    public void start() {
+        ring = new Change[bufferSize];
+        int shards = shardRouter.getShardCount();
+        polled = new long[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            polled[shard] = shardRouter.on(shard, employeeJdbcRepository::findMaxHistoryId);
+        }
+        evicted = polled.clone();
+        gapSince = new long[shards];
+        skipped = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            skipped.add(new LinkedHashMap<>());
+        }
+
+        poller = Executors.newSingleThreadScheduledExecutor(task -> daemon(task, "change-feed-poller"));
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        AtomicInteger threads = new AtomicInteger();
+        delivery = Executors.newFixedThreadPool(deliveryThreads,
+                task -> daemon(task, "change-feed-" + threads.incrementAndGet()));
+        AtomicInteger writerCount = new AtomicInteger();
+        writers = new ThreadPoolExecutor(writerThreads, writerThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> daemon(task, "change-feed-writer-" + writerCount.incrementAndGet()));
+        writers.allowCoreThreadTimeOut(true);
+        auditLog.addWriteListener(this::requestPoll);
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+        delivery.shutdownNow();
+        writers.shutdownNow();
+        subscriptions.forEach(Subscription::cancel);
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Starts sending changes to the sink: those after {@code offset}, or only new ones when it is null,
+     * restricted to one department unless {@code department} is null.
+     */
+    public Subscription subscribe(String department, String offset, Sink sink) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many change feed subscribers");
+        }
+        long[] from = offset == null ? null : parseOffset(offset);
+        Subscription subscription;
+        synchronized (this) {
+            subscription = from == null
+                    ? new Subscription(department, polled.clone(), head, sink)
+                    : new Subscription(department, from, oldest(), sink);
+        }
+        subscriptions.add(subscription);
+        if (from != null) {
+            schedule(subscription);
+        }
+        return subscription;
+    }
+
+    private long[] parseOffset(String offset) {
+        String[] parts = offset.split(",");
+        if (parts.length != polled.length) {
+            throw new IllegalArgumentException("Offset must have " + polled.length + " comma-separated parts");
+        }
+        long[] position = new long[parts.length];
+        try {
+            for (int shard = 0; shard < parts.length; shard++) {
+                position[shard] = Long.parseLong(parts[shard].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid offset: " + offset);
+        }
+        return position;
+    }
+
+    private static String formatOffset(long[] position) {
+        return Arrays.stream(position).mapToObj(Long::toString).collect(Collectors.joining(","));
+    }
+
+    // Called on the poller thread with the rows each poll appends, late ones included
+    public void addRowListener(Consumer<List<HistoryRow>> listener) {
+        rowListeners.add(listener);
+    }
+
+    private void requestPoll() {
+        if (pollRequested.compareAndSet(false, true)) {
+            poller.execute(this::poll);
+        }
+    }
+
+    private void poll() {
+        pollRequested.set(false);
+        try {
+            List<HistoryRow> appended = new ArrayList<>();
+            for (int shard = 0; shard < gapSince.length; shard++) {
+                pollShard(shard, appended);
+            }
+            if (System.nanoTime() - lastRecheck >= gapTimeout.toNanos()) {
+                lastRecheck = System.nanoTime();
+                for (int shard = 0; shard < gapSince.length; shard++) {
+                    recheckSkipped(shard, appended);
+                }
+            }
+            if (!appended.isEmpty()) {
+                subscriptions.forEach(this::schedule);
+                rowListeners.forEach(listener -> listener.accept(appended));
+            }
+        } catch (RuntimeException e) {
+            // Retried at the next interval
+            log.warn("Reading new history rows for the change feed failed", e);
+        }
+    }
+
+    private void pollShard(int shard, List<HistoryRow> appended) {
+        List<HistoryRow> rows;
+        do {
+            long after = lastPolled(shard);
+            rows = shardRouter.on(shard,
+                    () -> employeeJdbcRepository.findAllHistoryBetween(after, Long.MAX_VALUE, READ_BATCH));
+            for (HistoryRow row : rows) {
+                if (row.id() != lastPolled(shard) + 1) {
+                    if (!gapTimedOut(shard)) {
+                        return;
+                    }
+                    skip(shard, lastPolled(shard) + 1, row.id());
+                }
+                gapSince[shard] = 0;
+                append(shard, row);
+                appended.add(row);
+            }
+        } while (rows.size() == READ_BATCH);
+    }
+
+    // A missing ID is usually a transaction that has not committed yet, sometimes one that rolled back
+    private boolean gapTimedOut(int shard) {
+        long now = System.nanoTime();
+        if (gapSince[shard] == 0) {
+            gapSince[shard] = now;
+        }
+        return now - gapSince[shard] >= gapTimeout.toNanos();
+    }
+
+    // Remembers the IDs from (inclusive) to until (exclusive) for recheckSkipped
+    private void skip(int shard, long from, long until) {
+        LinkedHashMap<Long, Long> ids = skipped.get(shard);
+        long now = System.nanoTime();
+        for (long id = Math.max(from, until - MAX_SKIPPED); id < until; id++) {
+            ids.put(id, now);
+        }
+        Iterator<Long> oldest = ids.keySet().iterator();
+        while (ids.size() > MAX_SKIPPED) {
+            oldest.next();
+            oldest.remove();
+        }
+        log.debug("Change feed skipped history IDs {} to {} on shard {}", from, until - 1, shard);
+    }
+
+    // Appends the skipped rows that have been committed since, and forgets those skipped too long ago
+    private void recheckSkipped(int shard, List<HistoryRow> appended) {
+        LinkedHashMap<Long, Long> ids = skipped.get(shard);
+        long expired = System.nanoTime() - gapRecheckWindow.toNanos();
+        ids.values().removeIf(skippedAt -> skippedAt - expired < 0);
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> pending = new ArrayList<>(ids.keySet());
+        for (int from = 0; from < pending.size(); from += READ_BATCH) {
+            List<Long> batch = pending.subList(from, Math.min(from + READ_BATCH, pending.size()));
+            for (HistoryRow row : shardRouter.on(shard, () -> employeeJdbcRepository.findAllHistoryByIds(batch))) {
+                ids.remove(row.id());
+                appendLate(shard, row);
+                appended.add(row);
+            }
+        }
+    }
+
+    private synchronized long lastPolled(int shard) {
+        return polled[shard];
+    }
+
+    private synchronized void append(int shard, HistoryRow row) {
+        polled[shard] = row.id();
+        int slot = (int) (head % ring.length);
+        Change oldest = ring[slot];
+        if (oldest != null) {
+            evicted[oldest.shard()] = oldest.id();
+        }
+        ring[slot] = new Change(shard, row.id(), row.department(), event(formatOffset(polled), row), false);
+        head++;
+        appendedCount.incrementAndGet();
+    }
+
+    // Carries the current offset, since the row's own ID is behind it
+    private synchronized void appendLate(int shard, HistoryRow row) {
+        int slot = (int) (head % ring.length);
+        Change oldest = ring[slot];
+        if (oldest != null && !oldest.late()) {
+            evicted[oldest.shard()] = oldest.id();
+        }
+        ring[slot] = new Change(shard, row.id(), row.department(), event(formatOffset(polled), row), true);
+        head++;
+        appendedCount.incrementAndGet();
+        lateCount.incrementAndGet();
+    }
+
+    // Index of the oldest change still in the ring
+    private synchronized long oldest() {
+        return Math.max(0, head - ring.length);
+    }
+
+    private byte[] event(String offset, HistoryRow row) {
+        try {
+            String data = objectMapper.writeValueAsString(new EmployeeChange(offset, row.employeeId(), row.action(),
+                    row.department(), row.timestamp()));
+            return ("id: " + offset + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.heartbeatDue = true;
+            schedule(subscription);
+        }
+    }
+
+    // At most one delivery per subscription runs at a time; requests made meanwhile cause one more pass
+    private void schedule(Subscription subscription) {
+        if (subscription.pending.getAndIncrement() == 0) {
+            delivery.execute(() -> drain(subscription));
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        int requests = subscription.pending.get();
+        while (true) {
+            if (!subscription.closed.get()) {
+                try {
+                    deliver(subscription);
+                } catch (RuntimeException e) {
+                    log.warn("Delivering changes to a subscriber failed", e);
+                    subscription.cancel();
+                }
+            }
+            requests = subscription.pending.addAndGet(-requests);
+            if (requests == 0) {
+                return;
+            }
+        }
+    }
+
+    private void deliver(Subscription subscription) {
+        Change[] changes;
+        while ((changes = takeNew(subscription)) == null) {
+            if (!catchUp(subscription)) {
+                return;
+            }
+        }
+        ByteArrayOutputStream batch = null;
+        byte[] single = null;
+        for (Change change : changes) {
+            if (!change.late()) {
+                if (change.id() <= subscription.position[change.shard()]) {
+                    continue;
+                }
+                subscription.position[change.shard()] = change.id();
+            }
+            if (!subscription.wants(change.department())) {
+                continue;
+            }
+            if (single == null) {
+                single = change.event();
+            } else {
+                if (batch == null) {
+                    batch = new ByteArrayOutputStream();
+                    batch.writeBytes(single);
+                }
+                batch.writeBytes(change.event());
+            }
+        }
+        // A single event is queued straight from the shared buffer
+        byte[] events = batch != null ? batch.toByteArray() : single;
+        if (events != null) {
+            subscription.heartbeatDue = false;
+            if (!offer(subscription, events, true)) {
+                slowDisconnects.incrementAndGet();
+                log.debug("Disconnecting a change feed subscriber whose outbox is full");
+                subscription.cancel();
+            }
+        } else if (subscription.heartbeatDue && outboxEmpty(subscription)) {
+            subscription.heartbeatDue = false;
+            offer(subscription, HEARTBEAT, false);
+        }
+    }
+
+    // Queues the events for the writer; returns false, queueing nothing, when they would overfill the outbox
+    private boolean offer(Subscription subscription, byte[] events, boolean bounded) {
+        if (subscription.closed.get()) {
+            return true;
+        }
+        synchronized (subscription) {
+            if (bounded && subscription.outboxBytes > 0
+                    && subscription.outboxBytes + events.length > subscriberBuffer.toBytes()) {
+                return false;
+            }
+            subscription.outbox.add(events);
+            subscription.outboxBytes += events.length;
+        }
+        if (subscription.writing.compareAndSet(false, true)) {
+            writers.execute(() -> write(subscription));
+        }
+        return true;
+    }
+
+    private static boolean outboxEmpty(Subscription subscription) {
+        synchronized (subscription) {
+            return subscription.outbox.isEmpty();
+        }
+    }
+
+    // Catch-up fills only half the outbox, leaving room for the live changes that follow it
+    private boolean roomForCatchUp(Subscription subscription) {
+        synchronized (subscription) {
+            return subscription.outboxBytes < subscriberBuffer.toBytes() / 2;
+        }
+    }
+
+    // Runs on a writer thread: the only place a slow client can block
+    private void write(Subscription subscription) {
+        while (true) {
+            byte[] events;
+            synchronized (subscription) {
+                events = subscription.outbox.poll();
+                if (events == null) {
+                    subscription.writing.set(false);
+                    return;
+                }
+                subscription.outboxBytes -= events.length;
+            }
+            try {
+                subscription.sink.write(events);
+            } catch (IOException | RuntimeException e) {
+                // Usually the client going away
+                subscription.cancel();
+                subscription.writing.set(false);
+                return;
+            }
+            if (subscription.catchUpPaused && roomForCatchUp(subscription)) {
+                subscription.catchUpPaused = false;
+                schedule(subscription);
+            }
+        }
+    }
+
+    // The changes the subscription has not yet passed, or null when some have already left the ring
+    private synchronized Change[] takeNew(Subscription subscription) {
+        if (subscription.cursor < oldest() || behindRing(subscription)) {
+            return null;
+        }
+        Change[] changes = new Change[(int) (head - subscription.cursor)];
+        for (int i = 0; i < changes.length; i++) {
+            changes[i] = ring[(int) ((subscription.cursor + i) % ring.length)];
+        }
+        subscription.cursor = head;
+        return changes;
+    }
+
+    private boolean behindRing(Subscription subscription) {
+        for (int shard = 0; shard < evicted.length; shard++) {
+            if (subscription.position[shard] < evicted[shard]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Queues the rows that have left the ring from the database, shard by shard, up to where the ring begins.
+    // Returns false when it stopped for the outbox to drain; the writer schedules the subscription again.
+    private boolean catchUp(Subscription subscription) {
+        long[] until;
+        long cursor;
+        synchronized (this) {
+            until = evicted.clone();
+            cursor = oldest();
+        }
+        for (int shard = 0; shard < until.length; shard++) {
+            while (subscription.position[shard] < until[shard]) {
+                if (!roomForCatchUp(subscription)) {
+                    subscription.catchUpPaused = true;
+                    // The writer may have emptied the outbox before the flag was set
+                    if (!roomForCatchUp(subscription)) {
+                        return false;
+                    }
+                    subscription.catchUpPaused = false;
+                }
+                long after = subscription.position[shard];
+                long through = until[shard];
+                List<HistoryRow> rows = shardRouter.on(shard,
+                        () -> employeeJdbcRepository.findAllHistoryBetween(after, through, READ_BATCH));
+                catchUpReads.incrementAndGet();
+                ByteArrayOutputStream events = new ByteArrayOutputStream();
+                for (HistoryRow row : rows) {
+                    subscription.position[shard] = row.id();
+                    if (subscription.wants(row.department())) {
+                        events.writeBytes(event(formatOffset(subscription.position), row));
+                    }
+                }
+                if (rows.size() < READ_BATCH) {
+                    subscription.position[shard] = through;
+                }
+                if (events.size() > 0) {
+                    subscription.heartbeatDue = false;
+                    offer(subscription, events.toByteArray(), false);
+                }
+            }
+        }
+        subscription.cursor = Math.max(subscription.cursor, cursor);
+        return true;
+    }
+
+    public int getSubscriberCount() { return subscriptions.size(); }
+    public long getAppendedCount() { return appendedCount.get(); }
+    public long getCatchUpReads() { return catchUpReads.get(); }
+    public long getLateCount() { return lateCount.get(); }
+    public long getSlowDisconnects() { return slowDisconnects.get(); }
+}
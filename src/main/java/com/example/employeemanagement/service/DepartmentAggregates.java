@@ -0,0 +1,365 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.DepartmentStats;
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory view of per-department headcount, salary total/min/max and age distribution. Built at
+ * startup from one grouped query (per shard), then updated by {@link EmployeeService} and the import on every
+ * add, update and delete, so reading it costs no database work. Writes made by other nodes reach it
+ * through the periodic {@link #reconcile()}, which compares it with the database and replaces the
+ * departments that drifted.
+ *
+ * <p>Queries never run while holding the monitor, so readers and writers only wait for in-memory work.
+ * Each department counts its local changes, which is how a query's result is checked against changes
+ * made while it ran. Writers bracket their transaction with {@link #beginWrite} and {@link #endWrite},
+ * so a row that is committed but not yet added here is not mistaken for drift.
+ */
+@Component
+public class DepartmentAggregates {
+    private static final Logger log = LoggerFactory.getLogger(DepartmentAggregates.class);
+    // Lower age bound of each band
+    private static final int[] AGE_BANDS = {18, 25, 35, 45, 55, 65};
+    private static final String[] AGE_BAND_NAMES = {"18-24", "25-34", "35-44", "45-54", "55-64", "65+"};
+    private static final double SALARY_TOLERANCE = 0.005;
+    // Times a department written to during reconciliation is read again on its own
+    private static final int BUSY_RETRIES = 3;
+
+    @Autowired
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, Department> departments = new HashMap<>();
+    // Local changes per department, never reset: adds, removes and the start and end of each write
+    private final Map<String, Long> changes = new HashMap<>();
+    // Writes this node has started but not yet applied here, which reconciliation must not race with
+    private final Map<String, Integer> writing = new HashMap<>();
+    private volatile long version;
+    private volatile Snapshot snapshot;
+    private Counter driftCounter;
+
+    private record Snapshot(long version, LocalDate asOf, List<DepartmentStats> stats) {
+    }
+
+    @PostConstruct
+    public void initMetrics() {
+        driftCounter = Counter.builder("employee.aggregates.drift")
+                .description("Departments whose aggregates differed from the database on reconciliation")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        Map<String, Department> loaded = load();
+        synchronized (this) {
+            departments = loaded;
+            version++;
+        }
+        log.info("Department aggregates built for {} departments in {} ms",
+                loaded.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Sorted by department; recomputed only after a change or when the date (and so ages) moves on
+    public List<DepartmentStats> getStats() {
+        LocalDate today = LocalDate.now();
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version && current.asOf().equals(today)) {
+            return current.stats();
+        }
+        refreshSalaryRanges();
+        synchronized (this) {
+            List<DepartmentStats> stats = new ArrayList<>();
+            boolean stale = false;
+            for (String name : new TreeSet<>(departments.keySet())) {
+                Department aggregate = departments.get(name);
+                stats.add(toStats(name, aggregate, today));
+                stale |= aggregate.salaryRangeStale;
+            }
+            List<DepartmentStats> result = List.copyOf(stats);
+            // A range still waiting to be re-read is not kept, so the next call tries again
+            if (!stale) {
+                snapshot = new Snapshot(version, today, result);
+            }
+            return result;
+        }
+    }
+
+    // Re-reads min and max salary of the departments that lost one of them. A department changed (or
+    // being written) while its range was read keeps the old figures, which may be too wide, until the
+    // next call.
+    private void refreshSalaryRanges() {
+        Map<String, Long> stale = new HashMap<>();
+        synchronized (this) {
+            departments.forEach((name, aggregate) -> {
+                if (aggregate.salaryRangeStale) {
+                    stale.put(name, changes.getOrDefault(name, 0L));
+                }
+            });
+        }
+        for (Map.Entry<String, Long> entry : stale.entrySet()) {
+            String name = entry.getKey();
+            List<EmployeeJdbcRepository.SalaryRange> ranges = shardRouter.fanOut(shardRouter.allShards(),
+                    shard -> employeeJdbcRepository.findSalaryRange(name));
+            synchronized (this) {
+                Department aggregate = departments.get(name);
+                if (aggregate == null || !aggregate.salaryRangeStale || writing.containsKey(name)
+                        || changes.getOrDefault(name, 0L) != entry.getValue().longValue()) {
+                    continue;
+                }
+                ranges.stream().filter(Objects::nonNull).mapToDouble(EmployeeJdbcRepository.SalaryRange::min).min()
+                        .ifPresent(min -> aggregate.salaryMin = min);
+                ranges.stream().filter(Objects::nonNull).mapToDouble(EmployeeJdbcRepository.SalaryRange::max).max()
+                        .ifPresent(max -> aggregate.salaryMax = max);
+                aggregate.salaryRangeStale = false;
+                version++;
+            }
+        }
+    }
+
+    // Called before a write's transaction commits, and endWrite once it has been applied or failed
+    public synchronized void beginWrite(Collection<String> departments) {
+        for (String department : departments) {
+            changes.merge(key(department), 1L, Long::sum);
+            writing.merge(key(department), 1, Integer::sum);
+        }
+    }
+
+    public synchronized void endWrite(Collection<String> departments) {
+        for (String department : departments) {
+            changes.merge(key(department), 1L, Long::sum);
+            writing.merge(key(department), -1, (count, one) -> count + one == 0 ? null : count + one);
+        }
+    }
+
+    public void onEmployeeAdded(Employee employee) {
+        add(employee.getDepartment(), employee.getSalary(), employee.getDateOfBirth());
+    }
+
+    public void onEmployeeUpdated(String previousDepartment, double previousSalary, LocalDate previousDateOfBirth,
+                                  Employee employee) {
+        if (Objects.equals(previousDepartment, employee.getDepartment()) && previousSalary == employee.getSalary()
+                && Objects.equals(previousDateOfBirth, employee.getDateOfBirth())) {
+            return;
+        }
+        synchronized (this) {
+            remove(previousDepartment, previousSalary, previousDateOfBirth);
+            add(employee.getDepartment(), employee.getSalary(), employee.getDateOfBirth());
+        }
+    }
+
+    public void onEmployeeDeleted(EmployeeJdbcRepository.DeletionCandidate employee) {
+        remove(employee.department(), employee.salary(), employee.dateOfBirth());
+    }
+
+    // Returns the departments that had drifted, after replacing them with the database's figures. A
+    // department this node wrote to while it was being read is read again on its own, which takes a
+    // fraction of the time, so steady writes elsewhere (or to it) do not stop it being checked.
+    @Scheduled(initialDelayString = "${employee.aggregates.reconcile-interval-ms:900000}",
+            fixedDelayString = "${employee.aggregates.reconcile-interval-ms:900000}")
+    public List<String> reconcile() {
+        Map<String, Long> seen;
+        synchronized (this) {
+            seen = new HashMap<>(changes);
+        }
+        Map<String, Department> expected = load();
+        List<String> drifted = new ArrayList<>();
+        List<String> busy = new ArrayList<>();
+        synchronized (this) {
+            for (String name : unionOfKeys(expected, departments)) {
+                if (!Objects.equals(changes.get(name), seen.get(name)) || writing.containsKey(name)) {
+                    busy.add(name);
+                } else if (replaceIfDrifted(name, expected.get(name))) {
+                    drifted.add(name);
+                }
+            }
+        }
+        for (String name : busy) {
+            for (int attempt = 0; attempt < BUSY_RETRIES; attempt++) {
+                Long before;
+                synchronized (this) {
+                    before = changes.get(name);
+                }
+                Department loaded = load(name);
+                synchronized (this) {
+                    if (Objects.equals(changes.get(name), before) && !writing.containsKey(name)) {
+                        if (replaceIfDrifted(name, loaded)) {
+                            drifted.add(name);
+                        }
+                        break;
+                    }
+                }
+                if (attempt == BUSY_RETRIES - 1) {
+                    log.debug("Department {} kept changing during reconciliation, checking it next time", name);
+                }
+            }
+        }
+        if (!drifted.isEmpty()) {
+            driftCounter.increment(drifted.size());
+            log.warn("Department aggregates differed from the database for {}; replaced with the database figures",
+                    drifted);
+        }
+        return drifted;
+    }
+
+    private boolean replaceIfDrifted(String name, Department expected) {
+        if (matches(departments.get(name), expected)) {
+            return false;
+        }
+        if (expected == null) {
+            departments.remove(name);
+        } else {
+            departments.put(name, expected);
+        }
+        version++;
+        return true;
+    }
+
+    private Map<String, Department> load() {
+        Map<String, Department> loaded = new HashMap<>();
+        for (int shard : shardRouter.allShards()) {
+            shardRouter.run(shard, () -> employeeJdbcRepository.forEachBirthDateGroup(group -> loaded
+                    .computeIfAbsent(key(group.department()), name -> new Department())
+                    .addGroup(group)));
+        }
+        return loaded;
+    }
+
+    // Null if the department has no employees
+    private Department load(String name) {
+        Department loaded = new Department();
+        for (int shard : shardRouter.allShards()) {
+            shardRouter.run(shard, () -> employeeJdbcRepository.forEachBirthDateGroup(name, loaded::addGroup));
+        }
+        return loaded.headcount == 0 ? null : loaded;
+    }
+
+    private synchronized void add(String department, double salary, LocalDate dateOfBirth) {
+        changes.merge(key(department), 1L, Long::sum);
+        Department aggregate = departments.computeIfAbsent(key(department), name -> new Department());
+        aggregate.headcount++;
+        aggregate.salaryTotal += salary;
+        if (aggregate.headcount == 1) {
+            aggregate.salaryMin = salary;
+            aggregate.salaryMax = salary;
+        } else {
+            aggregate.salaryMin = Math.min(aggregate.salaryMin, salary);
+            aggregate.salaryMax = Math.max(aggregate.salaryMax, salary);
+        }
+        if (dateOfBirth != null) {
+            aggregate.birthDates.merge(dateOfBirth, 1L, Long::sum);
+        }
+        version++;
+    }
+
+    private synchronized void remove(String department, double salary, LocalDate dateOfBirth) {
+        changes.merge(key(department), 1L, Long::sum);
+        Department aggregate = departments.get(key(department));
+        if (aggregate == null) {
+            return;
+        }
+        if (--aggregate.headcount <= 0) {
+            departments.remove(key(department));
+        } else {
+            aggregate.salaryTotal -= salary;
+            // Min and max cannot be undone; re-read them when the removed salary was one of them
+            if (salary <= aggregate.salaryMin || salary >= aggregate.salaryMax) {
+                aggregate.salaryRangeStale = true;
+            }
+            if (dateOfBirth != null) {
+                aggregate.birthDates.computeIfPresent(dateOfBirth, (date, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+        version++;
+    }
+
+    private static DepartmentStats toStats(String name, Department aggregate, LocalDate today) {
+        // Born on or before cutoffs[i] means at least AGE_BANDS[i] years old
+        LocalDate[] cutoffs = new LocalDate[AGE_BANDS.length];
+        for (int i = 0; i < AGE_BANDS.length; i++) {
+            cutoffs[i] = today.minusYears(AGE_BANDS[i]);
+        }
+        long[] counts = new long[AGE_BANDS.length];
+        for (Map.Entry<LocalDate, Long> entry : aggregate.birthDates.entrySet()) {
+            int band = 0;
+            while (band + 1 < cutoffs.length && !entry.getKey().isAfter(cutoffs[band + 1])) {
+                band++;
+            }
+            counts[band] += entry.getValue();
+        }
+        Map<String, Long> ageBands = new LinkedHashMap<>();
+        for (int i = 0; i < AGE_BANDS.length; i++) {
+            ageBands.put(AGE_BAND_NAMES[i], counts[i]);
+        }
+        return new DepartmentStats(name, aggregate.headcount, aggregate.salaryTotal,
+                aggregate.salaryTotal / aggregate.headcount, aggregate.salaryMin, aggregate.salaryMax, ageBands);
+    }
+
+    private static boolean matches(Department actual, Department expected) {
+        if (actual == null || expected == null) {
+            return actual == expected;
+        }
+        return actual.headcount == expected.headcount
+                && Math.abs(actual.salaryTotal - expected.salaryTotal) <= SALARY_TOLERANCE * expected.headcount
+                && (actual.salaryRangeStale
+                        || (actual.salaryMin == expected.salaryMin && actual.salaryMax == expected.salaryMax))
+                && actual.birthDates.equals(expected.birthDates);
+    }
+
+    private static TreeSet<String> unionOfKeys(Map<String, ?> first, Map<String, ?> second) {
+        TreeSet<String> keys = new TreeSet<>(first.keySet());
+        keys.addAll(second.keySet());
+        return keys;
+    }
+
+    private static String key(String department) {
+        return department == null ? "" : department;
+    }
+
+    // Mutable running totals for one department, guarded by the enclosing instance
+    private static class Department {
+        long headcount;
+        double salaryTotal;
+        double salaryMin;
+        double salaryMax;
+        boolean salaryRangeStale;
+        final TreeMap<LocalDate, Long> birthDates = new TreeMap<>();
+
+        void addGroup(EmployeeJdbcRepository.BirthDateGroup group) {
+            salaryMin = headcount == 0 ? group.salaryMin() : Math.min(salaryMin, group.salaryMin());
+            salaryMax = headcount == 0 ? group.salaryMax() : Math.max(salaryMax, group.salaryMax());
+            headcount += group.count();
+            salaryTotal += group.salaryTotal();
+            if (group.dateOfBirth() != null) {
+                birthDates.merge(group.dateOfBirth(), group.count(), Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.IdProofDocument;
+import com.example.employeemanagement.model.IdProofDocument.Status;
+import com.example.employeemanagement.repository.IdProofDocumentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Processes stored ID proofs off the upload request: uploads record an {@link IdProofDocument} in
+ * PENDING state and queue its key once the file is durable, and {@code threads} workers (one per core
+ * by default) run the {@link IdProofAnalyzer} stages on it and store the result and thumbnail. Each
+ * worker takes a whole document through every stage, as the stages share the parsed document and
+ * documents are independent of each other.
+ *
+ * <p>The queue holds up to {@code queue-capacity} documents. When it is full, uploads block until a
+ * worker catches up; how often and for how long is reported by {@link #getBlockedSubmitCount()} and
+ * {@link #getBlockedNanos()}. Every {@code sweep-interval-ms} PENDING documents older than the interval
+ * are queued again, which picks up documents left by a restart or a crashed instance. Each start on a
+ * document is counted, and after {@code max-attempts} starts that did not finish it is marked FAILED
+ * rather than queued forever.
+ *
+ * <p>Results are written in a transaction that first locks the record and checks it is still PENDING,
+ * so a document deleted meanwhile ({@link #forget}) is not inserted again.
+ *
+ * <p>A document is processed once per content: a later upload of the same file finds it done.
+ */
+@Component
+public class DocumentProcessor {
+    private static final Logger log = LoggerFactory.getLogger(DocumentProcessor.class);
+    private static final int SWEEP_BATCH_SIZE = 1000;
+
+    @Autowired
+    private IdProofDocumentRepository idProofDocumentRepository;
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${employee.documents.processing.threads:0}")
+    private int threads;
+
+    @Value("${employee.documents.processing.queue-capacity:1000}")
+    private int capacity;
+
+    @Value("${employee.documents.processing.max-text-length:100000}")
+    private int maxTextLength;
+
+    @Value("${employee.documents.processing.thumbnail-width:200}")
+    private int thumbnailWidth;
+
+    @Value("${employee.documents.processing.sweep-interval-ms:60000}")
+    private long sweepIntervalMillis;
+
+    @Value("${employee.documents.processing.max-attempts:3}")
+    private int maxAttempts;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private IdProofAnalyzer analyzer;
+    private BlockingQueue<String> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong readyCount = new AtomicLong();
+    private final AtomicLong invalidCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong blockedSubmitCount = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        analyzer = new IdProofAnalyzer(maxTextLength, thumbnailWidth);
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::runWorker, "document-processor-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Queued documents stay PENDING and are picked up by the next sweep, here or on another instance
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // Called after the document is stored, outside any shard: the records live in the catalog
+    public void submit(String key) {
+        if (!queued.add(key)) {
+            return;
+        }
+        if (!createPending(key)) {
+            queued.remove(key);
+            return;
+        }
+        submittedCount.incrementAndGet();
+        if (queue.offer(key)) {
+            return;
+        }
+        blockedSubmitCount.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            queue.put(key);
+        } catch (InterruptedException e) {
+            // The record stays PENDING for the sweep
+            queued.remove(key);
+            Thread.currentThread().interrupt();
+        } finally {
+            blockedNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    // The pipeline's record of a document. Documents stored before the pipeline existed are queued
+    // the first time they are looked up, without waiting for room in the queue.
+    public Optional<IdProofDocument> getDocument(String key) {
+        Optional<IdProofDocument> document = idProofDocumentRepository.findById(key);
+        if (document.isEmpty() && documentStore.resolve(key).isPresent() && queued.add(key)) {
+            if (createPending(key)) {
+                submittedCount.incrementAndGet();
+                if (!queue.offer(key)) {
+                    queued.remove(key);
+                }
+            } else {
+                queued.remove(key);
+            }
+            document = idProofDocumentRepository.findById(key);
+        }
+        return document;
+    }
+
+    public void forget(String key) {
+        idProofDocumentRepository.deleteById(key);
+    }
+
+    @Scheduled(initialDelayString = "${employee.documents.processing.sweep-interval-ms:60000}",
+            fixedDelayString = "${employee.documents.processing.sweep-interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(sweepIntervalMillis));
+        int requeued = 0;
+        for (IdProofDocument document : idProofDocumentRepository.findByStatusAndCreatedAtBeforeOrderByCreatedAt(
+                Status.PENDING, before, PageRequest.of(0, SWEEP_BATCH_SIZE))) {
+            String key = document.getDocumentKey();
+            if (queued.add(key)) {
+                if (!queue.offer(key)) {
+                    queued.remove(key);
+                    break;
+                }
+                requeued++;
+            }
+        }
+        if (requeued > 0) {
+            log.info("Queued {} pending documents again", requeued);
+        }
+    }
+
+    // Returns whether the document needs processing: false when an earlier upload of the same content
+    // already has a result
+    private boolean createPending(String key) {
+        Optional<IdProofDocument> existing = idProofDocumentRepository.findById(key);
+        if (existing.isPresent()) {
+            return existing.get().getStatus() == Status.PENDING;
+        }
+        try {
+            idProofDocumentRepository.save(new IdProofDocument(key));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Recorded concurrently by another upload of the same content, which queues it
+            return false;
+        }
+    }
+
+    private void runWorker() {
+        while (running) {
+            String key;
+            try {
+                key = queue.take();
+            } catch (InterruptedException e) {
+                continue; // stop() interrupts a pending take; the loop condition decides whether to continue
+            }
+            busyWorkers.incrementAndGet();
+            try {
+                process(key);
+            } catch (RuntimeException e) {
+                // Left PENDING for the sweep to retry, until the attempts run out
+                log.error("Processing document {} failed", key, e);
+                giveUpIfOutOfAttempts(key, "Processing failed: " + e);
+            } finally {
+                queued.remove(key);
+                busyWorkers.decrementAndGet();
+            }
+        }
+    }
+
+    private void process(String key) {
+        if (!claim(key)) {
+            return;
+        }
+        Optional<Path> path = documentStore.resolve(key);
+        IdProofAnalyzer.Result result;
+        if (path.isEmpty()) {
+            result = IdProofAnalyzer.Result.rejected(Status.FAILED, null, "The document is missing from storage");
+        } else {
+            try {
+                result = analyzer.analyze(path.get(), key, this::recordStage);
+                if (result.thumbnail() != null) {
+                    documentStore.storeThumbnail(key, result.thumbnail());
+                }
+            } catch (IOException e) {
+                log.warn("Could not read document {}", key, e);
+                result = IdProofAnalyzer.Result.rejected(Status.FAILED, null, "The document could not be read");
+            }
+        }
+
+        IdProofAnalyzer.Result finished = result;
+        boolean stored = updatePending(key, document -> {
+            document.setStatus(finished.status());
+            document.setPageCount(finished.pageCount());
+            document.setExtractedText(finished.text());
+            document.setChecksum(finished.checksum());
+            document.setThumbnail(finished.thumbnail() != null);
+            document.setError(finished.error());
+            document.setProcessedAt(LocalDateTime.now());
+            return true;
+        });
+        if (!stored) {
+            return;
+        }
+        switch (result.status()) {
+            case READY -> readyCount.incrementAndGet();
+            case INVALID -> invalidCount.incrementAndGet();
+            default -> failedCount.incrementAndGet();
+        }
+    }
+
+    // Counts the attempt before starting; false if the document was deleted, finished by another
+    // instance, or has used up its attempts (earlier ones crashed before failing cleanly)
+    private boolean claim(String key) {
+        giveUpIfOutOfAttempts(key, "Processing did not finish in " + maxAttempts + " attempts");
+        return updatePending(key, document -> {
+            document.setAttempts(document.getAttempts() + 1);
+            return true;
+        });
+    }
+
+    private void giveUpIfOutOfAttempts(String key, String error) {
+        boolean failed = updatePending(key, document -> {
+            if (document.getAttempts() < maxAttempts) {
+                return false;
+            }
+            document.setStatus(Status.FAILED);
+            document.setError(error.length() > 255 ? error.substring(0, 255) : error);
+            document.setProcessedAt(LocalDateTime.now());
+            return true;
+        });
+        if (failed) {
+            log.warn("Gave up on document {} after {} attempts", key, maxAttempts);
+            failedCount.incrementAndGet();
+        }
+    }
+
+    // Runs the update on the record if it still exists and is PENDING, in one transaction holding its row
+    // lock. The record is managed, so a change is written as an UPDATE and never re-inserts a record that
+    // was deleted. Returns what the update returned, or false if it did not run.
+    private boolean updatePending(String key, Predicate<IdProofDocument> update) {
+        return Boolean.TRUE.equals(new TransactionTemplate(transactionManager).execute(status -> {
+            IdProofDocument document = idProofDocumentRepository.findForUpdate(key).orElse(null);
+            if (document == null || document.getStatus() != Status.PENDING) {
+                return false;
+            }
+            return update.test(document);
+        }));
+    }
+
+    private void recordStage(String stage, long nanos) {
+        stageTimers.computeIfAbsent(stage, name -> Timer.builder("employee.documents.stage")
+                        .description("Time a document spends in each processing stage")
+                        .tag("stage", name)
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int getQueueDepth() { return queue.size(); }
+    public int getCapacity() { return capacity; }
+    public int getThreads() { return threads; }
+    public int getBusyWorkers() { return busyWorkers.get(); }
+    public long getSubmittedCount() { return submittedCount.get(); }
+    public long getReadyCount() { return readyCount.get(); }
+    public long getInvalidCount() { return invalidCount.get(); }
+    public long getFailedCount() { return failedCount.get(); }
+    public long getBlockedSubmitCount() { return blockedSubmitCount.get(); }
+    public long getBlockedNanos() { return blockedNanos.get(); }
+}
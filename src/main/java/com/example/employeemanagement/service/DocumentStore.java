@@ -0,0 +1,33 @@
+package com.example.employeemanagement.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+// Storage for uploaded ID-proof documents, addressed by the key stored in Employee.idProofPath
+public interface DocumentStore {
+
+    // Returns once the document is durable, so it can be processed after the upload request has returned.
+    // The key is held against deleteIfUnreferenced until release, once the reference to it is committed
+    // (or abandoned).
+    String store(MultipartFile file) throws IOException;
+
+    void release(String key);
+
+    Optional<Path> resolve(String key);
+
+    // The first-page thumbnail made by the document pipeline, stored next to its document
+    void storeThumbnail(String key, byte[] png) throws IOException;
+
+    Optional<Path> resolveThumbnail(String key);
+
+    // Strong validator for the stored content of the given key
+    String etag(String key, Path path) throws IOException;
+
+    // Deletes the document and its thumbnail unless an upload holds the key or referenced, checked under
+    // the same lock as store, reports it in use; returns whether it was deleted
+    boolean deleteIfUnreferenced(String key, BooleanSupplier referenced) throws IOException;
+}
@@ -0,0 +1,157 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.repository.EmployeeJdbcRepository;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository.HistoryRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps {@code employee_history} to recent months, so the rows searches and the history page read
+ * stay in the database's buffer pool as the company grows. Deleted employees are moved to
+ * {@code employee_archive} by the delete itself; every {@code employee.archive.interval-ms} this moves,
+ * on every shard and in batches of {@code employee.archive.batch-size}:
+ * <ul>
+ *     <li>the history of employees deleted more than {@code employee.archive.grace-period} ago, which
+ *     leaves time for the DELETED row the audit log writes after the delete;</li>
+ *     <li>history from before the last {@code employee.archive.hot-history-months} whole months, for
+ *     everyone.</li>
+ * </ul>
+ * Moved rows go to {@code employee_history_archive} under the month of their timestamp. Archived
+ * history and deleted employees older than {@code employee.archive.retention-months} are then deleted,
+ * oldest month first.
+ *
+ * <p>Each batch is its own transaction, so a run can stop anywhere and the next one carries on. Every
+ * instance runs the archiver; when two pick the same batch, the second fails on the archive's primary
+ * key, rolls back and leaves the rest of the run to the other.
+ */
+@Component
+public class EmployeeArchiver {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeArchiver.class);
+
+    public record Run(long historyMoved, long historyExpired, long employeesExpired) {
+        Run plus(Run other) {
+            return new Run(historyMoved + other.historyMoved, historyExpired + other.historyExpired,
+                    employeesExpired + other.employeesExpired);
+        }
+    }
+
+    @Autowired
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${employee.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${employee.archive.grace-period:10m}")
+    private Duration gracePeriod;
+
+    @Value("${employee.archive.hot-history-months:3}")
+    private int hotHistoryMonths;
+
+    @Value("${employee.archive.retention-months:84}")
+    private int retentionMonths;
+
+    private final AtomicLong historyMovedCount = new AtomicLong();
+    private final AtomicLong historyExpiredCount = new AtomicLong();
+    private final AtomicLong employeesExpiredCount = new AtomicLong();
+
+    @Scheduled(initialDelayString = "${employee.archive.interval-ms:600000}",
+            fixedDelayString = "${employee.archive.interval-ms:600000}")
+    public Run archive() {
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.nanoTime();
+        Run total = new Run(0, 0, 0);
+        for (int shard : shardRouter.allShards()) {
+            try {
+                total = total.plus(shardRouter.on(shard, () -> archiveShard(now)));
+            } catch (DataIntegrityViolationException e) {
+                log.info("Archiving shard {} stopped: another instance is archiving the same rows", shard);
+            }
+        }
+        if (total.historyMoved() + total.historyExpired() + total.employeesExpired() > 0) {
+            log.info("Archived {} history rows, expired {} archived history rows and {} archived employees in {} ms",
+                    total.historyMoved(), total.historyExpired(), total.employeesExpired(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+        return total;
+    }
+
+    private Run archiveShard(LocalDateTime now) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long moved = 0;
+
+        // Deleted employees: all of their history, a batch of employees at a time
+        LocalDateTime deletedBefore = now.minus(gracePeriod);
+        List<String> employeeIds;
+        while (!(employeeIds = employeeJdbcRepository.findArchivedEmployeesWithHistory(deletedBefore, batchSize))
+                .isEmpty()) {
+            List<String> batch = employeeIds;
+            int count = transaction.execute(status -> {
+                List<HistoryRow> rows = employeeJdbcRepository.findHistoryOf(batch);
+                employeeJdbcRepository.archiveHistory(rows);
+                employeeJdbcRepository.markHistoryArchived(batch);
+                return rows.size();
+            });
+            moved += count;
+            historyMovedCount.addAndGet(count);
+        }
+
+        // Everyone: months before the hot ones, found from the lowest IDs, which are the oldest rows. A
+        // batch with nothing old enough ends the step, so a row much older than its ID waits until its
+        // neighbours follow it.
+        LocalDateTime hotFrom = now.toLocalDate().withDayOfMonth(1).minusMonths(hotHistoryMonths).atStartOfDay();
+        while (true) {
+            int count = transaction.execute(status -> {
+                List<HistoryRow> old = employeeJdbcRepository.findHistoryBetween(0, Long.MAX_VALUE, batchSize).stream()
+                        .filter(row -> row.timestamp() == null || row.timestamp().isBefore(hotFrom))
+                        .toList();
+                employeeJdbcRepository.archiveHistory(old);
+                return old.size();
+            });
+            if (count == 0) {
+                break;
+            }
+            moved += count;
+            historyMovedCount.addAndGet(count);
+        }
+
+        // Retention: whole months of archived history, then employees deleted before them
+        LocalDateTime expiredBefore = now.minusMonths(retentionMonths);
+        int expiredMonth = EmployeeJdbcRepository.archiveMonth(expiredBefore);
+        long historyExpired = 0;
+        int deleted;
+        while ((deleted = transaction.execute(status ->
+                employeeJdbcRepository.deleteArchivedHistoryBefore(expiredMonth, batchSize))) > 0) {
+            historyExpired += deleted;
+            historyExpiredCount.addAndGet(deleted);
+        }
+        long employeesExpired = 0;
+        while ((deleted = transaction.execute(status ->
+                employeeJdbcRepository.deleteArchivedEmployeesBefore(expiredBefore, batchSize))) > 0) {
+            employeesExpired += deleted;
+            employeesExpiredCount.addAndGet(deleted);
+        }
+        return new Run(moved, historyExpired, employeesExpired);
+    }
+
+    public long getHistoryMovedCount() { return historyMovedCount.get(); }
+    public long getHistoryExpiredCount() { return historyExpiredCount.get(); }
+    public long getEmployeesExpiredCount() { return employeesExpiredCount.get(); }
+}
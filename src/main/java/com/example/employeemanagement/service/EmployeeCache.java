@@ -0,0 +1,247 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository.HistoryRow;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, size- and TTL-evicted (W-TinyLFU) caches for employee lookups and search results.
+ * Search results are cached as the grid's {@link EmployeeSummary} rows, which hold no field an
+ * update can change, so an update only has to evict the one employee while adds and deletes drop
+ * all cached searches.
+ *
+ * <p>Loads that raced with an invalidation are returned to the caller but not cached, so a node
+ * never serves state older than its own last write. A load read from a replica may predate that write
+ * even so, so its entry only lives for {@code employee.datasource.read-your-writes-window}, the lag
+ * replicas are expected to stay within.
+ *
+ * <p>The caches are per node. Every mutation writes a history row, and the rows other nodes and imports
+ * write reach this node through the {@link ChangeFeed} poll, which evicts their employees (and, for adds
+ * and deletes, all cached searches). Another node's change is therefore served stale for at most about
+ * {@code employee.changes.poll-interval-ms}, plus {@code employee.changes.gap-timeout} when history IDs
+ * commit out of order; the TTLs only bound staleness if the feed stops polling.
+ */
+@Component
+public class EmployeeCache {
+    // The one history action that leaves search membership unchanged
+    private static final String ID_PROOF_UPDATED = "ID_PROOF_UPDATED";
+
+    private record PageKey(EmployeeSearchCriteria criteria, int page, int size) {
+    }
+
+    private record SliceKey(EmployeeSearchCriteria criteria, String afterEmployeeId, int size) {
+    }
+
+    // One page of results, plus the total (for pages) or whether more follow (for slices)
+    private record CachedResults(List<EmployeeSummary> content, long total, boolean hasNext, boolean fromReplica) {
+    }
+
+    private record CachedEmployee(Employee employee, boolean fromReplica) {
+    }
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Value("${employee.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${employee.cache.employees.max-size:10000}")
+    private long employeeMaxSize;
+
+    @Value("${employee.cache.employees.ttl:10m}")
+    private Duration employeeTtl;
+
+    @Value("${employee.cache.searches.max-size:1000}")
+    private long searchMaxSize;
+
+    @Value("${employee.cache.searches.ttl:1m}")
+    private Duration searchTtl;
+
+    @Value("${employee.datasource.read-your-writes-window:5s}")
+    private Duration replicaTtl;
+
+    private Cache<String, CachedEmployee> employees;
+    private Cache<Object, CachedResults> searches;
+
+    // Bumped under the lock on every invalidation; a load only populates the cache if its count is unchanged
+    private final Object lock = new Object();
+    private long employeeInvalidations;
+    private long searchInvalidations;
+
+    @PostConstruct
+    public void init() {
+        employees = Caffeine.newBuilder()
+                .maximumSize(employeeMaxSize)
+                .expireAfter(expireAfterWrite(employeeTtl, CachedEmployee::fromReplica))
+                .recordStats()
+                .build();
+        searches = Caffeine.newBuilder()
+                .maximumSize(searchMaxSize)
+                .expireAfter(expireAfterWrite(searchTtl, CachedResults::fromReplica))
+                .recordStats()
+                .build();
+        changeFeed.addRowListener(this::onHistoryRows);
+    }
+
+    // Also sees this node's own changes again, which costs one more eviction each
+    private void onHistoryRows(List<HistoryRow> rows) {
+        evictEmployees(rows.stream().map(HistoryRow::employeeId).distinct().toList());
+        if (rows.stream().anyMatch(row -> !ID_PROOF_UPDATED.equals(row.action()))) {
+            invalidateSearches();
+        }
+    }
+
+    private <K, V> Expiry<K, V> expireAfterWrite(Duration ttl, Predicate<V> fromReplica) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(K key, V value, long currentTime) {
+                Duration lifetime = fromReplica.test(value) && replicaTtl.compareTo(ttl) < 0 ? replicaTtl : ttl;
+                return lifetime.toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    public Optional<Employee> getEmployee(String employeeId) {
+        if (!enabled) {
+            return employeeRepository.findById(employeeId);
+        }
+        CachedEmployee cached = employees.getIfPresent(employeeId);
+        if (cached != null) {
+            return Optional.of(cached.employee());
+        }
+        long seen = employeeInvalidationCount();
+        long replicaReads = ReplicaReads.count();
+        Optional<Employee> loaded = employeeRepository.findById(employeeId);
+        boolean fromReplica = ReplicaReads.count() != replicaReads;
+        loaded.ifPresent(employee -> putEmployee(new CachedEmployee(employee, fromReplica), seen));
+        return loaded;
+    }
+
+    public Page<EmployeeSummary> search(EmployeeSearchCriteria criteria, Pageable pageable,
+                                        Supplier<Page<EmployeeSummary>> loader) {
+        if (!enabled || pageable.isUnpaged()) {
+            return loader.get();
+        }
+        PageKey key = new PageKey(criteria, pageable.getPageNumber(), pageable.getPageSize());
+        CachedResults cached = searches.getIfPresent(key);
+        if (cached != null) {
+            return new PageImpl<>(cached.content(), pageable, cached.total());
+        }
+        long seen = searchInvalidationCount();
+        long replicaReads = ReplicaReads.count();
+        Page<EmployeeSummary> page = loader.get();
+        putSearch(key, new CachedResults(page.getContent(), page.getTotalElements(), false,
+                ReplicaReads.count() != replicaReads), seen);
+        return page;
+    }
+
+    public Slice<EmployeeSummary> searchAfter(EmployeeSearchCriteria criteria, String afterEmployeeId, int size,
+                                              Supplier<Slice<EmployeeSummary>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        SliceKey key = new SliceKey(criteria, afterEmployeeId, size);
+        CachedResults cached = searches.getIfPresent(key);
+        if (cached != null) {
+            return new SliceImpl<>(cached.content(), PageRequest.of(0, size), cached.hasNext());
+        }
+        long seen = searchInvalidationCount();
+        long replicaReads = ReplicaReads.count();
+        Slice<EmployeeSummary> slice = loader.get();
+        putSearch(key, new CachedResults(slice.getContent(), -1, slice.hasNext(),
+                ReplicaReads.count() != replicaReads), seen);
+        return slice;
+    }
+
+    // An existing employee changed; searchable fields are fixed at creation, so cached searches stay valid
+    public void evictEmployee(String employeeId) {
+        synchronized (lock) {
+            employeeInvalidations++;
+            employees.invalidate(employeeId);
+        }
+    }
+
+    public void evictEmployees(Collection<String> employeeIds) {
+        synchronized (lock) {
+            employeeInvalidations++;
+            employees.invalidateAll(employeeIds);
+        }
+    }
+
+    // Employees were added or removed, which can change the membership of any search
+    public void invalidateSearches() {
+        synchronized (lock) {
+            searchInvalidations++;
+            searches.invalidateAll();
+        }
+    }
+
+    public CacheStats getEmployeeStats() { return employees.stats(); }
+    public CacheStats getSearchStats() { return searches.stats(); }
+    public long getEmployeeCacheSize() { return employees.estimatedSize(); }
+    public long getSearchCacheSize() { return searches.estimatedSize(); }
+
+    private void putEmployee(CachedEmployee employee, long seen) {
+        synchronized (lock) {
+            if (employeeInvalidations == seen) {
+                employees.put(employee.employee().getEmployeeId(), employee);
+            }
+        }
+    }
+
+    private void putSearch(Object key, CachedResults results, long seen) {
+        synchronized (lock) {
+            if (searchInvalidations == seen) {
+                searches.put(key, results);
+            }
+        }
+    }
+
+    private long employeeInvalidationCount() {
+        synchronized (lock) {
+            return employeeInvalidations;
+        }
+    }
+
+    private long searchInvalidationCount() {
+        synchronized (lock) {
+            return searchInvalidations;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.ImportFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads import rows one line at a time from CSV (with a header row) or NDJSON input,
+ * so the whole file is never held in memory.
+ */
+class EmployeeImportReader implements Closeable {
+
+    record Row(long number, Map<String, String> fields, String error) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private List<String> header;
+    private long lineNumber;
+
+    EmployeeImportReader(BufferedReader reader, ImportFormat format) {
+        this.reader = reader;
+        this.format = format;
+    }
+
+    // Returns the next non-blank row, or null at end of input
+    Row next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == ImportFormat.NDJSON) {
+                return parseJson(line);
+            }
+            if (header == null) {
+                header = new ArrayList<>();
+                for (String name : splitCsv(line)) {
+                    header.add(name.trim());
+                }
+                continue;
+            }
+            return parseCsv(line);
+        }
+        return null;
+    }
+
+    private Row parseJson(String line) {
+        try {
+            JsonNode node = MAPPER.readTree(line);
+            if (!node.isObject()) {
+                return new Row(lineNumber, Map.of(), "Expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> entries = node.fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                if (!entry.getValue().isNull()) {
+                    fields.put(entry.getKey(), entry.getValue().asText());
+                }
+            }
+            return new Row(lineNumber, fields, null);
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, Map.of(), "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row parseCsv(String line) {
+        List<String> values = splitCsv(line);
+        if (values.size() != header.size()) {
+            return new Row(lineNumber, Map.of(),
+                    "Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return new Row(lineNumber, fields, null);
+    }
+
+    // Splits one CSV record, honouring double-quoted values and "" escapes
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.ImportFormat;
+import com.example.employeemanagement.model.ImportJob;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming bulk import of employees from CSV or NDJSON. The request body is spooled to a temporary
+ * file and processed in the background in chunks: rows are validated in parallel, IDs are claimed
+ * from {@link IdAllocator}, and employees plus their CREATED history rows are written with JDBC batch
+ * inserts in one transaction per chunk (per chunk and shard with sharded storage).
+ */
+@Service
+public class EmployeeImportService {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImportService.class);
+    private static final int MAX_TRACKED_JOBS = 100;
+
+    @Autowired
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private EmployeeSearchBackend searchBackend;
+
+    @Autowired
+    private SearchCountCache searchCountCache;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private DepartmentAggregates departmentAggregates;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${employee.import.chunk-size:1000}")
+    private int chunkSize;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private record ValidatedRow(long number, Employee employee, String error) {
+    }
+
+    public ImportJob startImport(InputStream body, ImportFormat format) throws IOException {
+        Path spool = Files.createTempFile("employee-import-", ".tmp");
+        Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        evictFinishedJobs();
+        jobs.put(job.getId(), job);
+        taskExecutor.execute(() -> {
+            try {
+                runImport(job, spool, format);
+            } finally {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    log.warn("Could not delete import spool file {}", spool, e);
+                }
+            }
+        });
+        return job;
+    }
+
+    public ImportJob getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Import job not found");
+        }
+        return job;
+    }
+
+    void runImport(ImportJob job, Path file, ImportFormat format) {
+        job.start();
+        try (EmployeeImportReader reader = new EmployeeImportReader(
+                Files.newBufferedReader(file, StandardCharsets.UTF_8), format)) {
+            List<EmployeeImportReader.Row> chunk = new ArrayList<>(chunkSize);
+            EmployeeImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                job.rowRead();
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk);
+            }
+            job.complete();
+            log.info("Import {} finished: {} imported, {} failed, {} rows/s", job.getId(),
+                    job.getRowsImported(), job.getRowsFailed(), Math.round(job.getRowsPerSecond()));
+        } catch (Exception e) {
+            log.error("Import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        }
+    }
+
+    private void importChunk(ImportJob job, List<EmployeeImportReader.Row> rows) {
+        List<ValidatedRow> valid = new ArrayList<>(rows.size());
+        for (ValidatedRow row : rows.parallelStream().map(this::validate).toList()) {
+            if (row.error() != null) {
+                job.rowFailed(row.number(), row.error());
+                continue;
+            }
+            Employee employee = row.employee();
+            employee.setEmployeeId(idAllocator.nextEmployeeId(employee.getDepartment()));
+            employee.setLoginId(idAllocator.claimLoginId(
+                    IdAllocator.loginIdBase(employee.getFirstName(), employee.getLastName())));
+            valid.add(row);
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<ValidatedRow>> rowsByShard = shardRouter.groupByShard(valid, row -> row.employee().getEmployeeId());
+        List<Employee> stored = new ArrayList<>(valid.size());
+        for (List<ValidatedRow> shardRows : rowsByShard.values()) {
+            try {
+                stored.addAll(insertBatch(shardRows.stream().map(ValidatedRow::employee).toList()));
+                job.rowsImported(shardRows.size());
+            } catch (DataIntegrityViolationException e) {
+                // A login ID was taken by another node in the meantime; fall back to row-by-row inserts
+                for (ValidatedRow row : shardRows) {
+                    insertSingle(job, row).ifPresent(stored::add);
+                }
+            }
+        }
+        for (Employee employee : stored) {
+            searchBackend.onEmployeeSaved(employee);
+        }
+        searchCountCache.invalidate();
+        employeeCache.invalidateSearches();
+    }
+
+    // Returns the employee if it was stored. A row that fails twice gives back both login IDs it claimed,
+    // since the failure was not (only) a taken login ID.
+    private Optional<Employee> insertSingle(ImportJob job, ValidatedRow row) {
+        Employee employee = row.employee();
+        try {
+            insertBatch(List.of(employee));
+            job.rowsImported(1);
+            return Optional.of(employee);
+        } catch (DataIntegrityViolationException first) {
+            String firstLoginId = employee.getLoginId();
+            employee.setLoginId(idAllocator.claimLoginId(
+                    IdAllocator.loginIdBase(employee.getFirstName(), employee.getLastName())));
+            try {
+                insertBatch(List.of(employee));
+                job.rowsImported(1);
+                return Optional.of(employee);
+            } catch (DataIntegrityViolationException second) {
+                idAllocator.releaseLoginId(firstLoginId);
+                idAllocator.releaseLoginId(employee.getLoginId());
+                job.rowFailed(row.number(), "Could not store employee: " + second.getMostSpecificCause().getMessage());
+                return Optional.empty();
+            }
+        }
+    }
+
+    // The employees all belong to one shard; returns them once they are stored
+    private List<Employee> insertBatch(List<Employee> employees) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> departments = employees.stream().map(Employee::getDepartment).toList();
+        departmentAggregates.beginWrite(departments);
+        try {
+            shardRouter.run(shardRouter.shardOf(employees.get(0).getEmployeeId()), () ->
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        employeeJdbcRepository.insertEmployees(employees);
+                        employeeJdbcRepository.insertHistory(employees, "CREATED", now);
+                    }));
+            employees.forEach(departmentAggregates::onEmployeeAdded);
+        } finally {
+            departmentAggregates.endWrite(departments);
+        }
+        return employees;
+    }
+
+    // Applies the same rules as the add-employee form; the ID proof can be attached later
+    private ValidatedRow validate(EmployeeImportReader.Row row) {
+        if (row.error() != null) {
+            return new ValidatedRow(row.number(), null, row.error());
+        }
+        Map<String, String> fields = row.fields();
+        try {
+            Employee employee = new Employee();
+            employee.setFirstName(required(fields, "firstName"));
+            employee.setLastName(required(fields, "lastName"));
+            employee.setMiddleName(optional(fields, "middleName"));
+            employee.setDepartment(required(fields, "department"));
+            employee.setPermanentAddress(required(fields, "permanentAddress"));
+            employee.setCurrentAddress(required(fields, "currentAddress"));
+            LocalDate dateOfBirth = LocalDate.parse(required(fields, "dateOfBirth"));
+            if (Period.between(dateOfBirth, LocalDate.now()).getYears() < 18) {
+                throw new IllegalArgumentException("Employee must be at least 18 years old");
+            }
+            employee.setDateOfBirth(dateOfBirth);
+            employee.setSalary(Double.parseDouble(required(fields, "salary")));
+            return new ValidatedRow(row.number(), employee, null);
+        } catch (DateTimeParseException e) {
+            return new ValidatedRow(row.number(), null, "Invalid dateOfBirth, expected yyyy-MM-dd");
+        } catch (NumberFormatException e) {
+            return new ValidatedRow(row.number(), null, "Invalid salary");
+        } catch (IllegalArgumentException e) {
+            return new ValidatedRow(row.number(), null, e.getMessage());
+        }
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = optional(fields, name);
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() >= MAX_TRACKED_JOBS) {
+            jobs.values().removeIf(ImportJob::isFinished);
+        }
+    }
+}
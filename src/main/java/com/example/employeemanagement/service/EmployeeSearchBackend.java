@@ -0,0 +1,25 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+public interface EmployeeSearchBackend {
+
+    Page<EmployeeSummary> search(EmployeeSearchCriteria criteria, Pageable pageable);
+
+    // Returns up to size employees ordered by employeeId, starting after afterEmployeeId (null for the first page)
+    Slice<EmployeeSummary> searchAfter(EmployeeSearchCriteria criteria, String afterEmployeeId, int size);
+
+    long count(EmployeeSearchCriteria criteria);
+
+    // Called after an employee has been saved so backends holding their own state can stay in sync
+    default void onEmployeeSaved(Employee employee) {
+    }
+
+    default void onEmployeeDeleted(String employeeId) {
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of the searchable employee fields: trigram postings for the substring
+ * fields, plus postings per department and per date of birth. Postings are kept sorted by employee ID,
+ * so a page is found by seeking to the cursor in the most selective posting and verifying candidates
+ * from there until the page is full; only matching employee IDs ever reach the database.
+ */
+public class EmployeeSearchIndex {
+
+    private static final int GRAM = 3;
+
+    enum Field { EMPLOYEE_ID, FIRST_NAME, LAST_NAME, LOGIN_ID }
+
+    private record Entry(Map<Field, String> values, String department, LocalDate dateOfBirth) {
+    }
+
+    private final NavigableMap<String, Entry> entries = new TreeMap<>();
+    private final Map<Field, Map<String, NavigableSet<String>>> postings = new EnumMap<>(Field.class);
+    private final Map<String, NavigableSet<String>> departments = new HashMap<>();
+    private final NavigableMap<LocalDate, Set<String>> birthDates = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public EmployeeSearchIndex() {
+        for (Field field : Field.values()) {
+            postings.put(field, new HashMap<>());
+        }
+    }
+
+    public void put(String employeeId, String firstName, String lastName, String loginId,
+                    String department, LocalDate dateOfBirth) {
+        Map<Field, String> values = new EnumMap<>(Field.class);
+        values.put(Field.EMPLOYEE_ID, lower(employeeId));
+        values.put(Field.FIRST_NAME, lower(firstName));
+        values.put(Field.LAST_NAME, lower(lastName));
+        values.put(Field.LOGIN_ID, lower(loginId));
+        Entry entry = new Entry(values, department, dateOfBirth);
+
+        lock.writeLock().lock();
+        try {
+            unindex(employeeId, entries.put(employeeId, entry));
+            for (Map.Entry<Field, String> value : values.entrySet()) {
+                for (String gram : grams(value.getValue())) {
+                    postings.get(value.getKey()).computeIfAbsent(gram, g -> new TreeSet<>()).add(employeeId);
+                }
+            }
+            if (department != null) {
+                departments.computeIfAbsent(department, d -> new TreeSet<>()).add(employeeId);
+            }
+            if (dateOfBirth != null) {
+                birthDates.computeIfAbsent(dateOfBirth, d -> new HashSet<>()).add(employeeId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String employeeId) {
+        lock.writeLock().lock();
+        try {
+            unindex(employeeId, entries.remove(employeeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of all employees matching the criteria, sorted by employee ID.
+     */
+    public List<String> search(EmployeeSearchCriteria criteria) {
+        return search(criteria, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns up to limit IDs of employees matching the criteria, sorted by employee ID and starting
+     * after afterEmployeeId (null for the first page).
+     */
+    public List<String> search(EmployeeSearchCriteria criteria, String afterEmployeeId, int limit) {
+        Map<Field, String> terms = terms(criteria);
+        List<String> result = new ArrayList<>(Math.min(limit, 1024));
+        lock.readLock().lock();
+        try {
+            NavigableSet<String> driver = driver(terms, criteria, afterEmployeeId, limit);
+            Collection<String> candidates = afterEmployeeId == null ? driver : driver.tailSet(afterEmployeeId, false);
+            for (String employeeId : candidates) {
+                if (result.size() == limit) {
+                    break;
+                }
+                Entry entry = entries.get(employeeId);
+                if (entry != null && matches(entry, terms, criteria)) {
+                    result.add(employeeId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int count(EmployeeSearchCriteria criteria) {
+        Map<Field, String> terms = terms(criteria);
+        boolean dateRange = criteria.getStartDate() != null || criteria.getEndDate() != null;
+        lock.readLock().lock();
+        try {
+            // Answered from the posting sizes alone
+            if (terms.isEmpty() && !dateRange) {
+                return criteria.getDepartment() == null ? entries.size()
+                        : departments.getOrDefault(criteria.getDepartment(), new TreeSet<>()).size();
+            }
+            NavigableSet<String> smallest = smallestPosting(terms, criteria);
+            Collection<Set<String>> range = dateRange ? birthDateRange(criteria).values() : null;
+            int count = 0;
+            if (range != null && rangeSize(range, smallest.size()) < smallest.size()) {
+                for (Set<String> ids : range) {
+                    count += countMatches(ids, terms, criteria);
+                }
+            } else {
+                count = countMatches(smallest, terms, criteria);
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The sorted set a page is read from: the smallest posting among the criteria, or the employees
+    // born within the date range when walking the posting to fill a page would cost more than
+    // collecting and sorting them
+    private NavigableSet<String> driver(Map<Field, String> terms, EmployeeSearchCriteria criteria,
+                                        String afterEmployeeId, int limit) {
+        NavigableSet<String> smallest = smallestPosting(terms, criteria);
+        if (criteria.getStartDate() == null && criteria.getEndDate() == null) {
+            return smallest;
+        }
+        Collection<Set<String>> range = birthDateRange(criteria).values();
+        long size = rangeSize(range, smallest.size());
+        // Filling a page from the posting visits about limit * |posting| / |range| IDs
+        if (size >= smallest.size() || size * size >= (long) limit * smallest.size()) {
+            return smallest;
+        }
+        NavigableSet<String> born = new TreeSet<>();
+        for (Set<String> ids : range) {
+            for (String employeeId : ids) {
+                if (afterEmployeeId == null || employeeId.compareTo(afterEmployeeId) > 0) {
+                    born.add(employeeId);
+                }
+            }
+        }
+        return born;
+    }
+
+    // The smallest trigram or department posting the criteria require, or every entry when no term is
+    // long enough to produce a trigram and no department is given
+    private NavigableSet<String> smallestPosting(Map<Field, String> terms, EmployeeSearchCriteria criteria) {
+        NavigableSet<String> smallest = entries.navigableKeySet();
+        for (Map.Entry<Field, String> term : terms.entrySet()) {
+            Map<String, NavigableSet<String>> fieldPostings = postings.get(term.getKey());
+            for (String gram : grams(term.getValue())) {
+                NavigableSet<String> posting = fieldPostings.get(gram);
+                if (posting == null) {
+                    return new TreeSet<>();
+                }
+                if (posting.size() < smallest.size()) {
+                    smallest = posting;
+                }
+            }
+        }
+        if (criteria.getDepartment() != null) {
+            NavigableSet<String> posting = departments.get(criteria.getDepartment());
+            if (posting == null) {
+                return new TreeSet<>();
+            }
+            if (posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    private NavigableMap<LocalDate, Set<String>> birthDateRange(EmployeeSearchCriteria criteria) {
+        LocalDate start = criteria.getStartDate();
+        LocalDate end = criteria.getEndDate();
+        if (start != null && end != null) {
+            return start.isAfter(end) ? new TreeMap<>() : birthDates.subMap(start, true, end, true);
+        }
+        return start != null ? birthDates.tailMap(start, true) : birthDates.headMap(end, true);
+    }
+
+    // Number of IDs in the range, counted only up to the limit
+    private static long rangeSize(Collection<Set<String>> range, long limit) {
+        long size = 0;
+        for (Set<String> ids : range) {
+            size += ids.size();
+            if (size >= limit) {
+                break;
+            }
+        }
+        return size;
+    }
+
+    private int countMatches(Collection<String> employeeIds, Map<Field, String> terms,
+                             EmployeeSearchCriteria criteria) {
+        int count = 0;
+        for (String employeeId : employeeIds) {
+            Entry entry = entries.get(employeeId);
+            if (entry != null && matches(entry, terms, criteria)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean matches(Entry entry, Map<Field, String> terms, EmployeeSearchCriteria criteria) {
+        for (Map.Entry<Field, String> term : terms.entrySet()) {
+            String value = entry.values().get(term.getKey());
+            if (value == null || !value.contains(term.getValue())) {
+                return false;
+            }
+        }
+        if (criteria.getDepartment() != null && !criteria.getDepartment().equals(entry.department())) {
+            return false;
+        }
+        if (criteria.getStartDate() != null
+                && (entry.dateOfBirth() == null || entry.dateOfBirth().isBefore(criteria.getStartDate()))) {
+            return false;
+        }
+        if (criteria.getEndDate() != null
+                && (entry.dateOfBirth() == null || entry.dateOfBirth().isAfter(criteria.getEndDate()))) {
+            return false;
+        }
+        return true;
+    }
+
+    private void unindex(String employeeId, Entry previous) {
+        if (previous == null) {
+            return;
+        }
+        for (Map.Entry<Field, String> value : previous.values().entrySet()) {
+            Map<String, NavigableSet<String>> fieldPostings = postings.get(value.getKey());
+            for (String gram : grams(value.getValue())) {
+                removeFrom(fieldPostings, gram, employeeId);
+            }
+        }
+        if (previous.department() != null) {
+            removeFrom(departments, previous.department(), employeeId);
+        }
+        if (previous.dateOfBirth() != null) {
+            removeFrom(birthDates, previous.dateOfBirth(), employeeId);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, ? extends Set<String>> postings, K key, String employeeId) {
+        Set<String> posting = postings.get(key);
+        if (posting != null && posting.remove(employeeId) && posting.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private static Map<Field, String> terms(EmployeeSearchCriteria criteria) {
+        Map<Field, String> terms = new EnumMap<>(Field.class);
+        putTerm(terms, Field.EMPLOYEE_ID, criteria.getEmployeeId());
+        putTerm(terms, Field.FIRST_NAME, criteria.getFirstName());
+        putTerm(terms, Field.LAST_NAME, criteria.getLastName());
+        putTerm(terms, Field.LOGIN_ID, criteria.getLoginId());
+        return terms;
+    }
+
+    private static void putTerm(Map<Field, String> terms, Field field, String value) {
+        if (value != null) {
+            terms.put(field, lower(value));
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        if (value == null || value.length() < GRAM) {
+            return Set.of();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,30 +2,129 @@ package com.example.employeemanagement.service;
 
 import com.example.employeemanagement.model.Employee;
 import com.example.employeemanagement.model.EmployeeHistory;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.model.IdProofDocument;
+import com.example.employeemanagement.repository.ArchivedEmployeeRepository;
+import com.example.employeemanagement.repository.EmployeeHistoryRepository;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository;
 import com.example.employeemanagement.repository.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
+@Timed("employee.service")
 public class EmployeeService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
-    private static final String UPLOAD_DIR = "uploads/";
+    @Autowired
+    private EmployeeSearchBackend searchBackend;
+
+    @Autowired
+    private SearchCountCache searchCountCache;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @Autowired
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    @Autowired
+    private DocumentProcessor documentProcessor;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeHistoryRepository employeeHistoryRepository;
+
+    @Autowired
+    private ArchivedEmployeeRepository archivedEmployeeRepository;
+
+    @Autowired
+    private DepartmentAggregates departmentAggregates;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final int MAX_SAVE_ATTEMPTS = 5;
+    private static final int DELETE_CHUNK_SIZE = 500;
+    private static final int HISTORY_PAGE_SIZE = 20;
+    private static final Logger log = LoggerFactory.getLogger(EmployeeService.class);
+
+    private DistributionSummary uploadBytes;
+    private Timer uploadTime;
+    private Counter loginIdRetries;
+
+    @PostConstruct
+    public void initMetrics() {
+        uploadBytes = DistributionSummary.builder("employee.upload.bytes")
+                .description("Size of stored ID-proof uploads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        uploadTime = Timer.builder("employee.upload.store")
+                .description("Time to hash and store an ID-proof upload")
+                .register(meterRegistry);
+        loginIdRetries = Counter.builder("employee.id.retries")
+                .description("Login IDs claimed again after another node took the same one")
+                .tag("id", "login")
+                .register(meterRegistry);
+    }
 
     public Employee addEmployee(Employee employee, MultipartFile idProof) throws IOException {
         // Validate age
@@ -34,93 +133,288 @@ public class EmployeeService {
         }
 
         // Generate employee ID and login ID
-        employee.setEmployeeId(generateEmployeeId());
+        employee.setEmployeeId(idAllocator.nextEmployeeId(employee.getDepartment()));
         employee.setLoginId(generateLoginId(employee.getFirstName(), employee.getLastName()));
 
         // Handle file upload
+        String storedIdProof = null;
         if (idProof != null && !idProof.isEmpty()) {
             validateIdProof(idProof);
-            String fileName = UUID.randomUUID() + ".pdf";
-            Path path = Paths.get(UPLOAD_DIR + fileName);
-            Files.createDirectories(path.getParent());
-            Files.write(path, idProof.getBytes());
-            employee.setIdProofPath(fileName);
+            storedIdProof = storeIdProof(idProof);
+            employee.setIdProofPath(storedIdProof);
         }
 
-        // Save the employee first to make it a managed entity
-        Employee savedEmployee = employeeRepository.save(employee);
-
-        // Now create and associate the history
-        EmployeeHistory history = new EmployeeHistory();
-        history.setAction("CREATED");
-        history.setTimestamp(LocalDateTime.now());
-        history.setEmployee(savedEmployee);
-        savedEmployee.getHistory().add(history);
-
-        // Save again to persist the history
-        return employeeRepository.save(savedEmployee);
+        Employee savedEmployee;
+        List<String> departments = Collections.singletonList(employee.getDepartment());
+        departmentAggregates.beginWrite(departments);
+        try {
+            savedEmployee = shardRouter.on(shardRouter.shardOf(employee.getEmployeeId()),
+                    () -> saveNewEmployee(employee));
+            departmentAggregates.onEmployeeAdded(savedEmployee);
+        } finally {
+            departmentAggregates.endWrite(departments);
+            releaseIdProof(storedIdProof);
+        }
+        auditLog.publish(savedEmployee.getEmployeeId(), "CREATED", savedEmployee.getDepartment());
+        searchBackend.onEmployeeSaved(savedEmployee);
+        searchCountCache.invalidate();
+        employeeCache.invalidateSearches();
+        return savedEmployee;
     }
 
     public Employee updateEmployee(String employeeId, MultipartFile idProof) throws IOException {
-        Employee employee = employeeRepository.findById(employeeId)
+        int shard = shardRouter.shardOf(employeeId);
+        Employee employee = shardRouter.on(shard, () -> employeeRepository.findById(employeeId))
                 .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
 
+        String previousDepartment = employee.getDepartment();
+        double previousSalary = employee.getSalary();
+        LocalDate previousDateOfBirth = employee.getDateOfBirth();
+        String previousIdProof = null;
+        String storedIdProof = null;
         if (idProof != null && !idProof.isEmpty()) {
             validateIdProof(idProof);
-            if (employee.getIdProofPath() != null) {
-                Files.deleteIfExists(Paths.get(UPLOAD_DIR + employee.getIdProofPath()));
-            }
-            String fileName = UUID.randomUUID() + ".pdf";
-            Path path = Paths.get(UPLOAD_DIR + fileName);
-            Files.write(path, idProof.getBytes());
-            employee.setIdProofPath(fileName);
-
-            // Update history
-            EmployeeHistory history = new EmployeeHistory();
-            history.setAction("ID_PROOF_UPDATED");
-            history.setTimestamp(LocalDateTime.now());
-            history.setEmployee(employee);
-            employee.getHistory().add(history);
+            previousIdProof = employee.getIdProofPath();
+            storedIdProof = storeIdProof(idProof);
+            employee.setIdProofPath(storedIdProof);
         }
 
-        return employeeRepository.save(employee);
+        Employee savedEmployee;
+        try {
+            savedEmployee = shardRouter.on(shard, () -> employeeRepository.save(employee));
+        } finally {
+            releaseIdProof(storedIdProof);
+        }
+        departmentAggregates.onEmployeeUpdated(previousDepartment, previousSalary, previousDateOfBirth, savedEmployee);
+        if (idProof != null && !idProof.isEmpty()) {
+            auditLog.publish(savedEmployee.getEmployeeId(), "ID_PROOF_UPDATED", savedEmployee.getDepartment());
+        }
+        searchBackend.onEmployeeSaved(savedEmployee);
+        searchCountCache.invalidate();
+        employeeCache.evictEmployee(savedEmployee.getEmployeeId());
+        if (previousIdProof != null && !previousIdProof.equals(savedEmployee.getIdProofPath())) {
+            deleteIdProofIfUnreferenced(previousIdProof);
+        }
+        return savedEmployee;
     }
 
+    // Deletes with set-based statements: one lookup and one DELETE per chunk of IDs, in one transaction
+    // per shard. Nothing is deleted unless every ID exists. The rows are read again with a lock inside
+    // each transaction, and the DELETED audit events (published after commit) and the aggregates are
+    // driven by those rows, so two concurrent deletes of one employee cannot both report it.
+    // ID-proof files are removed asynchronously.
     public void deleteEmployees(List<String> employeeIds) {
-        for (String id : employeeIds) {
-            Employee employee = employeeRepository.findById(id)
-                    .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
-            EmployeeHistory history = new EmployeeHistory();
-            history.setAction("DELETED");
-            history.setTimestamp(LocalDateTime.now());
-            history.setEmployee(employee);
-            employee.getHistory().add(history);
+        Map<Integer, List<String>> idsByShard = shardRouter.groupByShard(
+                new LinkedHashSet<>(employeeIds), Function.identity());
+        int found = 0;
+        for (Map.Entry<Integer, List<String>> shard : idsByShard.entrySet()) {
+            found += shardRouter.on(shard.getKey(),
+                    () -> findDeletionCandidates(shard.getValue(), employeeJdbcRepository::findDeletionCandidates)).size();
+        }
+        if (found != idsByShard.values().stream().mapToInt(List::size).sum()) {
+            throw new IllegalArgumentException("Employee not found");
+        }
 
-            // Save to persist the history before deletion
-            employeeRepository.save(employee);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime deletedAt = LocalDateTime.now();
+        for (Map.Entry<Integer, List<String>> shard : idsByShard.entrySet()) {
+            List<String> ids = shard.getValue();
+            shardRouter.run(shard.getKey(), () -> transaction.executeWithoutResult(status -> {
+                List<EmployeeJdbcRepository.DeletionCandidate> candidates =
+                        findDeletionCandidates(ids, employeeJdbcRepository::lockDeletionCandidates);
+                // Deleted by another request since the check above; this shard rolls back
+                if (candidates.size() != ids.size()) {
+                    throw new IllegalArgumentException("Employee not found");
+                }
+                // Deleted employees move to the archive; their history follows later (EmployeeArchiver)
+                int deleted = 0;
+                for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+                    List<String> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()));
+                    employeeJdbcRepository.archiveEmployees(chunk, deletedAt);
+                    deleted += employeeJdbcRepository.deleteEmployees(chunk);
+                }
+                if (deleted != candidates.size()) {
+                    throw new IllegalStateException("Deleted " + deleted + " employees, expected " + candidates.size());
+                }
+                List<String> departments = candidates.stream()
+                        .map(EmployeeJdbcRepository.DeletionCandidate::department).toList();
+                departmentAggregates.beginWrite(departments);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        onEmployeesDeleted(ids, candidates);
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        departmentAggregates.endWrite(departments);
+                    }
+                });
+            }));
+        }
+    }
 
-            employeeRepository.deleteById(id);
+    private static List<EmployeeJdbcRepository.DeletionCandidate> findDeletionCandidates(List<String> ids,
+            Function<List<String>, List<EmployeeJdbcRepository.DeletionCandidate>> lookup) {
+        List<EmployeeJdbcRepository.DeletionCandidate> candidates = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            candidates.addAll(lookup.apply(ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()))));
+        }
+        return candidates;
+    }
+
+    private void onEmployeesDeleted(List<String> ids, List<EmployeeJdbcRepository.DeletionCandidate> candidates) {
+        for (EmployeeJdbcRepository.DeletionCandidate candidate : candidates) {
+            auditLog.publish(candidate.employeeId(), "DELETED", candidate.department());
+            departmentAggregates.onEmployeeDeleted(candidate);
+            searchBackend.onEmployeeDeleted(candidate.employeeId());
+            idAllocator.releaseLoginId(candidate.loginId());
+        }
+        searchCountCache.invalidate();
+        employeeCache.evictEmployees(ids);
+        employeeCache.invalidateSearches();
+        taskExecutor.execute(() -> deleteIdProofs(candidates));
+    }
+
+    private void deleteIdProofs(List<EmployeeJdbcRepository.DeletionCandidate> candidates) {
+        for (EmployeeJdbcRepository.DeletionCandidate candidate : candidates) {
+            if (candidate.idProofPath() != null) {
+                deleteIdProofIfUnreferenced(candidate.idProofPath());
+            }
+        }
+    }
+
+    // Documents are content-addressed, so identical uploads from several employees share one file. The
+    // references are checked under the store's lock on the key, so an upload cannot reuse it meanwhile.
+    private void deleteIdProofIfUnreferenced(String idProofPath) {
+        try {
+            if (documentStore.deleteIfUnreferenced(idProofPath, () -> shardRouter.fanOut(shardRouter.allShards(),
+                    shard -> employeeRepository.existsByIdProofPath(idProofPath)).contains(true))) {
+                documentProcessor.forget(idProofPath);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete ID proof {}", idProofPath, e);
         }
     }
 
     // Other methods (searchEmployees, getEmployeeById, etc.) remain unchanged
-    public Page<Employee> searchEmployees(String employeeId, String firstName, String lastName,
+    public Page<EmployeeSummary> searchEmployees(String employeeId, String firstName, String lastName,
                                           String loginId, String department, LocalDate startDate, LocalDate endDate,
                                           Pageable pageable) {
-        return employeeRepository.searchEmployees(employeeId, firstName, lastName, loginId, department, startDate, endDate, pageable);
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria(
+                employeeId, firstName, lastName, loginId, department, startDate, endDate);
+        return employeeCache.search(criteria, pageable, () -> searchBackend.search(criteria, pageable));
+    }
+
+    public Slice<EmployeeSummary> searchEmployeesAfter(EmployeeSearchCriteria criteria, String afterEmployeeId, int size) {
+        return employeeCache.searchAfter(criteria, afterEmployeeId, size,
+                () -> searchBackend.searchAfter(criteria, afterEmployeeId, size));
+    }
+
+    // With includeArchived, deleted employees are merged in by employeeId. The archive is read directly,
+    // without the search index or caches, on every shard that can hold matches.
+    public Slice<EmployeeSummary> searchEmployeesAfter(EmployeeSearchCriteria criteria, String afterEmployeeId, int size,
+                                                       boolean includeArchived) {
+        Slice<EmployeeSummary> current = searchEmployeesAfter(criteria, afterEmployeeId, size);
+        if (!includeArchived) {
+            return current;
+        }
+        List<Slice<EmployeeSummary>> slices = new ArrayList<>(List.of(current));
+        slices.addAll(shardRouter.fanOut(shardRouter.shardsFor(criteria),
+                shard -> archivedEmployeeRepository.searchEmployeesAfter(criteria.getEmployeeId(),
+                        criteria.getFirstName(), criteria.getLastName(), criteria.getLoginId(),
+                        criteria.getDepartment(), criteria.getStartDate(), criteria.getEndDate(), afterEmployeeId,
+                        PageRequest.of(0, size))));
+        List<EmployeeSummary> content = ShardedEmployeeSearchBackend.merge(
+                slices.stream().map(Slice::getContent).toList(), 0, size);
+        boolean hasNext = slices.stream().anyMatch(Slice::hasNext)
+                || slices.stream().mapToInt(Slice::getNumberOfElements).sum() > content.size();
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    // Hands every match to the consumer, in employeeId order, from one database cursor per shard (sharded
+    // storage exports one shard after the other, each in employeeId order). Only the rows of the current
+    // fetch are held, so memory does not depend on the size of the export. Bypasses the search index and
+    // caches, and keeps a pooled connection until the consumer has seen the shard's last row. With
+    // includeArchived, each shard's deleted employees follow its current ones.
+    public void exportEmployees(EmployeeSearchCriteria criteria, boolean includeArchived,
+                                Consumer<EmployeeSummary> consumer) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        for (int shard : shardRouter.shardsFor(criteria)) {
+            shardRouter.run(shard, () -> readOnly.executeWithoutResult(status -> {
+                try (Stream<EmployeeSummary> rows = employeeRepository.streamEmployees(criteria.getEmployeeId(),
+                        criteria.getFirstName(), criteria.getLastName(), criteria.getLoginId(),
+                        criteria.getDepartment(), criteria.getStartDate(), criteria.getEndDate())) {
+                    rows.forEach(consumer);
+                }
+                if (includeArchived) {
+                    try (Stream<EmployeeSummary> rows = archivedEmployeeRepository.streamEmployees(
+                            criteria.getEmployeeId(), criteria.getFirstName(), criteria.getLastName(),
+                            criteria.getLoginId(), criteria.getDepartment(), criteria.getStartDate(),
+                            criteria.getEndDate())) {
+                        rows.forEach(consumer);
+                    }
+                }
+            }));
+        }
+    }
+
+    public Long getApproximateCount(EmployeeSearchCriteria criteria) {
+        return searchCountCache.getCount(criteria);
     }
 
     public Employee getEmployeeById(String id) {
-        return employeeRepository.findById(id)
+        return shardRouter.on(shardRouter.shardOf(id), () -> employeeCache.getEmployee(id))
                 .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
     }
 
-    private String generateEmployeeId() {
-        String id;
-        do {
-            id = String.format("%05d", new Random().nextInt(100000)) + "1";
-        } while (employeeRepository.existsById(id));
-        return id;
+    // Newest first, one page at a time; read separately from the (cached) employee since history
+    // rows are written asynchronously. Months moved to the archive are older than any row left in
+    // employee_history, so they follow on the pages after it.
+    public Slice<EmployeeHistory> getEmployeeHistory(String id, int page) {
+        return shardRouter.on(shardRouter.shardOf(id), () -> {
+            Slice<EmployeeHistory> current = employeeHistoryRepository.findByEmployeeEmployeeId(id,
+                    PageRequest.of(page, HISTORY_PAGE_SIZE, Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id"))));
+            if (current.hasNext()) {
+                return current;
+            }
+            long currentCount = current.hasContent()
+                    ? current.getPageable().getOffset() + current.getNumberOfElements()
+                    : employeeHistoryRepository.countByEmployeeEmployeeId(id);
+            long archivedOffset = Math.max(0, (long) page * HISTORY_PAGE_SIZE - currentCount);
+            int wanted = HISTORY_PAGE_SIZE - current.getNumberOfElements();
+            List<EmployeeJdbcRepository.HistoryRow> archived = employeeJdbcRepository.findArchivedHistory(
+                    id, archivedOffset, wanted + 1);
+            List<EmployeeHistory> content = new ArrayList<>(current.getContent());
+            archived.stream().limit(wanted).map(EmployeeService::toHistory).forEach(content::add);
+            return new SliceImpl<>(content, current.getPageable(), archived.size() > wanted);
+        });
+    }
+
+    private static EmployeeHistory toHistory(EmployeeJdbcRepository.HistoryRow row) {
+        EmployeeHistory history = new EmployeeHistory();
+        history.setId(row.id());
+        history.setAction(row.action());
+        history.setDepartment(row.department());
+        history.setTimestamp(row.timestamp());
+        return history;
+    }
+
+    private Employee saveNewEmployee(Employee employee) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return employeeRepository.save(employee);
+            } catch (DataIntegrityViolationException e) {
+                // The login ID was claimed concurrently by another node sharing the database
+                if (attempt >= MAX_SAVE_ATTEMPTS) {
+                    throw e;
+                }
+                loginIdRetries.increment();
+                idAllocator.markLoginIdTaken(employee.getLoginId());
+                employee.setLoginId(generateLoginId(employee.getFirstName(), employee.getLastName()));
+            }
+        }
     }
 
     private String generateLoginId(String firstName, String lastName) {
@@ -131,23 +425,30 @@ public class EmployeeService {
             throw new IllegalArgumentException("Last name must not be null or empty");
         }
 
-        String baseId = (firstName.charAt(0) + "" + lastName.charAt(0)).toLowerCase();
-        String candidateLoginId = baseId;
-        Random random = new Random();
-        int maxAttempts = 1000;
-        int attempt = 0;
+        return idAllocator.claimLoginId(IdAllocator.loginIdBase(firstName, lastName));
+    }
+
+    // What the document pipeline made of an employee's ID proof, empty without one
+    public Optional<IdProofDocument> getIdProofDocument(Employee employee) {
+        return employee.getIdProofPath() == null ? Optional.empty()
+                : documentProcessor.getDocument(employee.getIdProofPath());
+    }
 
-        while (employeeRepository.existsByLoginId(candidateLoginId) && attempt < maxAttempts) {
-            candidateLoginId = baseId + String.format("%03d", random.nextInt(1000));
-            attempt++;
-        }
+    // Returns once the document is durable; checking and indexing it is left to the document pipeline
+    private String storeIdProof(MultipartFile idProof) throws IOException {
+        long start = System.nanoTime();
+        String key = documentStore.store(idProof);
+        uploadTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        uploadBytes.record(idProof.getSize());
+        documentProcessor.submit(key);
+        return key;
+    }
 
-        if (attempt >= maxAttempts) {
-            throw new IllegalStateException("Unable to generate a unique login ID after " + maxAttempts + " attempts");
+    // The employee row referring to the upload is committed (or was not saved), so it may be deleted again
+    private void releaseIdProof(String key) {
+        if (key != null) {
+            documentStore.release(key);
         }
-
-        String loginId = candidateLoginId;
-        return loginId;
     }
 
     private void validateIdProof(MultipartFile file) {
@@ -0,0 +1,218 @@
+package com.example.employeemanagement.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed document store. Uploads are moved to a temporary file without buffering them on
+ * the heap, hashed with SHA-256 and atomically renamed to {@code <root>/ab/cd/<sha256>.pdf}, so
+ * identical uploads share one file and no directory grows beyond a few hundred entries.
+ * Keys of documents stored before this layout ({@code <uuid>.pdf} in the root) are still resolved.
+ * With {@code employee.documents.fsync} the file and its directory are synced before {@link #store}
+ * returns, so a document the pipeline has still to process survives a crash. Thumbnails are stored
+ * as {@code <sha256>.png} beside their document.
+ *
+ * <p>Identical uploads share a file, so a delete has to check that no employee still refers to it.
+ * Storing and that check-then-delete take a lock per key, and a stored key stays held until its
+ * uploader has committed the reference, so an upload cannot reuse a file that is being deleted.
+ */
+@Component
+public class FileSystemDocumentStore implements DocumentStore {
+    private static final Pattern CONTENT_KEY = Pattern.compile("[0-9a-f]{64}\\.pdf");
+    private static final Pattern LEGACY_KEY = Pattern.compile("[0-9a-fA-F-]{36}\\.pdf");
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final boolean fsync;
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    // Uploads of each key whose reference is not committed yet
+    private final Map<String, Integer> holds = new ConcurrentHashMap<>();
+
+    public FileSystemDocumentStore(@Value("${employee.documents.dir:uploads/}") String root,
+                                   @Value("${employee.documents.fsync:true}") boolean fsync) {
+        this.root = Paths.get(root).toAbsolutePath();
+        this.fsync = fsync;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public String store(MultipartFile file) throws IOException {
+        Path incoming = root.resolve("tmp");
+        Files.createDirectories(incoming);
+        Path temp = incoming.resolve(UUID.randomUUID() + ".part");
+        try {
+            file.transferTo(temp);
+            String hash = sha256(temp);
+            String key = hash + ".pdf";
+            Path target = contentPath(hash);
+            Files.createDirectories(target.getParent());
+            Lock lock = lockFor(key);
+            lock.lock();
+            try {
+                // A delete that got the lock first has removed the file, and this puts it back
+                if (!Files.exists(target)) {
+                    moveDurably(temp, target);
+                }
+                holds.merge(key, 1, Integer::sum);
+            } finally {
+                lock.unlock();
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        holds.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+    }
+
+    @Override
+    public Optional<Path> resolve(String key) {
+        Path path;
+        if (key != null && CONTENT_KEY.matcher(key).matches()) {
+            path = contentPath(key.substring(0, 64));
+        } else if (key != null && LEGACY_KEY.matcher(key).matches()) {
+            path = root.resolve(key);
+        } else {
+            return Optional.empty();
+        }
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public void storeThumbnail(String key, byte[] png) throws IOException {
+        Path target = thumbnailPath(key).orElseThrow(() -> new IllegalArgumentException("Unknown document " + key));
+        Path incoming = root.resolve("tmp");
+        Files.createDirectories(incoming);
+        Path temp = incoming.resolve(UUID.randomUUID() + ".part");
+        try {
+            Files.write(temp, png);
+            moveDurably(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<Path> resolveThumbnail(String key) {
+        return thumbnailPath(key).filter(Files::isRegularFile);
+    }
+
+    @Override
+    public String etag(String key, Path path) throws IOException {
+        if (CONTENT_KEY.matcher(key).matches()) {
+            return "\"" + key.substring(0, 64) + "\"";
+        }
+        // Legacy documents are never rewritten in place, so size and mtime identify their content
+        return "\"" + Files.size(path) + "-" + Files.getLastModifiedTime(path).toMillis() + "\"";
+    }
+
+    @Override
+    public boolean deleteIfUnreferenced(String key, BooleanSupplier referenced) throws IOException {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            if (holds.containsKey(key) || referenced.getAsBoolean()) {
+                return false;
+            }
+            delete(key);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void delete(String key) throws IOException {
+        Optional<Path> path = resolve(key);
+        if (path.isPresent()) {
+            Files.deleteIfExists(path.get());
+        }
+        Optional<Path> thumbnail = resolveThumbnail(key);
+        if (thumbnail.isPresent()) {
+            Files.deleteIfExists(thumbnail.get());
+        }
+    }
+
+    private Lock lockFor(String key) {
+        return locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+    }
+
+    private Path contentPath(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash + ".pdf");
+    }
+
+    private Optional<Path> thumbnailPath(String key) {
+        if (key != null && CONTENT_KEY.matcher(key).matches()) {
+            return Optional.of(contentPath(key.substring(0, 64)).resolveSibling(key.substring(0, 64) + ".png"));
+        } else if (key != null && LEGACY_KEY.matcher(key).matches()) {
+            return Optional.of(root.resolve(key.substring(0, 36) + ".png"));
+        }
+        return Optional.empty();
+    }
+
+    private void moveDurably(Path temp, Path target) throws IOException {
+        if (fsync) {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (FileAlreadyExistsException e) {
+            // Same content stored concurrently; keep the existing copy
+        }
+        if (fsync) {
+            // Makes the rename itself durable; directories cannot be opened for syncing on every platform
+            try (FileChannel directory = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+                directory.force(true);
+            } catch (IOException e) {
+                // Best effort
+            }
+        }
+    }
+
+    private static String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
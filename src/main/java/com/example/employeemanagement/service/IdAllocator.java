@@ -0,0 +1,294 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.model.IdSequence;
+import com.example.employeemanagement.repository.ArchivedEmployeeRepository;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.repository.IdSequenceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Allocates employee and login IDs in memory so inserts never probe the database for collisions.
+ *
+ * <p>Employee IDs come from blocks reserved on the shared {@code id_sequence} row under a row lock,
+ * so nodes sharing a database always hand out disjoint numbers. IDs created before the sequence
+ * existed are loaded at startup and skipped, including those of deleted employees in
+ * {@code employee_archive}, whose key they still are. With sharded storage the sequence row lives in the
+ * catalog database and existing IDs are loaded from every shard.
+ *
+ * <p>Login IDs are claimed from per-prefix free-slot bitmaps (slot 0 is the bare initials, slots
+ * 1..1000 the three-digit suffixes). Another node may claim the same slot; the unique constraint on
+ * {@code login_id} rejects the second insert and the caller marks the slot taken and claims again.
+ */
+@Component
+public class IdAllocator {
+    private static final String EMPLOYEE_SEQUENCE = "employee_id";
+    private static final int LOGIN_SLOTS = 1001;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ArchivedEmployeeRepository archivedEmployeeRepository;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${employee.id.block-size:100}")
+    private int blockSize;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private record Block(long start, long end, AtomicLong cursor) {
+    }
+
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0, new AtomicLong()));
+    private final AtomicReference<CompletableFuture<Long>> nextBlock = new AtomicReference<>();
+    private final Map<String, BitSet> loginSlots = new ConcurrentHashMap<>();
+    private volatile BitSet legacyEmployeeIds;
+    private Counter employeeIdRetries;
+
+    @PostConstruct
+    public void initMetrics() {
+        employeeIdRetries = Counter.builder("employee.id.retries")
+                .description("Employee IDs skipped because a legacy employee already has them")
+                .tag("id", "employee")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (legacyEmployeeIds != null) {
+            return;
+        }
+        synchronized (this) {
+            if (legacyEmployeeIds != null) {
+                return;
+            }
+            BitSet employeeIds = new BitSet();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            for (int shard : shardRouter.allShards()) {
+                shardRouter.run(shard, () -> readOnly.executeWithoutResult(status -> {
+                    try (Stream<EmployeeSummary> rows = employeeRepository.streamAllSummaries()) {
+                        rows.forEach(row -> {
+                            markEmployeeIdTaken(employeeIds, row.getEmployeeId());
+                            markLoginIdTaken(row.getLoginId());
+                        });
+                    }
+                    try (Stream<String> archived = archivedEmployeeRepository.streamAllIds()) {
+                        archived.forEach(employeeId -> markEmployeeIdTaken(employeeIds, employeeId));
+                    }
+                }));
+            }
+            legacyEmployeeIds = employeeIds;
+        }
+    }
+
+    private static void markEmployeeIdTaken(BitSet employeeIds, String employeeId) {
+        long number = employeeNumber(employeeId);
+        if (number >= 0 && number <= Integer.MAX_VALUE) {
+            employeeIds.set((int) number);
+        }
+    }
+
+    public String nextEmployeeId() {
+        return nextEmployeeId(0, 1);
+    }
+
+    // When sharding by department, the ID is picked to map to the department's shard
+    public String nextEmployeeId(String department) {
+        return shardRouter.isByDepartment()
+                ? nextEmployeeId(shardRouter.shardOfDepartment(department), shardRouter.getShardCount())
+                : nextEmployeeId();
+    }
+
+    // Each sequence value v yields the ID number v * shardCount + shard, which ShardRouter maps back to shard
+    private String nextEmployeeId(int shard, int shardCount) {
+        load();
+        while (true) {
+            Block current = block.get();
+            long value = current.cursor().getAndIncrement();
+            if (value < current.end()) {
+                if (value == current.start() + blockSize / 2) {
+                    prefetchBlock();
+                }
+                long number = value * shardCount + shard;
+                if (number <= Integer.MAX_VALUE && legacyEmployeeIds.get((int) number)) {
+                    employeeIdRetries.increment();
+                    continue;
+                }
+                return String.format("%05d", number) + "1";
+            }
+            refill(current);
+        }
+    }
+
+    // Login IDs start with the lower-cased initials of the first and last name
+    public static String loginIdBase(String firstName, String lastName) {
+        return (firstName.charAt(0) + "" + lastName.charAt(0)).toLowerCase();
+    }
+
+    public String claimLoginId(String baseId) {
+        load();
+        BitSet slots = slotsFor(baseId);
+        synchronized (slots) {
+            int slot = 0;
+            if (slots.get(0)) {
+                // Start from a random suffix so nodes with the same view of the bitmap rarely collide
+                int start = 1 + ThreadLocalRandom.current().nextInt(LOGIN_SLOTS - 1);
+                slot = slots.nextClearBit(start);
+                if (slot >= LOGIN_SLOTS) {
+                    slot = slots.nextClearBit(1);
+                }
+                if (slot >= LOGIN_SLOTS) {
+                    throw new IllegalStateException("Unable to generate a unique login ID for prefix " + baseId);
+                }
+            }
+            slots.set(slot);
+            return slot == 0 ? baseId : baseId + String.format("%03d", slot - 1);
+        }
+    }
+
+    public void markLoginIdTaken(String loginId) {
+        updateLoginSlot(loginId, true);
+    }
+
+    public void releaseLoginId(String loginId) {
+        updateLoginSlot(loginId, false);
+    }
+
+    private void updateLoginSlot(String loginId, boolean taken) {
+        if (loginId == null || loginId.length() < 2) {
+            return;
+        }
+        int slot = loginSlot(loginId);
+        if (slot < 0) {
+            return;
+        }
+        BitSet slots = slotsFor(loginId.substring(0, 2));
+        synchronized (slots) {
+            slots.set(slot, taken);
+        }
+    }
+
+    private BitSet slotsFor(String baseId) {
+        return loginSlots.computeIfAbsent(baseId, b -> new BitSet(LOGIN_SLOTS));
+    }
+
+    // Reserves the following block in the background once half of the current one is used,
+    // so claims do not wait for a database connection when the block runs out
+    private void prefetchBlock() {
+        CompletableFuture<Long> reservation = new CompletableFuture<>();
+        if (nextBlock.compareAndSet(null, reservation)) {
+            taskExecutor.execute(() -> {
+                try {
+                    reservation.complete(reserveBlock());
+                } catch (RuntimeException e) {
+                    reservation.completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    private synchronized void refill(Block exhausted) {
+        if (block.get() != exhausted) {
+            return;
+        }
+        CompletableFuture<Long> reservation = nextBlock.getAndSet(null);
+        long start;
+        try {
+            start = reservation != null ? reservation.join() : reserveBlock();
+        } catch (CompletionException e) {
+            start = reserveBlock();
+        }
+        block.set(new Block(start, start + blockSize, new AtomicLong(start)));
+    }
+
+    // Reserves [start, start + blockSize) on the shared sequence row in its own transaction
+    private long reserveBlock() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return transaction.execute(status -> {
+                    IdSequence sequence = idSequenceRepository.findForUpdate(EMPLOYEE_SEQUENCE)
+                            .orElseGet(() -> idSequenceRepository.saveAndFlush(new IdSequence(EMPLOYEE_SEQUENCE, 0)));
+                    long start = sequence.getNextValue();
+                    sequence.setNextValue(start + blockSize);
+                    return start;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the sequence row first; it exists now, so read it again
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Employee IDs are the zero-padded number followed by a trailing "1"
+    static long employeeNumber(String employeeId) {
+        if (employeeId == null || employeeId.length() < 2 || !employeeId.endsWith("1")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(employeeId.substring(0, employeeId.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int loginSlot(String loginId) {
+        if (loginId.length() == 2) {
+            return 0;
+        }
+        // Exactly three ASCII digits: parseInt alone would accept "-12" or "+12"
+        if (loginId.length() != 5) {
+            return -1;
+        }
+        int slot = 0;
+        for (int i = 2; i < 5; i++) {
+            char digit = loginId.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            slot = slot * 10 + (digit - '0');
+        }
+        return slot + 1;
+    }
+}
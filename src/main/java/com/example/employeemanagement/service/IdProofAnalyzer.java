@@ -0,0 +1,183 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.IdProofDocument.Status;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * The stages the document pipeline runs on a stored ID proof, in order: checksum, structure check
+ * (magic bytes, {@code %%EOF} trailer, a parse by PDFBox and at least one page), text extraction and
+ * a first-page thumbnail. Documents failing the structure check are {@link Status#INVALID}; a
+ * content-addressed document whose bytes no longer match its key is {@link Status#FAILED}. A page that
+ * cannot be rendered leaves the document without a thumbnail rather than failing it.
+ *
+ * <p>Holds no state between documents, so one instance serves every worker.
+ */
+public class IdProofAnalyzer {
+    private static final Logger log = LoggerFactory.getLogger(IdProofAnalyzer.class);
+    private static final byte[] MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRAILER = "%%EOF".getBytes(StandardCharsets.US_ASCII);
+    // Writers may append whitespace or a few junk bytes after %%EOF; PDF readers allow 1 KB of it
+    private static final int TRAILER_WINDOW = 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern CONTENT_KEY = Pattern.compile("[0-9a-f]{64}\\.pdf");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public record Result(Status status, Integer pageCount, String text, String checksum, byte[] thumbnail,
+                         String error) {
+        static Result rejected(Status status, String checksum, String error) {
+            // Fits the error column
+            String message = error.length() > 255 ? error.substring(0, 255) : error;
+            return new Result(status, null, null, checksum, null, message);
+        }
+    }
+
+    // Receives the time each stage took, for metrics
+    public interface StageListener {
+        StageListener NONE = (stage, nanos) -> { };
+
+        void onStage(String stage, long nanos);
+    }
+
+    private final int maxTextLength;
+    private final int thumbnailWidth;
+
+    public IdProofAnalyzer(int maxTextLength, int thumbnailWidth) {
+        this.maxTextLength = maxTextLength;
+        this.thumbnailWidth = thumbnailWidth;
+    }
+
+    public Result analyze(Path path, String key, StageListener listener) throws IOException {
+        long start = System.nanoTime();
+        String checksum = checksum(path);
+        start = lap(listener, "checksum", start);
+        if (CONTENT_KEY.matcher(key).matches() && !key.startsWith(checksum)) {
+            return Result.rejected(Status.FAILED, checksum, "Stored content does not match its checksum");
+        }
+
+        String malformed = checkFraming(path);
+        if (malformed != null) {
+            lap(listener, "verify", start);
+            return Result.rejected(Status.INVALID, checksum, malformed);
+        }
+        try (PDDocument document = Loader.loadPDF(path.toFile())) {
+            int pageCount = document.getNumberOfPages();
+            start = lap(listener, "verify", start);
+            if (pageCount == 0) {
+                return Result.rejected(Status.INVALID, checksum, "The PDF has no pages");
+            }
+
+            String text = extractText(document);
+            start = lap(listener, "text", start);
+
+            byte[] thumbnail = renderThumbnail(document, key);
+            lap(listener, "thumbnail", start);
+            return new Result(Status.READY, pageCount, text, checksum, thumbnail, null);
+        } catch (InvalidPasswordException e) {
+            lap(listener, "verify", start);
+            return Result.rejected(Status.INVALID, checksum, "The PDF is password protected");
+        } catch (IOException e) {
+            // PDFBox reports damaged structure as IOException; reading the file already worked above
+            lap(listener, "verify", start);
+            return Result.rejected(Status.INVALID, checksum, "The PDF cannot be read: " + e.getMessage());
+        }
+    }
+
+    // Returns why the file is not framed like a PDF, or null if it is
+    private static String checkFraming(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer head = ByteBuffer.allocate(MAGIC.length);
+            channel.read(head, 0);
+            if (head.position() < MAGIC.length || !head.flip().equals(ByteBuffer.wrap(MAGIC))) {
+                return "The file is not a PDF";
+            }
+            ByteBuffer tail = ByteBuffer.allocate((int) Math.min(size, TRAILER_WINDOW));
+            channel.read(tail, size - tail.capacity());
+            if (indexOf(tail.array(), TRAILER) < 0) {
+                return "The PDF is truncated";
+            }
+            return null;
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        outer:
+        for (int i = bytes.length - target.length; i >= 0; i--) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    // Whitespace is collapsed, as the text is only kept for searching
+    private String extractText(PDDocument document) throws IOException {
+        String text = WHITESPACE.matcher(new PDFTextStripper().getText(document)).replaceAll(" ").strip();
+        return text.length() > maxTextLength ? text.substring(0, maxTextLength) : text;
+    }
+
+    // Rendered straight at the thumbnail's scale, which is far cheaper than rendering at screen DPI
+    private byte[] renderThumbnail(PDDocument document, String key) {
+        try {
+            PDRectangle box = document.getPage(0).getCropBox();
+            boolean rotated = document.getPage(0).getRotation() % 180 != 0;
+            float width = rotated ? box.getHeight() : box.getWidth();
+            BufferedImage image = new PDFRenderer(document).renderImage(0, thumbnailWidth / width, ImageType.RGB);
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", png);
+            return png.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not render a thumbnail of {}", key, e);
+            return null;
+        }
+    }
+
+    private static String checksum(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static long lap(StageListener listener, String stage, long start) {
+        long now = System.nanoTime();
+        listener.onStage(stage, now - start);
+        return now;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Search backend that resolves criteria against an in-process {@link EmployeeSearchIndex} and only
+ * loads the summaries on the requested page from the database. Until the index has been built at startup,
+ * searches are delegated to the JPQL backend.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "employee.search.backend", havingValue = "index")
+@Timed("employee.search.backend")
+public class IndexedEmployeeSearchBackend implements EmployeeSearchBackend {
+    private static final Logger log = LoggerFactory.getLogger(IndexedEmployeeSearchBackend.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JpqlEmployeeSearchBackend fallback;
+
+    private final EmployeeSearchIndex index = new EmployeeSearchIndex();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        long start = System.nanoTime();
+        try (Stream<EmployeeSummary> rows = employeeRepository.streamAllSummaries()) {
+            rows.forEach(row -> index.put(row.getEmployeeId(), row.getFirstName(), row.getLastName(),
+                    row.getLoginId(), row.getDepartment(), row.getDateOfBirth()));
+        }
+        ready = true;
+        log.info("Employee search index built with {} entries in {} ms",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public Page<EmployeeSummary> search(EmployeeSearchCriteria criteria, Pageable pageable) {
+        if (!ready) {
+            return fallback.search(criteria, pageable);
+        }
+        if (pageable.isUnpaged()) {
+            List<String> ids = index.search(criteria);
+            return new PageImpl<>(loadInOrder(ids), pageable, ids.size());
+        }
+        // Offset pages still walk past the skipped matches; keyset pages seek straight to the cursor
+        int from = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - pageable.getPageSize());
+        List<String> ids = index.search(criteria, null, from + pageable.getPageSize());
+        List<String> pageIds = ids.subList(Math.min(from, ids.size()), ids.size());
+        return new PageImpl<>(loadInOrder(pageIds), pageable, index.count(criteria));
+    }
+
+    @Override
+    public Slice<EmployeeSummary> searchAfter(EmployeeSearchCriteria criteria, String afterEmployeeId, int size) {
+        if (!ready) {
+            return fallback.searchAfter(criteria, afterEmployeeId, size);
+        }
+        // One extra match tells whether there is a next page
+        List<String> ids = index.search(criteria, afterEmployeeId, size + 1);
+        boolean hasNext = ids.size() > size;
+        return new SliceImpl<>(loadInOrder(hasNext ? ids.subList(0, size) : ids), PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    public long count(EmployeeSearchCriteria criteria) {
+        if (!ready) {
+            return fallback.count(criteria);
+        }
+        return index.count(criteria);
+    }
+
+    @Override
+    public void onEmployeeSaved(Employee employee) {
+        index.put(employee.getEmployeeId(), employee.getFirstName(), employee.getLastName(),
+                employee.getLoginId(), employee.getDepartment(), employee.getDateOfBirth());
+    }
+
+    @Override
+    public void onEmployeeDeleted(String employeeId) {
+        index.remove(employeeId);
+    }
+
+    private List<EmployeeSummary> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, EmployeeSummary> byId = new HashMap<>();
+        for (EmployeeSummary summary : employeeRepository.findSummariesByIds(ids)) {
+            byId.put(summary.getEmployeeId(), summary);
+        }
+        List<EmployeeSummary> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            EmployeeSummary summary = byId.get(id);
+            if (summary != null) {
+                ordered.add(summary);
+            }
+        }
+        return ordered;
+    }
+}
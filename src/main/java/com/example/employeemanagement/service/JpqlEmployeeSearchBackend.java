@@ -0,0 +1,40 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+@Component
+@Timed("employee.search.backend")
+public class JpqlEmployeeSearchBackend implements EmployeeSearchBackend {
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Override
+    public Page<EmployeeSummary> search(EmployeeSearchCriteria criteria, Pageable pageable) {
+        return employeeRepository.searchEmployees(criteria.getEmployeeId(), criteria.getFirstName(),
+                criteria.getLastName(), criteria.getLoginId(), criteria.getDepartment(),
+                criteria.getStartDate(), criteria.getEndDate(), pageable);
+    }
+
+    @Override
+    public Slice<EmployeeSummary> searchAfter(EmployeeSearchCriteria criteria, String afterEmployeeId, int size) {
+        return employeeRepository.searchEmployeesAfter(criteria.getEmployeeId(), criteria.getFirstName(),
+                criteria.getLastName(), criteria.getLoginId(), criteria.getDepartment(),
+                criteria.getStartDate(), criteria.getEndDate(), afterEmployeeId, PageRequest.of(0, size));
+    }
+
+    @Override
+    public long count(EmployeeSearchCriteria criteria) {
+        return employeeRepository.countEmployees(criteria.getEmployeeId(), criteria.getFirstName(),
+                criteria.getLastName(), criteria.getLoginId(), criteria.getDepartment(),
+                criteria.getStartDate(), criteria.getEndDate());
+    }
+}
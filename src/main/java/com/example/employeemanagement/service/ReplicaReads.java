@@ -0,0 +1,21 @@
+package com.example.employeemanagement.service;
+
+/**
+ * Counts the replica connections handed out on the current thread. The caches compare the count before
+ * and after a load to tell whether it was read from a replica, which may not have this node's latest
+ * writes yet.
+ */
+public final class ReplicaReads {
+    private static final ThreadLocal<long[]> connections = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ReplicaReads() {
+    }
+
+    public static void record() {
+        connections.get()[0]++;
+    }
+
+    public static long count() {
+        return connections.get()[0];
+    }
+}
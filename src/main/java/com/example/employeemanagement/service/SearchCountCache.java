@@ -0,0 +1,79 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Total-count cache for keyset-paged searches. Counts are computed off the request thread, so a
+ * results page never waits on a COUNT query; until the count is ready the page simply omits it.
+ * Entries are dropped on any mutation, which makes the cached totals approximate at most briefly.
+ * A total read from a replica may predate this node's last write, so it is only kept for
+ * {@code employee.datasource.read-your-writes-window} and then counted again.
+ */
+@Component
+public class SearchCountCache {
+    private static final int MAX_ENTRIES = 1000;
+
+    private record Total(long value, boolean fromReplica, long countedAt) {
+    }
+
+    @Autowired
+    private EmployeeSearchBackend searchBackend;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${employee.datasource.read-your-writes-window:5s}")
+    private Duration replicaTtl;
+
+    private final Map<EmployeeSearchCriteria, CompletableFuture<Total>> counts = new ConcurrentHashMap<>();
+
+    // Returns the cached total, or null if it is not known yet (in which case it is computed in the background)
+    public Long getCount(EmployeeSearchCriteria criteria) {
+        CompletableFuture<Total> count = counts.get(criteria);
+        if (count != null && count.isDone() && !count.isCompletedExceptionally() && isExpired(count.join())) {
+            counts.remove(criteria, count);
+            count = null;
+        }
+        if (count == null) {
+            if (counts.size() >= MAX_ENTRIES) {
+                counts.clear();
+            }
+            count = counts.computeIfAbsent(criteria,
+                    c -> CompletableFuture.supplyAsync(() -> count(c), taskExecutor));
+            count.exceptionally(e -> {
+                counts.remove(criteria);
+                return null;
+            });
+        }
+        return count.isDone() && !count.isCompletedExceptionally() ? count.join().value() : null;
+    }
+
+    private Total count(EmployeeSearchCriteria criteria) {
+        long replicaReads = ReplicaReads.count();
+        long total = searchBackend.count(criteria);
+        return new Total(total, ReplicaReads.count() != replicaReads, System.nanoTime());
+    }
+
+    private boolean isExpired(Total total) {
+        return total.fromReplica() && System.nanoTime() - total.countedAt() > replicaTtl.toNanos();
+    }
+
+    public void invalidate() {
+        counts.clear();
+    }
+
+    public int getSize() {
+        return counts.size();
+    }
+}
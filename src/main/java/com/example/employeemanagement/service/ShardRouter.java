@@ -0,0 +1,172 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Maps employees to shards and runs work against them. Sharding is enabled by listing the shard
+ * databases in {@code employee.sharding.shard-urls}; without it there is one shard, the configured
+ * datasource, and all work runs inline.
+ *
+ * <p>An employee's shard follows from the ID alone (its number modulo the shard count), so lookups
+ * by ID go straight to one database. With {@code employee.sharding.key=department} the
+ * {@link IdAllocator} picks IDs that map to the department's shard, so searches for a department
+ * only query that shard.
+ *
+ * <p>The shard is held per thread and read by the routing datasource when a connection is taken,
+ * so it has to be chosen before a transaction starts.
+ */
+@Component
+public class ShardRouter {
+    private static final ThreadLocal<Integer> currentShard = new ThreadLocal<>();
+
+    @Value("${employee.sharding.shard-urls:}")
+    private List<String> shardUrls;
+
+    @Value("${employee.sharding.key:employee-id}")
+    private String key;
+
+    @Value("${employee.sharding.fan-out-threads:16}")
+    private int fanOutThreads;
+
+    private ExecutorService fanOutExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (!"employee-id".equals(key) && !"department".equals(key)) {
+            throw new IllegalStateException("employee.sharding.key must be employee-id or department, not " + key);
+        }
+        if (isSharded()) {
+            AtomicInteger threads = new AtomicInteger();
+            fanOutExecutor = Executors.newFixedThreadPool(fanOutThreads, task -> {
+                Thread thread = new Thread(task, "shard-fan-out-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+        }
+    }
+
+    // The shard selected on this thread, or null for the catalog database
+    public static Integer currentShard() {
+        return currentShard.get();
+    }
+
+    public boolean isSharded() {
+        return !shardUrls.isEmpty();
+    }
+
+    public int getShardCount() {
+        return Math.max(1, shardUrls.size());
+    }
+
+    public boolean isByDepartment() {
+        return isSharded() && "department".equals(key);
+    }
+
+    public int shardOf(String employeeId) {
+        long number = IdAllocator.employeeNumber(employeeId);
+        return Math.floorMod(number >= 0 ? number : employeeId.hashCode(), getShardCount());
+    }
+
+    public int shardOfDepartment(String department) {
+        return Math.floorMod(department.hashCode(), getShardCount());
+    }
+
+    public List<Integer> allShards() {
+        return IntStream.range(0, getShardCount()).boxed().toList();
+    }
+
+    // The shards that can hold matches: the department's own shard when sharding by department, otherwise all
+    public List<Integer> shardsFor(EmployeeSearchCriteria criteria) {
+        if (isByDepartment() && criteria.getDepartment() != null) {
+            return List.of(shardOfDepartment(criteria.getDepartment()));
+        }
+        return allShards();
+    }
+
+    public <T> Map<Integer, List<T>> groupByShard(Collection<T> items, Function<T, String> employeeId) {
+        return items.stream().collect(Collectors.groupingBy(
+                item -> shardOf(employeeId.apply(item)), TreeMap::new, Collectors.toList()));
+    }
+
+    // Runs work with connections from the given shard
+    public <T> T on(int shard, Supplier<T> work) {
+        if (!isSharded()) {
+            return work.get();
+        }
+        Integer previous = currentShard.get();
+        if (TransactionSynchronizationManager.isActualTransactionActive() && !Objects.equals(previous, shard)) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction");
+        }
+        currentShard.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                currentShard.remove();
+            } else {
+                currentShard.set(previous);
+            }
+        }
+    }
+
+    public void run(int shard, Runnable work) {
+        on(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Runs work on each shard in parallel and returns the results in the order of the shards given.
+    // A single shard runs on the calling thread.
+    public <T> List<T> fanOut(List<Integer> shards, IntFunction<T> work) {
+        if (shards.size() == 1) {
+            int shard = shards.get(0);
+            return Collections.singletonList(on(shard, () -> work.apply(shard)));
+        }
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> on(shard, () -> work.apply(shard)), fanOutExecutor))
+                .toList();
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+}
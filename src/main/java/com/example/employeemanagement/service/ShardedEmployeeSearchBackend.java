@@ -0,0 +1,122 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Search over sharded storage. The JPQL backend runs on every shard that can hold matches, in
+ * parallel, and the per-shard results, each in employeeId order, are merged into one page; totals
+ * are the sum of the shard totals. For an offset page every shard returns all matches up to the end
+ * of the page, so deep pages cost more on each shard, while a keyset page needs one page per shard.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "employee.sharding.shard-urls")
+@Timed("employee.search.backend")
+public class ShardedEmployeeSearchBackend implements EmployeeSearchBackend {
+    private static final Sort BY_EMPLOYEE_ID = Sort.by("employeeId");
+
+    @Autowired
+    private JpqlEmployeeSearchBackend shardBackend;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private DistributionSummary shardsQueried;
+
+    @PostConstruct
+    public void initMetrics() {
+        shardsQueried = DistributionSummary.builder("employee.search.shards")
+                .description("Shards queried per search")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Page<EmployeeSummary> search(EmployeeSearchCriteria criteria, Pageable pageable) {
+        List<Integer> shards = shardsFor(criteria);
+        if (shards.size() == 1) {
+            Pageable sorted = pageable.isPaged()
+                    ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), BY_EMPLOYEE_ID)
+                    : Pageable.unpaged(BY_EMPLOYEE_ID);
+            return shardRouter.on(shards.get(0), () -> shardBackend.search(criteria, sorted));
+        }
+        Pageable perShard = pageable.isPaged()
+                ? PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), BY_EMPLOYEE_ID)
+                : Pageable.unpaged(BY_EMPLOYEE_ID);
+        List<Page<EmployeeSummary>> pages = shardRouter.fanOut(shards, shard -> shardBackend.search(criteria, perShard));
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        List<EmployeeSummary> content = pageable.isPaged()
+                ? merge(pages.stream().map(Page::getContent).toList(), pageable.getOffset(), pageable.getPageSize())
+                : merge(pages.stream().map(Page::getContent).toList(), 0, Integer.MAX_VALUE);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public Slice<EmployeeSummary> searchAfter(EmployeeSearchCriteria criteria, String afterEmployeeId, int size) {
+        List<Integer> shards = shardsFor(criteria);
+        List<Slice<EmployeeSummary>> slices = shardRouter.fanOut(shards,
+                shard -> shardBackend.searchAfter(criteria, afterEmployeeId, size));
+        List<EmployeeSummary> content = merge(slices.stream().map(Slice::getContent).toList(), 0, size);
+        boolean hasNext = slices.stream().anyMatch(Slice::hasNext)
+                || slices.stream().mapToInt(Slice::getNumberOfElements).sum() > content.size();
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    public long count(EmployeeSearchCriteria criteria) {
+        return shardRouter.fanOut(shardsFor(criteria), shard -> shardBackend.count(criteria)).stream()
+                .mapToLong(Long::longValue).sum();
+    }
+
+    private List<Integer> shardsFor(EmployeeSearchCriteria criteria) {
+        List<Integer> shards = shardRouter.shardsFor(criteria);
+        shardsQueried.record(shards.size());
+        return shards;
+    }
+
+    // K-way merge of lists that are each in employeeId order; skips the first skip rows and returns up to limit
+    static List<EmployeeSummary> merge(List<List<EmployeeSummary>> sorted, long skip, int limit) {
+        int[] positions = new int[sorted.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(
+                Comparator.comparing(list -> sorted.get(list).get(positions[list]).getEmployeeId()));
+        for (int list = 0; list < sorted.size(); list++) {
+            if (!sorted.get(list).isEmpty()) {
+                heads.add(list);
+            }
+        }
+        List<EmployeeSummary> merged = new ArrayList<>();
+        for (long seen = 0; !heads.isEmpty() && merged.size() < limit; seen++) {
+            int list = heads.poll();
+            if (seen >= skip) {
+                merged.add(sorted.get(list).get(positions[list]));
+            }
+            if (++positions[list] < sorted.get(list).size()) {
+                heads.add(list);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.UserAccount;
+import com.example.employeemanagement.repository.UserAccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The user store: logins in the {@code user_account} table, with hashed passwords. Hashes made with
+ * a lower BCrypt cost than {@code employee.security.bcrypt-strength} are replaced on the user's next
+ * successful login. When the table is empty at startup an {@code admin} user is created with the
+ * password in {@code employee.security.admin-password}.
+ *
+ * <p>Deliberately not a {@code UserDetailsService} bean: the authentication provider in
+ * {@code SecurityConfig} is the only way logins reach it.
+ */
+@Service
+public class UserAccountService implements UserDetailsPasswordService {
+    private static final Logger log = LoggerFactory.getLogger(UserAccountService.class);
+    private static final String ADMIN = "admin";
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Value("${employee.security.admin-password}")
+    private String adminPassword;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createAdminIfEmpty() {
+        if (userAccountRepository.count() > 0) {
+            return;
+        }
+        try {
+            createUser(ADMIN, adminPassword, "USER");
+            log.info("Created the {} user in an empty user store", ADMIN);
+        } catch (DataIntegrityViolationException e) {
+            // Another node starting at the same time created it first
+        }
+    }
+
+    public UserDetails loadUserByUsername(String username) {
+        UserAccount account = userAccountRepository.findById(username)
+                .orElseThrow(() -> new UsernameNotFoundException(username));
+        return User.withUsername(account.getUsername())
+                .password(account.getPasswordHash())
+                .roles(account.getRoles().split(","))
+                .disabled(!account.isEnabled())
+                .build();
+    }
+
+    @Transactional
+    public void createUser(String username, String rawPassword, String roles) {
+        userAccountRepository.saveAndFlush(new UserAccount(username, passwordEncoder.encode(rawPassword), roles));
+    }
+
+    @Transactional
+    public void changePassword(String username, String rawPassword) {
+        UserAccount account = userAccountRepository.findById(username)
+                .orElseThrow(() -> new UsernameNotFoundException(username));
+        account.setPasswordHash(passwordEncoder.encode(rawPassword));
+        authenticationCache.removeUserFromCache(username);
+    }
+
+    // Called by the authentication provider with a rehash of a just-verified password
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPasswordHash) {
+        userAccountRepository.findById(user.getUsername())
+                .ifPresent(account -> account.setPasswordHash(newPasswordHash));
+        authenticationCache.removeUserFromCache(user.getUsername());
+        return User.withUserDetails(user).password(newPasswordHash).build();
+    }
+}
@@ -0,0 +1,2 @@
+-- Deleting or replacing an ID proof checks whether another employee still shares the file
+create index idx_employee_id_proof_path on employee (id_proof_path);
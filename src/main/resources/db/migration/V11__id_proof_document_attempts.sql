@@ -0,0 +1,2 @@
+-- How many times the document pipeline has started on a document, so one that keeps failing is marked FAILED
+alter table id_proof_document add column attempts integer default 0 not null;
@@ -0,0 +1,28 @@
+-- Tables as spring.jpa.hibernate.ddl-auto=update created them before migrations were introduced;
+-- such databases are baselined at this version (employee.schema.baseline-version) instead of running it,
+-- so this script must not create anything they lack. Later objects go in later versions.
+create table employee (
+    employee_id varchar(255) not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    middle_name varchar(255),
+    login_id varchar(255),
+    date_of_birth date,
+    department varchar(255),
+    salary float(53) not null,
+    permanent_address varchar(255),
+    current_address varchar(255),
+    id_proof_path varchar(255),
+    primary key (employee_id)
+);
+
+create table employee_history (
+    id bigint not null auto_increment,
+    action varchar(255),
+    timestamp datetime(6),
+    employee_id varchar(255),
+    primary key (id)
+);
+
+-- Named as Hibernate named it, so later versions can refer to it on baselined databases too
+alter table employee_history add constraint FK8rv9s5a7ts4dwrmv59p8c8xlw foreign key (employee_id) references employee (employee_id);
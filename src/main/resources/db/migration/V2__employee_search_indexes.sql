@@ -0,0 +1,5 @@
+-- Department searches, department aggregates and the sharded department filter
+create index idx_employee_department on employee (department);
+
+-- Date-of-birth range searches
+create index idx_employee_date_of_birth on employee (date_of_birth);
@@ -0,0 +1,8 @@
+-- Logins, replacing the single in-memory user; password hashes carry their encoder id ({bcrypt}$2a$10$...)
+create table user_account (
+    username varchar(255) not null,
+    password_hash varchar(255),
+    roles varchar(255),
+    enabled bit not null,
+    primary key (username)
+);
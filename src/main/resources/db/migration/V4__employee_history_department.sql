@@ -0,0 +1,2 @@
+-- The department at the time of the change, so the change feed can filter deletions too
+alter table employee_history add column department varchar(255);
@@ -0,0 +1,35 @@
+-- Deleted employees, moved here from employee by the delete; searches read it only when asked to
+create table employee_archive (
+    employee_id varchar(255) not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    middle_name varchar(255),
+    login_id varchar(255),
+    date_of_birth date,
+    department varchar(255),
+    salary float(53) not null,
+    permanent_address varchar(255),
+    current_address varchar(255),
+    id_proof_path varchar(255),
+    deleted_at datetime(6),
+    history_archived bit not null,
+    primary key (employee_id)
+);
+
+-- Deleted employees whose history the archiver has still to move, and those past retention
+create index idx_employee_archive_history_deleted on employee_archive (history_archived, deleted_at);
+
+-- History moved out of employee_history by the archiver, keyed by month (yyyymm) first so each month
+-- is stored together and expires as one range. The key already includes the month, so on MySQL the
+-- table can be partitioned with PARTITION BY RANGE (archive_month) without other changes.
+create table employee_history_archive (
+    archive_month integer not null,
+    id bigint not null,
+    action varchar(255),
+    timestamp datetime(6),
+    employee_id varchar(255),
+    department varchar(255),
+    primary key (archive_month, id)
+);
+
+create index idx_employee_history_archive_employee_timestamp on employee_history_archive (employee_id, timestamp);
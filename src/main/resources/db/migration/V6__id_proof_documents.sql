@@ -0,0 +1,15 @@
+-- Results of the document pipeline for each stored ID proof; rows left PENDING are queued again by its sweep
+create table id_proof_document (
+    document_key varchar(255) not null,
+    status varchar(255),
+    page_count integer,
+    extracted_text mediumtext,
+    checksum varchar(255),
+    thumbnail bit not null,
+    error varchar(255),
+    created_at datetime(6),
+    processed_at datetime(6),
+    primary key (document_key)
+);
+
+create index idx_id_proof_document_status on id_proof_document (status);
@@ -0,0 +1,15 @@
+-- Objects added after the tables of V1, which databases baselined at V1 do not have
+
+-- Blocks of employee IDs reserved by each node
+create table id_sequence (
+    name varchar(255) not null,
+    next_value bigint not null,
+    primary key (name)
+);
+
+-- Login IDs are claimed optimistically by each node; this rejects the second claim. On a database
+-- with duplicate login IDs from before, this fails until the duplicates are renamed.
+alter table employee add constraint uk_employee_login_id unique (login_id);
+
+-- History page of one employee, newest first
+create index idx_employee_history_employee_timestamp on employee_history (employee_id, timestamp);
@@ -0,0 +1,4 @@
+-- History rows, DELETED included, outlive the employee they describe, so the foreign key Hibernate
+-- created from employee_history to employee (and V1 recreates) would reject the delete.
+-- DROP CONSTRAINT needs MySQL 8.0.19 or later.
+alter table employee_history drop constraint FK8rv9s5a7ts4dwrmv59p8c8xlw;
@@ -0,0 +1,2 @@
+-- The change feed reads history by ID range, from the archive as well once rows have moved there
+create index idx_employee_history_archive_id on employee_history_archive (id);
@@ -0,0 +1,126 @@
+package com.example.employeemanagement.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A single upload slot, so holding it makes the next upload over the limit
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission_control;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/admission-control/audit-wal",
+        "employee.admission.upload.initial-limit=1",
+        "employee.admission.upload.max-limit=1"})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class AdmissionControlTest {
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+    private static final String WRONG_PASSWORD = "Basic "
+            + Base64.getEncoder().encodeToString("admin:wrong".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AdaptiveConcurrencyLimit limit(String name) {
+        return admissionControlFilter.getLimits().stream()
+                .filter(limit -> limit.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    public void uploadsOverTheirLimitAreShedWhileSearchesRun() throws Exception {
+        AdaptiveConcurrencyLimit uploads = limit("upload");
+        assertTrue(uploads.tryAcquire());
+        try {
+            // Rejected before the body is read
+            mockMvc.perform(post("/employee/import").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+            mockMvc.perform(get("/employee/results?department=Finance").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                    .andExpect(status().isOk());
+        } finally {
+            uploads.release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        FunctionCounter rejected = meterRegistry.find("employee.admission.rejected").tag("group", "upload")
+                .functionCounter();
+        assertNotNull(rejected);
+        assertEquals(1, rejected.count());
+        assertEquals(1, meterRegistry.get("employee.admission.limit").tag("group", "upload").gauge().value());
+        assertEquals(0, meterRegistry.get("employee.admission.in.flight").tag("group", "search").gauge().value());
+        // The slot is free again: the import now reaches the controller, which rejects the missing body
+        mockMvc.perform(post("/employee/import").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    public void unauthenticatedRequestsAreTurnedAwayWithoutTakingASlot() throws Exception {
+        AdaptiveConcurrencyLimit uploads = limit("upload");
+        long rejected = uploads.getRejectedCount();
+        assertTrue(uploads.tryAcquire());
+        try {
+            mockMvc.perform(post("/employee/import").header(HttpHeaders.AUTHORIZATION, WRONG_PASSWORD))
+                    .andExpect(status().isUnauthorized());
+            mockMvc.perform(get("/api/employees").header(HttpHeaders.AUTHORIZATION, WRONG_PASSWORD))
+                    .andExpect(status().isUnauthorized());
+        } finally {
+            uploads.release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(rejected, uploads.getRejectedCount());
+        assertEquals(0, limit("search").getInFlight());
+    }
+
+    @Test
+    public void limitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 10, 2, 50, Duration.ofSeconds(1));
+        saturate(limit, 50, 1);
+        int grown = limit.getLimit();
+        assertTrue(grown > 10, "limit " + grown);
+
+        // Requests queueing: ten times slower than usual
+        saturate(limit, 20, 10);
+        int shrunk = limit.getLimit();
+        assertTrue(shrunk < grown / 2, grown + " -> " + shrunk);
+        assertTrue(shrunk >= 2);
+        assertTrue(limit.getRejectedCount() > 0);
+    }
+
+    // Fills the limit, then finishes every request after the given latency
+    private static void saturate(AdaptiveConcurrencyLimit limit, int rounds, long latencyMillis) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.model.UserAccount;
+import com.example.employeemanagement.repository.UserAccountRepository;
+import com.example.employeemanagement.service.AuthenticationCache;
+import com.example.employeemanagement.service.UserAccountService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// One BCrypt step above the test profile's, so hashes made at the test strength are upgraded on login
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:authentication;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/authentication/audit-wal",
+        "employee.security.bcrypt-strength=5"})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class AuthenticationTest {
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DaoAuthenticationProvider authenticationProvider;
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Autowired
+    private UserAccountService userAccountService;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    private MockHttpServletResponse logIn(String username, String password) throws Exception {
+        MvcResult page = mockMvc.perform(get("/login")).andReturn();
+        Matcher csrf = CSRF.matcher(page.getResponse().getContentAsString());
+        assertTrue(csrf.find());
+        return mockMvc.perform(post("/login")
+                        .cookie(page.getResponse().getCookies())
+                        .param("username", username)
+                        .param("password", password)
+                        .param("_csrf", csrf.group(1)))
+                .andReturn().getResponse();
+    }
+
+    private void authenticate(String username, String password) {
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(username, password));
+    }
+
+    @Test
+    public void formLoginIssuesASignedCookieInsteadOfASession() throws Exception {
+        MockHttpServletResponse login = logIn("admin", "password");
+        assertEquals("/employee/search", login.getRedirectedUrl());
+        Cookie token = login.getCookie(SignedTokenSecurityContextRepository.COOKIE);
+        assertNotNull(token);
+        assertTrue(token.isHttpOnly());
+        assertNull(login.getCookie("JSESSIONID"));
+
+        MvcResult search = mockMvc.perform(get("/employee/search").cookie(token)).andExpect(status().isOk()).andReturn();
+        assertNull(search.getRequest().getSession(false));
+
+        mockMvc.perform(get("/employee/search").accept(MediaType.TEXT_HTML)).andExpect(redirectedUrl("http://localhost/login"));
+        String value = token.getValue();
+        Cookie tampered = new Cookie(token.getName(), value.substring(0, value.length() - 2)
+                + (value.endsWith("AA") ? "AB" : "AA"));
+        mockMvc.perform(get("/employee/search").accept(MediaType.TEXT_HTML).cookie(tampered))
+                .andExpect(redirectedUrl("http://localhost/login"));
+
+        assertEquals("/login?error", logIn("admin", "wrong").getRedirectedUrl());
+    }
+
+    @Test
+    public void repeatedLoginsSkipTheHashAndTheUserStore() throws Exception {
+        userAccountService.createUser("repeat", "secret", "USER");
+        authenticate("repeat", "secret");
+        long credentialHits = authenticationCache.getCredentialStats().hitCount();
+        long userHits = authenticationCache.getUserStats().hitCount();
+
+        authenticate("repeat", "secret");
+        assertEquals(credentialHits + 1, authenticationCache.getCredentialStats().hitCount());
+        assertEquals(userHits + 1, authenticationCache.getUserStats().hitCount());
+        // Only verified credentials are cached
+        assertThrows(BadCredentialsException.class, () -> authenticate("repeat", "guess"));
+
+        // A changed password replaces the cached one
+        userAccountService.changePassword("repeat", "changed");
+        assertThrows(BadCredentialsException.class, () -> authenticate("repeat", "secret"));
+        authenticate("repeat", "changed");
+    }
+
+    @Test
+    public void weakerHashesAreUpgradedAtLogin() throws Exception {
+        userAccountRepository.saveAndFlush(new UserAccount("legacy", "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret"), "USER"));
+        authenticate("legacy", "secret");
+        String upgraded = userAccountRepository.findById("legacy").orElseThrow().getPasswordHash();
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$05$"), upgraded);
+        authenticate("legacy", "secret");
+    }
+
+    @Test
+    public void idleTokensExpireAndActiveOnesAreReissued() {
+        SignedTokenSecurityContextRepository tokens = new SignedTokenSecurityContextRepository(
+                "test-only-login-token-key-0123456789abcdef", Duration.ofMinutes(30), Duration.ofHours(8));
+        long now = System.currentTimeMillis() / 1000;
+        var roles = AuthorityUtils.createAuthorityList("ROLE_ADMIN");
+        assertNull(tokens.decode(tokens.encode("admin", roles, now - 1, now + 3600)));
+        assertNull(tokens.decode(tokens.encode("admin", roles, now + 60, now - 1)));
+
+        // A token used 10 minutes after it was issued gets a new idle expiry
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(SignedTokenSecurityContextRepository.COOKIE,
+                tokens.encode("admin", roles, now + 20 * 60, now + 3600)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        tokens.refresh(request, response);
+        Cookie reissued = response.getCookie(SignedTokenSecurityContextRepository.COOKIE);
+        assertNotNull(reissued);
+        assertTrue(reissued.getMaxAge() > 29 * 60, String.valueOf(reissued.getMaxAge()));
+        assertEquals("admin", tokens.decode(reissued.getValue()).getName());
+
+        // ...but never past the absolute expiry
+        request.setCookies(new Cookie(SignedTokenSecurityContextRepository.COOKIE,
+                tokens.encode("admin", roles, now + 5 * 60, now + 10 * 60)));
+        response = new MockHttpServletResponse();
+        tokens.refresh(request, response);
+        assertTrue(response.getCookie(SignedTokenSecurityContextRepository.COOKIE).getMaxAge() <= 10 * 60);
+    }
+
+    @Test
+    public void missingShortOrSampleSigningKeysAreRejected() {
+        assertThrows(IllegalStateException.class, () -> SigningSecrets.require("key", ""));
+        assertThrows(IllegalStateException.class, () -> SigningSecrets.require("key", null));
+        assertThrows(IllegalStateException.class, () -> SigningSecrets.require("key", "too-short"));
+        assertThrows(IllegalStateException.class,
+                () -> SigningSecrets.require("key", "change-me-security-token-secret-but-longer"));
+        SigningSecrets.require("key", "a-random-key-that-is-long-enough-0123456789");
+    }
+}
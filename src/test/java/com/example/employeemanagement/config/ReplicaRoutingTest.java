@@ -0,0 +1,195 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.service.EmployeeCache;
+import com.example.employeemanagement.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two embedded databases stand in for the primary and a replica; "replication" is a copy of the
+ * primary into the replica, made only when a test asks for it, so the replica can be shown to lag.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "employee.datasource.replica-urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "employee.datasource.replica-health-interval-ms=3600000",
+        "employee.audit.wal-dir=target/replica-routing/audit-wal",
+        "employee.search.backend=jpql",
+        "employee.cache.enabled=false",
+        "employee.datasource.read-your-writes-window=2s"})
+@ActiveProfiles("test")
+public class ReplicaRoutingTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private DataSourceConfig dataSourceConfig;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @BeforeEach
+    public void replicate() throws Exception {
+        try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement fromPrimary = primary.createStatement();
+             Statement toReplica = replica.createStatement()) {
+            fromPrimary.execute("SCRIPT TO 'target/replica-routing/primary.sql'");
+            toReplica.execute("DROP ALL OBJECTS");
+            toReplica.execute("RUNSCRIPT FROM 'target/replica-routing/primary.sql'");
+        }
+        dataSourceConfig.checkReplicas();
+    }
+
+    private void onReplica(String sql) throws Exception {
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private Employee addEmployee(String firstName, String lastName) throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        employee.setDepartment("Replica");
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        return employeeService.addEmployee(employee, null);
+    }
+
+    @Test
+    public void readOnlyTransactionsUseTheReplica() throws Exception {
+        Employee employee = addEmployee("Lagging", "Reader");
+        // Written to the primary, not yet copied
+        assertThrows(IllegalArgumentException.class, () -> employeeService.getEmployeeById(employee.getEmployeeId()));
+
+        replicate();
+        assertEquals("Lagging", employeeService.getEmployeeById(employee.getEmployeeId()).getFirstName());
+        onReplica("UPDATE employee SET first_name = 'FromReplica' WHERE employee_id = '" + employee.getEmployeeId() + "'");
+        assertEquals("FromReplica", employeeService.getEmployeeById(employee.getEmployeeId()).getFirstName());
+    }
+
+    @Test
+    public void redirectAfterDeleteReadsItsOwnWrite() throws Exception {
+        String deleted = addEmployee("Gone", "Soon").getEmployeeId();
+        String kept = addEmployee("Stays", "Here").getEmployeeId();
+        replicate();
+        List<String> cookies = new ArrayList<>();
+
+        HttpResponse<String> results = send(HttpRequest.newBuilder(url("/employee/results?department=Replica")), cookies);
+        assertTrue(results.body().contains(deleted));
+        String form = "employeeIds=" + deleted
+                + "&search=" + URLEncoder.encode(hiddenField(results.body(), "search"), StandardCharsets.UTF_8)
+                + "&_csrf=" + URLEncoder.encode(hiddenField(results.body(), "_csrf"), StandardCharsets.UTF_8);
+        HttpResponse<String> delete = send(HttpRequest.newBuilder(url("/employee/delete"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)), cookies);
+        assertEquals(302, delete.statusCode());
+        assertTrue(cookies.stream().anyMatch(cookie -> cookie.startsWith(ReadYourWritesFilter.COOKIE + "=")));
+
+        URI redirect = url("").resolve(delete.headers().firstValue("Location").orElseThrow());
+        HttpResponse<String> afterDelete = send(HttpRequest.newBuilder(redirect), cookies);
+        assertFalse(afterDelete.body().contains(deleted));
+        assertTrue(afterDelete.body().contains(kept));
+
+        // Without the cookie the same page comes from the replica, which has not seen the delete
+        HttpResponse<String> stale = send(HttpRequest.newBuilder(redirect), new ArrayList<>());
+        assertTrue(stale.body().contains(deleted));
+    }
+
+    @Test
+    public void readsFallBackToThePrimaryWhileTheReplicaIsDown() throws Exception {
+        Employee employee = addEmployee("Primary", "Only");
+        onReplica("DROP ALL OBJECTS");
+        dataSourceConfig.checkReplicas();
+
+        assertEquals("Primary", employeeService.getEmployeeById(employee.getEmployeeId()).getFirstName());
+
+        replicate();
+        onReplica("UPDATE employee SET first_name = 'FromReplica' WHERE employee_id = '" + employee.getEmployeeId() + "'");
+        assertEquals("FromReplica", employeeService.getEmployeeById(employee.getEmployeeId()).getFirstName());
+    }
+
+    @Test
+    public void cachedReplicaReadsExpireAfterTheReadYourWritesWindow() throws Exception {
+        Employee employee = addEmployee("Cached", "Replica");
+        replicate();
+        ReflectionTestUtils.setField(employeeCache, "enabled", true);
+        try {
+            assertEquals("Cached", employeeService.getEmployeeById(employee.getEmployeeId()).getFirstName());
+            onReplica("UPDATE employee SET first_name = 'Replicated' WHERE employee_id = '" + employee.getEmployeeId() + "'");
+            assertEquals("Cached", employeeService.getEmployeeById(employee.getEmployeeId()).getFirstName());
+
+            // Well short of the cache's own 10 minute TTL
+            Thread.sleep(2500);
+            assertEquals("Replicated", employeeService.getEmployeeById(employee.getEmployeeId()).getFirstName());
+        } finally {
+            ReflectionTestUtils.setField(employeeCache, "enabled", false);
+        }
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    // Sends with HTTP Basic and the cookies received so far
+    private HttpResponse<String> send(HttpRequest.Builder request, List<String> cookies) throws Exception {
+        request.header("Authorization", AUTHORIZATION);
+        if (!cookies.isEmpty()) {
+            request.header("Cookie", String.join("; ", cookies));
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        for (String header : response.headers().allValues("Set-Cookie")) {
+            String cookie = header.split(";", 2)[0];
+            cookies.removeIf(existing -> existing.startsWith(cookie.substring(0, cookie.indexOf('=') + 1)));
+            cookies.add(cookie);
+        }
+        return response;
+    }
+
+    private static String hiddenField(String html, String name) {
+        Matcher field = Pattern.compile("name=\"" + name + "\"\\s+value=\"([^\"]+)\"").matcher(html);
+        assertTrue(field.find(), "No " + name + " field");
+        return field.group(1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.service.EmployeeService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every request is "slow" here so the slow-request log can be asserted
+@SpringBootTest(properties = "employee.metrics.slow-request-threshold=0ms")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ExtendWith(OutputCaptureExtension.class)
+public class RequestMetricsTest {
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    public void viewPageRecordsSqlRenderTimeAndSlowRequestLog(CapturedOutput output) throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName("Metric");
+        employee.setLastName("View");
+        employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        employee.setDepartment("Engineering");
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        String id = employeeService.addEmployee(employee, null).getEmployeeId();
+
+        mockMvc.perform(get("/employee/view/" + id + "?historyPage=0")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find("employee.request.sql.statements")
+                .tag("uri", "/employee/view/{id}").summary();
+        assertNotNull(statements);
+        assertEquals(1, statements.count());
+        assertTrue(statements.totalAmount() >= 1);
+        Timer render = meterRegistry.find("employee.view.render").tag("view", "view-employee").timer();
+        assertNotNull(render);
+        assertEquals(1, render.count());
+        assertNotNull(meterRegistry.find("employee.service").tag("method", "getEmployeeHistory").timer());
+
+        assertTrue(output.getOut().contains("Slow request GET /employee/view/" + id + "?historyPage=0 (status 200)"));
+        assertTrue(output.getOut().contains("select"));
+    }
+
+    @Test
+    public void prometheusEndpointExposesApplicationAndPoolMetrics() throws Exception {
+        String scrape = mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds"));
+        assertTrue(scrape.contains("employee_sql_seconds_count"));
+        assertTrue(scrape.contains("employee_audit_queue_depth"));
+        assertTrue(scrape.contains("employee_cache_gets_total{cache=\"employees\",result=\"hit\"}"));
+        assertTrue(scrape.contains("employee_upload_bytes"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.service.EmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The schema is created by the migrations and only validated by Hibernate, as in the prod profile
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schema_migrations;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "employee.schema.migrations.enabled=true",
+        "employee.audit.wal-dir=target/schema-migrations/audit-wal"})
+@ActiveProfiles("test")
+public class SchemaMigrationsTest {
+    @Autowired
+    private SchemaMigrations schemaMigrations;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    private static long indexCount(JdbcTemplate jdbc, String name) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = ?",
+                Long.class, name.toUpperCase());
+    }
+
+    private List<Integer> versions() throws Exception {
+        return schemaMigrations.load().stream().map(SchemaMigrations.Migration::version).toList();
+    }
+
+    @Test
+    public void migratesAnEmptyDatabaseToTheEntitySchema() throws Exception {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        assertEquals(versions(), jdbc.queryForList("SELECT version FROM schema_version ORDER BY version", Integer.class));
+        assertEquals(1, indexCount(jdbc, "idx_employee_department"));
+        assertEquals(1, indexCount(jdbc, "idx_employee_date_of_birth"));
+        assertEquals(1, indexCount(jdbc, "idx_employee_history_employee_timestamp"));
+        assertEquals(1, indexCount(jdbc, "idx_employee_id_proof_path"));
+
+        Employee employee = new Employee();
+        employee.setFirstName("Schema");
+        employee.setLastName("Migrated");
+        employee.setDateOfBirth(LocalDate.of(1980, 5, 1));
+        employee.setDepartment("Finance");
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        String id = employeeService.addEmployee(employee, null).getEmployeeId();
+        assertEquals("Migrated", employeeService.getEmployeeById(id).getLastName());
+    }
+
+    @Test
+    public void baselinesASchemaCreatedByHibernate() throws Exception {
+        DataSource legacy = new DriverManagerDataSource("jdbc:h2:mem:schema_baseline;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(legacy);
+        jdbc.execute("CREATE TABLE employee (employee_id VARCHAR(255) NOT NULL PRIMARY KEY, "
+                + "login_id VARCHAR(255), department VARCHAR(255), date_of_birth DATE, id_proof_path VARCHAR(255))");
+        jdbc.execute("CREATE TABLE employee_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, action VARCHAR(255), "
+                + "timestamp TIMESTAMP, employee_id VARCHAR(255))");
+        jdbc.execute("ALTER TABLE employee_history ADD CONSTRAINT FK8rv9s5a7ts4dwrmv59p8c8xlw "
+                + "FOREIGN KEY (employee_id) REFERENCES employee (employee_id)");
+
+        List<SchemaMigrations.Migration> migrations = schemaMigrations.load();
+        schemaMigrations.migrate(legacy, migrations, "database");
+        assertEquals(versions(), jdbc.queryForList("SELECT version FROM schema_version ORDER BY version", Integer.class));
+        // V1 was recorded, not run, and what was added to the schema since is created by later versions
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'ID_SEQUENCE'", Long.class));
+        assertEquals(1, indexCount(jdbc, "idx_employee_department"));
+        assertEquals(1, indexCount(jdbc, "idx_employee_history_employee_timestamp"));
+        jdbc.update("INSERT INTO employee (employee_id, login_id) VALUES ('1', 'dup')");
+        assertThrows(DuplicateKeyException.class,
+                () -> jdbc.update("INSERT INTO employee (employee_id, login_id) VALUES ('2', 'dup')"));
+        // Hibernate's foreign key is gone, so history can outlive its employee
+        jdbc.update("INSERT INTO employee_history (action, employee_id) VALUES ('DELETED', 'gone')");
+
+        // Applied versions are skipped on the next start, unless their script has changed since
+        schemaMigrations.migrate(legacy, migrations, "database");
+        jdbc.update("UPDATE schema_version SET checksum = checksum + 1 WHERE version = 2");
+        assertThrows(IllegalStateException.class, () -> schemaMigrations.migrate(legacy, migrations, "database"));
+    }
+
+    @Test
+    public void waitsForTheInstanceHoldingTheMigrationLock() throws Exception {
+        DataSource database = new DriverManagerDataSource("jdbc:h2:mem:schema_lock;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        List<SchemaMigrations.Migration> migrations = schemaMigrations.load();
+        schemaMigrations.migrate(database, migrations, "database");
+        jdbc.update("INSERT INTO schema_lock (id, locked_by, locked_at) VALUES (1, 'other', CURRENT_TIMESTAMP)");
+
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(
+                () -> schemaMigrations.migrate(database, migrations, "database"));
+        Thread.sleep(1000);
+        assertFalse(waiting.isDone());
+        jdbc.update("DELETE FROM schema_lock");
+        waiting.get(10, TimeUnit.SECONDS);
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM schema_lock", Long.class));
+
+        // A lock that outlives the wait stops the startup instead of migrating alongside its holder
+        jdbc.update("INSERT INTO schema_lock (id, locked_by, locked_at) VALUES (1, 'other', CURRENT_TIMESTAMP)");
+        Duration lockWait = schemaMigrations.lockWait;
+        schemaMigrations.lockWait = Duration.ofMillis(100);
+        try {
+            assertThrows(IllegalStateException.class, () -> schemaMigrations.migrate(database, migrations, "database"));
+        } finally {
+            schemaMigrations.lockWait = lockWait;
+        }
+    }
+}
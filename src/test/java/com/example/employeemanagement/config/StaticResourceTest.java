@@ -0,0 +1,56 @@
+package com.example.employeemanagement.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Its own database and audit log, so closing this context does not drop tables another context is using
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:static_resources;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/static-resources/audit-wal"})
+@ActiveProfiles({"test", "prod"})
+@AutoConfigureMockMvc
+public class StaticResourceTest {
+    private static final Pattern STYLESHEET = Pattern.compile("href=\"(/webjars/bootstrap/[^\"]+\\.css)\"");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void pagesLinkFingerprintedAssetsServedGzippedWithLongCacheLifetime() throws Exception {
+        String page = mockMvc.perform(get("/login")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Matcher stylesheet = STYLESHEET.matcher(page);
+        assertTrue(stylesheet.find(), page);
+        String path = stylesheet.group(1);
+        assertTrue(path.matches(".*/bootstrap\\.min-[0-9a-f]{32}\\.css"), path);
+
+        MockHttpServletResponse gzipped = mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk()).andReturn().getResponse();
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(gzipped.getHeader(HttpHeaders.CACHE_CONTROL).contains("max-age=31536000"),
+                gzipped.getHeader(HttpHeaders.CACHE_CONTROL));
+        byte[] css = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray())).readAllBytes();
+
+        MockHttpServletResponse plain = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse();
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(gzipped.getContentAsByteArray().length < plain.getContentAsByteArray().length / 4);
+        assertEquals(plain.getContentAsByteArray().length, css.length);
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.service.ChangeFeed;
+import com.example.employeemanagement.service.EmployeeService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// History is written as soon as it is published, and a four-event buffer means resuming from an early
+// offset has to read the database
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:change_feed;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/change-feed/audit-wal",
+        "employee.audit.flush-interval-ms=10",
+        "employee.changes.buffer-size=4",
+        "employee.changes.heartbeat-interval=1h"})
+@ActiveProfiles("test")
+public class ChangeFeedTest {
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+    private static final int SUBSCRIBERS = 5000;
+    // Client and server in one heap: nearly all of it is Tomcat's and the HTTP client's connection buffers
+    private static final long MAX_BYTES_PER_SUBSCRIBER = 256 * 1024;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    // Reads the stream line by line without a thread per connection
+    private static final class LineSubscriber implements Flow.Subscriber<String> {
+        private final Consumer<String> lines;
+        private Flow.Subscription subscription;
+
+        LineSubscriber(Consumer<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            lines.accept(line);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            subscription.cancel();
+        }
+    }
+
+    private LineSubscriber open(String query, String lastEventId, Consumer<String> lines) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/changes" + query))
+                .header("Authorization", AUTHORIZATION);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        LineSubscriber subscriber = new LineSubscriber(lines);
+        http.sendAsync(request.build(), HttpResponse.BodyHandlers.fromLineSubscriber(subscriber));
+        return subscriber;
+    }
+
+    private JsonNode nextChange(BlockingQueue<String> lines) throws Exception {
+        while (true) {
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            assertNotNull(line, "No change within 10 seconds");
+            if (line.startsWith("data: ")) {
+                return objectMapper.readTree(line.substring("data: ".length()));
+            }
+        }
+    }
+
+    private Employee addEmployee(String lastName, String department) throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName("Change");
+        employee.setLastName(lastName);
+        employee.setDateOfBirth(LocalDate.of(1985, 3, 1));
+        employee.setDepartment(department);
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        return employeeService.addEmployee(employee, null);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void streamsADepartmentsChangesAndResumesFromAnOffset() throws Exception {
+        int subscribers = changeFeed.getSubscriberCount();
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        LineSubscriber stream = open("?department=Finance", null, lines::add);
+        await(() -> changeFeed.getSubscriberCount() == subscribers + 1);
+
+        Employee first = addEmployee("First", "Finance");
+        addEmployee("Other", "Research");
+        Employee second = addEmployee("Second", "Finance");
+        employeeService.deleteEmployees(List.of(first.getEmployeeId()));
+
+        JsonNode created = nextChange(lines);
+        assertEquals(first.getEmployeeId(), created.get("employeeId").asText());
+        assertEquals("CREATED", created.get("action").asText());
+        assertEquals("Finance", created.get("department").asText());
+        assertEquals(second.getEmployeeId(), nextChange(lines).get("employeeId").asText());
+        JsonNode deleted = nextChange(lines);
+        assertEquals(first.getEmployeeId(), deleted.get("employeeId").asText());
+        assertEquals("DELETED", deleted.get("action").asText());
+        stream.cancel();
+
+        // Reconnecting with the first event's ID sends everything after it, from the buffer
+        BlockingQueue<String> resumed = new LinkedBlockingQueue<>();
+        LineSubscriber resumedStream = open("?department=Finance", created.get("offset").asText(), resumed::add);
+        assertEquals(second.getEmployeeId(), nextChange(resumed).get("employeeId").asText());
+        assertEquals("DELETED", nextChange(resumed).get("action").asText());
+        resumedStream.cancel();
+
+        // The first events have left the four-event buffer and are read from the database
+        for (int i = 0; i < 4; i++) {
+            addEmployee("Filler" + i, "Research");
+        }
+        await(() -> changeFeed.getAppendedCount() >= 8);
+        long catchUpReads = changeFeed.getCatchUpReads();
+        BlockingQueue<String> replayed = new LinkedBlockingQueue<>();
+        LineSubscriber replayedStream = open("?offset=0&department=Finance", null, replayed::add);
+        assertEquals(created.get("offset").asText(), nextChange(replayed).get("offset").asText());
+        assertEquals(second.getEmployeeId(), nextChange(replayed).get("employeeId").asText());
+        assertEquals(deleted.get("offset").asText(), nextChange(replayed).get("offset").asText());
+        assertTrue(changeFeed.getCatchUpReads() > catchUpReads);
+        replayedStream.cancel();
+
+        HttpResponse<String> invalid = http.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/changes?offset=abc"))
+                .header("Authorization", AUTHORIZATION).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, invalid.statusCode());
+    }
+
+    @Test
+    public void fansOutToFiveThousandSubscribers() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int subscribers = changeFeed.getSubscriberCount();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        String marker = "Fanout" + System.nanoTime();
+        long[] received = new long[SUBSCRIBERS];
+        CountDownLatch delivered = new CountDownLatch(SUBSCRIBERS);
+        List<LineSubscriber> streams = new ArrayList<>(SUBSCRIBERS);
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            int index = i;
+            streams.add(open("", null, line -> {
+                if (line.startsWith("data: ") && received[index] == 0) {
+                    received[index] = System.nanoTime();
+                    delivered.countDown();
+                }
+            }));
+            if ((i + 1) % 500 == 0) {
+                int opened = i + 1;
+                await(() -> changeFeed.getSubscriberCount() >= subscribers + opened);
+            }
+        }
+
+        System.gc();
+        long bytesPerSubscriber = (memory.getHeapMemoryUsage().getUsed() - heapBefore) / SUBSCRIBERS;
+
+        long start = System.nanoTime();
+        addEmployee(marker, "Finance");
+        assertTrue(delivered.await(60, TimeUnit.SECONDS), delivered.getCount() + " subscribers got nothing");
+        long[] latencies = Arrays.stream(received).map(at -> TimeUnit.NANOSECONDS.toMillis(at - start)).sorted().toArray();
+        String latency = "delivery latency p50 " + latencies[SUBSCRIBERS / 2] + " ms, p99 "
+                + latencies[SUBSCRIBERS * 99 / 100] + " ms, max " + latencies[SUBSCRIBERS - 1] + " ms";
+
+        // Heap measured on both ends of the connections
+        assertTrue(bytesPerSubscriber < MAX_BYTES_PER_SUBSCRIBER, bytesPerSubscriber + " bytes per subscriber");
+        assertTrue(latencies[SUBSCRIBERS * 99 / 100] < 5_000, latency);
+        assertTrue(latencies[SUBSCRIBERS - 1] < 10_000, latency);
+        streams.forEach(LineSubscriber::cancel);
+    }
+}
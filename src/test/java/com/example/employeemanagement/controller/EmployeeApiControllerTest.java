@@ -0,0 +1,201 @@
+package com.example.employeemanagement.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Its own database, read lazily by H2 so the export cursor streams as it would from MySQL
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:employee_api;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=TRUE",
+        "employee.audit.wal-dir=target/employee-api/audit-wal",
+        "employee.search.backend=jpql"})
+@ActiveProfiles("test")
+public class EmployeeApiControllerTest {
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+    private static final int EXPORT_ROWS = 200_000;
+    // Holding the export as a list of rows, or as one response body, would take several times this
+    private static final long MAX_EXPORT_HEAP_BYTES = 32L * 1024 * 1024;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void createGetSearchAndDelete() throws Exception {
+        String body = "{\"firstName\":\"Api\",\"lastName\":\"Created\",\"dateOfBirth\":\"1990-05-01\","
+                + "\"department\":\"Research\",\"salary\":1234.5,\"permanentAddress\":\"P\",\"currentAddress\":\"C\"}";
+        HttpResponse<String> created = send(request("/api/employees")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        assertEquals(201, created.statusCode(), created.body());
+        String id = objectMapper.readTree(created.body()).get("employeeId").asText();
+        assertEquals("/api/employees/" + id, created.headers().firstValue("Location").orElseThrow());
+
+        JsonNode employee = objectMapper.readTree(send(request("/api/employees/" + id).GET()).body());
+        assertEquals("Api", employee.get("firstName").asText());
+        assertEquals("1990-05-01", employee.get("dateOfBirth").asText());
+
+        JsonNode page = objectMapper.readTree(send(request("/api/employees?department=Research&size=10").GET()).body());
+        assertEquals(1, page.get("employees").size());
+        assertEquals(id, page.get("employees").get(0).get("employeeId").asText());
+        assertTrue(page.get("nextCursor").isNull());
+
+        HttpResponse<String> csv = send(request("/api/employees/export?format=csv&department=Research").GET());
+        assertEquals("text/csv;charset=UTF-8", csv.headers().firstValue("Content-Type").orElseThrow());
+        String[] lines = csv.body().split("\n");
+        assertEquals("employeeId,firstName,lastName,loginId,dateOfBirth,department,salary", lines[0]);
+        assertTrue(lines[1].startsWith(id + ",Api,Created,"), lines[1]);
+        assertTrue(lines[1].endsWith(",1990-05-01,Research,1234.5"), lines[1]);
+
+        HttpResponse<String> deleted = send(request("/api/employees")
+                .header("Content-Type", "application/json")
+                .method("DELETE", HttpRequest.BodyPublishers.ofString("[\"" + id + "\"]")));
+        assertEquals(204, deleted.statusCode());
+        assertEquals(404, send(request("/api/employees/" + id).GET()).statusCode());
+        page = objectMapper.readTree(send(request("/api/employees?department=Research").GET()).body());
+        assertEquals(0, page.get("employees").size());
+        page = objectMapper.readTree(send(request("/api/employees?department=Research&includeArchived=true").GET()).body());
+        assertEquals(id, page.get("employees").get(0).get("employeeId").asText());
+    }
+
+    @Test
+    public void rejectsInvalidInputAndUnauthenticatedCalls() throws Exception {
+        HttpResponse<String> tooYoung = send(request("/api/employees")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"firstName\":\"A\",\"lastName\":\"B\","
+                        + "\"dateOfBirth\":\"" + LocalDate.now().minusYears(10) + "\",\"department\":\"Research\"}")));
+        assertEquals(400, tooYoung.statusCode());
+        assertEquals("Employee must be at least 18 years old", objectMapper.readTree(tooYoung.body()).get("error").asText());
+        assertEquals(400, send(request("/api/employees/export?format=xml").GET()).statusCode());
+
+        HttpResponse<String> anonymous = http.send(HttpRequest.newBuilder(URI.create(url("/api/employees"))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(401, anonymous.statusCode());
+    }
+
+    @Test
+    public void importOnlyAcceptsContentTypesAFormCannotSend() throws Exception {
+        String csv = "firstName,lastName,middleName,dateOfBirth,department,salary,permanentAddress,currentAddress\n"
+                + "Imported,ByApi,,1990-01-01,Imports,1000,a,b\n";
+        for (String contentType : List.of("text/plain", "application/x-www-form-urlencoded")) {
+            HttpResponse<String> rejected = send(request("/employee/import")
+                    .header("Content-Type", contentType)
+                    .POST(HttpRequest.BodyPublishers.ofString(csv)));
+            assertEquals(415, rejected.statusCode(), contentType);
+        }
+
+        HttpResponse<String> accepted = send(request("/employee/import")
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv)));
+        assertEquals(202, accepted.statusCode(), accepted.body());
+        String job = objectMapper.readTree(accepted.body()).get("id").asText();
+        assertEquals("/employee/import/" + job, accepted.headers().firstValue("Location").orElseThrow());
+    }
+
+    @Test
+    public void exportStreamsWithoutHoldingTheResultInMemory() throws Exception {
+        seed(EXPORT_ROWS);
+        long baseline = liveHeap();
+
+        HttpResponse<InputStream> export = http.send(request("/api/employees/export?department=Finance").GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, export.statusCode());
+        assertEquals("application/x-ndjson;charset=UTF-8", export.headers().firstValue("Content-Type").orElseThrow());
+
+        long rows = 0;
+        long bytes = 0;
+        Long exportHeap = null;
+        String firstLine = null;
+        StringBuilder line = new StringBuilder();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = export.body()) {
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                bytes += read;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        rows++;
+                        if (firstLine == null) {
+                            firstLine = line.toString();
+                        }
+                        line.setLength(0);
+                    } else if (firstLine == null) {
+                        line.append((char) buffer[i]);
+                    }
+                }
+                // A third of the way in, with the server blocked on writing the rest
+                if (exportHeap == null && rows >= EXPORT_ROWS / 3) {
+                    Thread.sleep(200);
+                    exportHeap = liveHeap() - baseline;
+                }
+            }
+        }
+
+        assertEquals(EXPORT_ROWS, rows);
+        JsonNode first = objectMapper.readTree(firstLine);
+        assertEquals("E000000001", first.get("employeeId").asText());
+        assertEquals("Finance", first.get("department").asText());
+        assertTrue(exportHeap < MAX_EXPORT_HEAP_BYTES,
+                "Heap grew by " + exportHeap + " bytes while exporting " + bytes + " bytes");
+    }
+
+    private void seed(int count) {
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            batch.add(new Object[]{String.format("E%09d", i), "First" + i, "Last" + i, "fl" + i,
+                    Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(i % 10_000)), "Finance", 1000.0 + i,
+                    "Permanent " + i, "Current " + i});
+            if (batch.size() == 10_000 || i == count) {
+                jdbcTemplate.batchUpdate("INSERT INTO employee (employee_id, first_name, last_name, login_id, "
+                        + "date_of_birth, department, salary, permanent_address, current_address) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static long liveHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(url(path))).header("Authorization", AUTHORIZATION);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
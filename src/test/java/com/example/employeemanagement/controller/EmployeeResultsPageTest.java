@@ -0,0 +1,117 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.service.EmployeeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Pages through the results grid in its default (keyset) mode
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:employee_results_page;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/employee-results-page/audit-wal"})
+@ActiveProfiles("test")
+public class EmployeeResultsPageTest {
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+    private static final Pattern NEXT_CURSOR = Pattern.compile("cursor=([A-Za-z0-9_-]+)");
+    private static final Pattern EMPLOYEE_LINK = Pattern.compile("/employee/view/(\\d+)");
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void pagesByCursorWithoutCountingOnDeepPages() throws Exception {
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Employee employee = new Employee();
+            employee.setFirstName("Keyset");
+            employee.setLastName("Page" + i);
+            employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            employee.setDepartment("Keyset");
+            employee.setSalary(1000);
+            employee.setPermanentAddress("Permanent");
+            employee.setCurrentAddress("Current");
+            added.add(employeeService.addEmployee(employee, null).getEmployeeId());
+        }
+
+        String first = get("/employee/results?department=Keyset&size=10");
+        assertEquals(added.subList(0, 10), employeeIds(first));
+        // The total is counted in the background; wait for it before going deeper
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!first.contains("25 employees found")) {
+            assertTrue(System.nanoTime() < deadline, "The total was never counted");
+            Thread.sleep(50);
+            first = get("/employee/results?department=Keyset&size=10");
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String second = get("/employee/results?department=Keyset&size=10&cursor=" + nextCursor(first));
+        statistics.clear();
+        String third = get("/employee/results?department=Keyset&size=10&cursor=" + nextCursor(second));
+
+        assertEquals(added.subList(10, 20), employeeIds(second));
+        assertEquals(added.subList(20, 25), employeeIds(third));
+        assertNull(nextCursor(third));
+        assertTrue(third.contains("25 employees found"));
+        // Only the page's own select ran: the total comes from the count cache
+        List<String> queries = List.of(statistics.getQueries());
+        assertEquals(1, queries.size(), queries.toString());
+        assertTrue(queries.stream().noneMatch(query -> query.toLowerCase().contains("count(")), queries.toString());
+
+        // A cursor that does not decode starts again from the first page
+        assertEquals(added.subList(0, 10), employeeIds(get("/employee/results?department=Keyset&size=10&cursor=%21%21")));
+    }
+
+    private static List<String> employeeIds(String html) {
+        List<String> ids = new ArrayList<>();
+        Matcher matcher = EMPLOYEE_LINK.matcher(html);
+        while (matcher.find()) {
+            if (!ids.contains(matcher.group(1))) {
+                ids.add(matcher.group(1));
+            }
+        }
+        return ids;
+    }
+
+    private static String nextCursor(String html) {
+        Matcher matcher = NEXT_CURSOR.matcher(html);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private String get(String path) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", AUTHORIZATION).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return response.body();
+    }
+}
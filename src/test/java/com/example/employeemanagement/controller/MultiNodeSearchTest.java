@@ -0,0 +1,185 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.EmployeeManagementSystemApplication;
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.service.EmployeeService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application nodes sharing one database behind a round-robin proxy with no session affinity:
+ * a search served by one node is deleted from and returned to on the other.
+ */
+public class MultiNodeSearchTest {
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+    // Headers the JDK HTTP client sets itself
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static final List<String> nodeUrls = new ArrayList<>();
+    private static final AtomicInteger[] forwarded = {new AtomicInteger(), new AtomicInteger()};
+    private static final AtomicInteger next = new AtomicInteger();
+    private static final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private static HttpServer proxy;
+    private static String proxyUrl;
+
+    @BeforeAll
+    public static void startNodes() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            ConfigurableApplicationContext node = new SpringApplicationBuilder(EmployeeManagementSystemApplication.class)
+                    .profiles("test")
+                    .run("--server.port=0",
+                            "--spring.datasource.url=jdbc:h2:mem:multinode;DB_CLOSE_DELAY=-1",
+                            "--spring.jpa.hibernate.ddl-auto=update",
+                            "--employee.audit.wal-dir=target/multinode/node" + i + "/audit-wal",
+                            "--employee.documents.dir=target/multinode/documents",
+                            // Node-local search index and caches would need cross-node invalidation;
+                            // query the database directly
+                            "--employee.search.backend=jpql",
+                            "--employee.cache.enabled=false");
+            nodes.add(node);
+            nodeUrls.add("http://localhost:" + node.getEnvironment().getProperty("local.server.port"));
+        }
+
+        proxy = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        proxy.createContext("/", MultiNodeSearchTest::forward);
+        proxy.start();
+        proxyUrl = "http://localhost:" + proxy.getAddress().getPort();
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        if (proxy != null) {
+            proxy.stop(0);
+        }
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private static void forward(HttpExchange exchange) throws IOException {
+        int node = next.getAndIncrement() % nodes.size();
+        forwarded[node].incrementAndGet();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(nodeUrls.get(node) + exchange.getRequestURI()))
+                .method(exchange.getRequestMethod(),
+                        HttpRequest.BodyPublishers.ofByteArray(exchange.getRequestBody().readAllBytes()));
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> request.header(name, value));
+            }
+        });
+        try {
+            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            response.headers().map().forEach((name, values) -> {
+                if (!name.equalsIgnoreCase("content-length") && !name.equalsIgnoreCase("transfer-encoding")) {
+                    exchange.getResponseHeaders().put(name, values);
+                }
+            });
+            exchange.sendResponseHeaders(response.statusCode(), response.body().length == 0 ? -1 : response.body().length);
+            exchange.getResponseBody().write(response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(502, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Test
+    public void searchSurvivesDeleteOnAnotherNode() throws Exception {
+        EmployeeService employeeService = nodes.get(0).getBean(EmployeeService.class);
+        List<String> ids = new ArrayList<>();
+        for (String lastName : List.of("Alpha", "Beta", "Gamma")) {
+            ids.add(addEmployee(employeeService, "Ann & Bo", lastName).getEmployeeId());
+        }
+        addEmployee(employeeService, "Other", "Person");
+        List<String> cookies = new ArrayList<>();
+
+        String search = "/employee/results?department=Sales&firstName=" + URLEncoder.encode("Ann & Bo", StandardCharsets.UTF_8);
+        HttpResponse<String> results = send(HttpRequest.newBuilder(URI.create(proxyUrl + search)), cookies);
+        assertEquals(200, results.statusCode());
+        ids.forEach(id -> assertTrue(results.body().contains(id)));
+        assertFalse(results.body().contains("Person"));
+
+        String form = "employeeIds=" + ids.get(0)
+                + "&search=" + URLEncoder.encode(hiddenField(results.body(), "search"), StandardCharsets.UTF_8)
+                + "&_csrf=" + URLEncoder.encode(hiddenField(results.body(), "_csrf"), StandardCharsets.UTF_8);
+        HttpResponse<String> delete = send(HttpRequest.newBuilder(URI.create(proxyUrl + "/employee/delete"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)), cookies);
+        assertEquals(302, delete.statusCode());
+        String location = delete.headers().firstValue("Location").orElseThrow();
+        assertTrue(location.contains("firstName=Ann+%26+Bo"), location);
+        assertTrue(location.contains("department=Sales"), location);
+
+        HttpResponse<String> redirected = send(HttpRequest.newBuilder(URI.create(proxyUrl).resolve(location)), cookies);
+        assertEquals(200, redirected.statusCode());
+        assertFalse(redirected.body().contains(ids.get(0)));
+        assertTrue(redirected.body().contains(ids.get(1)));
+        assertTrue(redirected.body().contains(ids.get(2)));
+        assertFalse(redirected.body().contains("Person"));
+
+        // Consecutive requests went to different nodes, and none of them needed a session
+        assertTrue(forwarded[0].get() > 0 && forwarded[1].get() > 0);
+        assertTrue(cookies.stream().noneMatch(cookie -> cookie.startsWith("JSESSIONID")), cookies.toString());
+    }
+
+    // Sends with HTTP Basic and the cookies received so far (only the CSRF cookie is expected)
+    private static HttpResponse<String> send(HttpRequest.Builder request, List<String> cookies) throws Exception {
+        request.header("Authorization", AUTHORIZATION);
+        if (!cookies.isEmpty()) {
+            request.header("Cookie", String.join("; ", cookies));
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        for (String header : response.headers().allValues("Set-Cookie")) {
+            String cookie = header.split(";", 2)[0];
+            cookies.removeIf(existing -> existing.startsWith(cookie.substring(0, cookie.indexOf('=') + 1)));
+            cookies.add(cookie);
+        }
+        return response;
+    }
+
+    private static String hiddenField(String html, String name) {
+        Matcher field = Pattern.compile("name=\"" + name + "\"\\s+value=\"([^\"]+)\"").matcher(html);
+        assertTrue(field.find(), "No " + name + " field");
+        return field.group(1);
+    }
+
+    private static Employee addEmployee(EmployeeService employeeService, String firstName, String lastName)
+            throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        employee.setDepartment("Sales");
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        return employeeService.addEmployee(employee, null);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.employeemanagement.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchCursorsTest {
+
+    @Test
+    public void roundTripsAnEmployeeIdAsAUrlSafeToken() {
+        String cursor = SearchCursors.encode("000421");
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+        assertEquals("000421", SearchCursors.decode(cursor));
+    }
+
+    @Test
+    public void missingOrMalformedCursorsRestartFromTheFirstPage() {
+        assertNull(SearchCursors.decode(null));
+        assertNull(SearchCursors.decode(""));
+        assertNull(SearchCursors.decode("not a cursor!"));
+        // Valid Base64 around bytes that are not UTF-8, or around control characters
+        assertNull(SearchCursors.decode(Base64.getUrlEncoder().encodeToString(new byte[] {(byte) 0xff, (byte) 0xfe})));
+        assertNull(SearchCursors.decode(Base64.getUrlEncoder()
+                .encodeToString("0001\n".getBytes(StandardCharsets.UTF_8))));
+        assertNull(SearchCursors.decode(Base64.getUrlEncoder().encodeToString(" ".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void anEditedCursorOnlyMovesTheStartOfThePage() {
+        String cursor = SearchCursors.encode("000421");
+        String edited = cursor.substring(0, cursor.length() - 1) + (cursor.endsWith("A") ? "B" : "A");
+        String employeeId = SearchCursors.decode(edited);
+        assertTrue(employeeId == null || employeeId.startsWith("00042"), employeeId);
+    }
+}
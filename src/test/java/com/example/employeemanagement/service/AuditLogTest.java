@@ -0,0 +1,113 @@
+package com.example.employeemanagement.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audit_log;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/audit-log/audit-wal",
+        "employee.audit.max-attempts=2",
+        // A few dozen events per segment
+        "employee.audit.wal-segment-size=2KB"})
+@ActiveProfiles("test")
+public class AuditLogTest {
+    private static final Path WAL_DIR = Paths.get("target/audit-log/audit-wal");
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void anEventThatCannotBeWrittenIsSetAsideAfterTheLastAttempt() throws Exception {
+        auditLog.flush();
+        long deadLettered = auditLog.getDeadLetterCount();
+        auditLog.publish("AL1", "CREATED", "Sales");
+        // Longer than the action column, so every insert of it fails
+        auditLog.publish("AL2", "X".repeat(300), "Sales");
+        auditLog.publish("AL3", "CREATED", "Sales");
+
+        auditLog.flush();
+        assertEquals(deadLettered + 1, auditLog.getDeadLetterCount());
+        assertEquals(List.of("AL1", "AL3"), jdbcTemplate.queryForList(
+                "SELECT employee_id FROM employee_history WHERE employee_id LIKE 'AL%' ORDER BY employee_id", String.class));
+        List<String> rejected = Files.readAllLines(WAL_DIR.resolve("audit.dead-letter"), StandardCharsets.UTF_8);
+        assertTrue(rejected.get(rejected.size() - 1).contains("\tAL2\t"), rejected.toString());
+
+        // The writer moves on: later events are written normally
+        auditLog.publish("AL4", "UPDATED", "Sales");
+        auditLog.flush();
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employee_history WHERE employee_id = 'AL4'", Long.class));
+    }
+
+    @Test
+    public void segmentsBehindTheCheckpointAreDeletedWhileEventsKeepArriving() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread traffic = new Thread(() -> {
+            for (int i = 0; running.get(); i++) {
+                auditLog.publish("WT" + i, "UPDATED", "Sales");
+            }
+        });
+        traffic.start();
+        try {
+            long published = auditLog.getPublishedCount();
+            // Hundreds of segments' worth, with the buffer never empty
+            while (auditLog.getPublishedCount() - published < 5000) {
+                auditLog.flush();
+            }
+            auditLog.flush();
+            assertTrue(segments() <= 10, segments() + " segments kept");
+        } finally {
+            running.set(false);
+            traffic.join();
+        }
+        auditLog.flush();
+        assertFalse(Files.exists(WAL_DIR.resolve("audit.wal")));
+    }
+
+    @Test
+    public void concurrentPublishesShareFsyncs() throws Exception {
+        long syncs = auditLog.getSyncCount();
+        Thread[] publishers = new Thread[8];
+        for (int t = 0; t < publishers.length; t++) {
+            String prefix = "GC" + t + "-";
+            publishers[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    auditLog.publish(prefix + i, "CREATED", "Sales");
+                }
+            });
+            publishers[t].start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        auditLog.flush();
+        assertEquals(800, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employee_history WHERE employee_id LIKE 'GC%'", Long.class));
+        long used = auditLog.getSyncCount() - syncs;
+        assertTrue(used < 800, used + " fsyncs for 800 events");
+    }
+
+    private static long segments() throws Exception {
+        try (Stream<Path> files = Files.list(WAL_DIR)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("audit-")).count();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A 1 KB outbox fills after a few events, and gaps are skipped after half a second
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:change_feed_delivery;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/change-feed-delivery/audit-wal",
+        "employee.changes.subscriber-buffer=1KB",
+        "employee.changes.gap-timeout=500ms",
+        "employee.changes.heartbeat-interval=1h"})
+@ActiveProfiles("test")
+public class ChangeFeedDeliveryTest {
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Collects what is written, optionally blocking every write until released
+    private static final class RecordingSink implements ChangeFeed.Sink {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        RecordingSink(boolean blocked) {
+            this.release = new CountDownLatch(blocked ? 1 : 0);
+        }
+
+        @Override
+        public void write(byte[] bytes) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        boolean contains(String text) {
+            return events.stream().anyMatch(event -> event.contains(text));
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void aSubscriberThatStopsReadingIsDisconnectedWithoutHoldingUpOthers() throws Exception {
+        RecordingSink fast = new RecordingSink(false);
+        RecordingSink stuck = new RecordingSink(true);
+        ChangeFeed.Subscription fastSubscription = changeFeed.subscribe("Outbox", null, fast);
+        changeFeed.subscribe("Outbox", null, stuck);
+        long disconnects = changeFeed.getSlowDisconnects();
+
+        for (int i = 0; i < 20; i++) {
+            Employee employee = new Employee();
+            employee.setFirstName("Outbox");
+            employee.setLastName("Filler" + i);
+            employee.setDateOfBirth(LocalDate.of(1980, 1, 1));
+            employee.setDepartment("Outbox");
+            employee.setSalary(1000);
+            employeeService.addEmployee(employee, null);
+            auditLog.flush();
+        }
+
+        // Every change reaches the reading subscriber while the other one's write is stuck
+        await(() -> fast.events.stream().mapToLong(event -> event.split("data: ").length - 1).sum() == 20);
+        assertTrue(stuck.closed.await(10, TimeUnit.SECONDS), "The stuck subscriber was not disconnected");
+        assertEquals(disconnects + 1, changeFeed.getSlowDisconnects());
+        stuck.release.countDown();
+        fastSubscription.cancel();
+    }
+
+    @Test
+    public void aHistoryIdCommittedAfterItsGapWasSkippedIsSentLate() throws Exception {
+        auditLog.flush();
+        long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM employee_history", Long.class);
+        RecordingSink sink = new RecordingSink(false);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe("Gaps", null, sink);
+        long late = changeFeed.getLateCount();
+        try {
+            insertHistory(max + 2, "GAP2");
+            // Held back by the missing ID for the gap timeout, then sent
+            await(() -> sink.contains("GAP2"));
+
+            insertHistory(max + 1, "GAP1");
+            await(() -> sink.contains("GAP1"));
+            assertEquals(late + 1, changeFeed.getLateCount());
+        } finally {
+            subscription.cancel();
+            jdbcTemplate.execute("ALTER TABLE employee_history ALTER COLUMN id RESTART WITH " + (max + 10));
+        }
+    }
+
+    private void insertHistory(long id, String employeeId) {
+        jdbcTemplate.update("INSERT INTO employee_history (id, action, timestamp, employee_id, department) "
+                + "VALUES (?, 'CREATED', CURRENT_TIMESTAMP, ?, 'Gaps')", id, employeeId);
+    }
+}
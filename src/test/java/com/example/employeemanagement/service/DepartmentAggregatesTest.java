@@ -0,0 +1,150 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.DepartmentStats;
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class DepartmentAggregatesTest {
+    private static final String DEPARTMENT = "Aggregates";
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private DepartmentAggregates departmentAggregates;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void clean() {
+        jdbcTemplate.update("DELETE FROM employee WHERE department = ?", DEPARTMENT);
+        // Other tests write to the shared database directly
+        departmentAggregates.reconcile();
+    }
+
+    private Employee addEmployee(double salary, LocalDate dateOfBirth) throws Exception {
+        return addEmployee(DEPARTMENT, salary, dateOfBirth);
+    }
+
+    private Employee addEmployee(String department, double salary, LocalDate dateOfBirth) throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName("Agg");
+        employee.setLastName("Regate");
+        employee.setDateOfBirth(dateOfBirth);
+        employee.setDepartment(department);
+        employee.setSalary(salary);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        return employeeService.addEmployee(employee, null);
+    }
+
+    private DepartmentStats stats() {
+        return departmentAggregates.getStats().stream()
+                .filter(stats -> stats.department().equals(DEPARTMENT))
+                .findFirst().orElse(null);
+    }
+
+    @Test
+    public void followsAddsAndDeletes() throws Exception {
+        LocalDate today = LocalDate.now();
+        Employee low = addEmployee(1000, today.minusYears(20));
+        addEmployee(2000, today.minusYears(30));
+        Employee high = addEmployee(6000, today.minusYears(30).minusDays(1));
+
+        DepartmentStats stats = stats();
+        assertEquals(3, stats.headcount());
+        assertEquals(9000, stats.salaryTotal());
+        assertEquals(3000, stats.salaryAverage());
+        assertEquals(1000, stats.salaryMin());
+        assertEquals(6000, stats.salaryMax());
+        assertEquals(1, stats.ageBands().get("18-24"));
+        assertEquals(2, stats.ageBands().get("25-34"));
+        assertEquals(0, stats.ageBands().get("65+"));
+        // Unchanged view, same snapshot
+        assertSame(departmentAggregates.getStats(), departmentAggregates.getStats());
+
+        employeeService.deleteEmployees(List.of(low.getEmployeeId(), high.getEmployeeId()));
+        stats = stats();
+        assertEquals(1, stats.headcount());
+        assertEquals(2000, stats.salaryTotal());
+        assertEquals(2000, stats.salaryMin());
+        assertEquals(2000, stats.salaryMax());
+        assertEquals(0, stats.ageBands().get("18-24"));
+        assertTrue(departmentAggregates.reconcile().isEmpty());
+    }
+
+    @Test
+    public void reconciliationRepairsDrift() throws Exception {
+        Employee employee = addEmployee(1500, LocalDate.of(1960, 6, 1));
+        // Written behind the view's back, as another node would
+        jdbcTemplate.update("UPDATE employee SET salary = 2500 WHERE employee_id = ?", employee.getEmployeeId());
+        jdbcTemplate.update("INSERT INTO employee (employee_id, first_name, last_name, login_id, date_of_birth, "
+                + "department, salary) VALUES ('AGG1', 'Other', 'Node', 'onagg1', DATE '1990-01-01', ?, 500)", DEPARTMENT);
+
+        assertEquals(List.of(DEPARTMENT), departmentAggregates.reconcile());
+        DepartmentStats stats = stats();
+        assertEquals(2, stats.headcount());
+        assertEquals(3000, stats.salaryTotal());
+        assertEquals(500, stats.salaryMin());
+        assertEquals(2500, stats.salaryMax());
+        assertTrue(departmentAggregates.reconcile().isEmpty());
+
+        jdbcTemplate.update("DELETE FROM employee WHERE department = ?", DEPARTMENT);
+        assertEquals(List.of(DEPARTMENT), departmentAggregates.reconcile());
+        assertNull(stats());
+    }
+
+    @Test
+    public void reconciliationRepairsDriftWhileThisNodeKeepsWriting() throws Exception {
+        addEmployee(1500, LocalDate.of(1960, 6, 1));
+        jdbcTemplate.update("INSERT INTO employee (employee_id, first_name, last_name, login_id, date_of_birth, "
+                + "department, salary) VALUES ('AGG2', 'Other', 'Node', 'onagg2', DATE '1990-01-01', ?, 500)", DEPARTMENT);
+
+        // Every full read of the table overlaps a write to this department and to another one
+        EmployeeJdbcRepository writing = new EmployeeJdbcRepository() {
+            @Override
+            public void forEachBirthDateGroup(Consumer<BirthDateGroup> consumer) {
+                try {
+                    addEmployee(3000, LocalDate.of(1985, 3, 1));
+                    addEmployee("Steady", 1000, LocalDate.of(1985, 3, 1));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                super.forEachBirthDateGroup(consumer);
+            }
+        };
+        ReflectionTestUtils.setField(writing, "jdbcTemplate", jdbcTemplate);
+        Object repository = ReflectionTestUtils.getField(departmentAggregates, "employeeJdbcRepository");
+        ReflectionTestUtils.setField(departmentAggregates, "employeeJdbcRepository", writing);
+        try {
+            assertEquals(List.of(DEPARTMENT), departmentAggregates.reconcile());
+            DepartmentStats stats = stats();
+            assertEquals(3, stats.headcount());
+            assertEquals(5000, stats.salaryTotal());
+            assertEquals(500, stats.salaryMin());
+        } finally {
+            ReflectionTestUtils.setField(departmentAggregates, "employeeJdbcRepository", repository);
+            jdbcTemplate.update("DELETE FROM employee WHERE department = 'Steady'");
+            departmentAggregates.reconcile();
+        }
+    }
+}
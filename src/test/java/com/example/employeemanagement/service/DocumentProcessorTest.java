@@ -0,0 +1,149 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.IdProofDocument;
+import com.example.employeemanagement.model.IdProofDocument.Status;
+import com.example.employeemanagement.repository.IdProofDocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Uploads sample ID proofs from uploads/ and waits for the pipeline to process them
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:document_processor;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/document-processor/audit-wal",
+        "employee.documents.dir=target/document-processor/documents",
+        "employee.documents.processing.threads=2"})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class DocumentProcessorTest {
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+    private static final Path SAMPLE = Paths.get("uploads/db6f10bc-5a59-4f35-9e01-2529cb1daf79.pdf");
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private DocumentProcessor documentProcessor;
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    @Autowired
+    private IdProofDocumentRepository idProofDocumentRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Employee addEmployee(String lastName, byte[] idProof) throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName("Document");
+        employee.setLastName(lastName);
+        employee.setDateOfBirth(LocalDate.of(1985, 3, 1));
+        employee.setDepartment("Legal");
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        return employeeService.addEmployee(employee,
+                new MockMultipartFile("idProof", "id.pdf", "application/pdf", idProof));
+    }
+
+    private IdProofDocument awaitProcessed(String key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            IdProofDocument document = idProofDocumentRepository.findById(key).orElseThrow();
+            if (document.getStatus() != Status.PENDING) {
+                return document;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Document " + key + " was not processed");
+    }
+
+    @Test
+    public void uploadedPdfIsCheckedIndexedAndThumbnailed() throws Exception {
+        Employee employee = addEmployee("Ready", Files.readAllBytes(SAMPLE));
+        String key = employee.getIdProofPath();
+
+        IdProofDocument document = awaitProcessed(key);
+        assertEquals(Status.READY, document.getStatus());
+        assertTrue(document.getPageCount() >= 1);
+        assertFalse(document.getExtractedText().isBlank());
+        assertTrue(key.startsWith(document.getChecksum()));
+        assertTrue(document.isThumbnail());
+        assertTrue(documentStore.resolveThumbnail(key).isPresent());
+
+        mockMvc.perform(get("/documents/" + key + "/thumbnail").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"));
+        mockMvc.perform(get("/employee/view/" + employee.getEmployeeId()).header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("/thumbnail")));
+
+        // The same file uploaded again is already done
+        long submitted = documentProcessor.getSubmittedCount();
+        assertEquals(key, addEmployee("Again", Files.readAllBytes(SAMPLE)).getIdProofPath());
+        assertEquals(submitted, documentProcessor.getSubmittedCount());
+    }
+
+    @Test
+    public void filesThatAreNotWholePdfsAreMarkedInvalid() throws Exception {
+        byte[] notPdf = new byte[20 * 1024];
+        Arrays.fill(notPdf, (byte) 'x');
+        IdProofDocument rejected = awaitProcessed(addEmployee("NotPdf", notPdf).getIdProofPath());
+        assertEquals(Status.INVALID, rejected.getStatus());
+        assertEquals("The file is not a PDF", rejected.getError());
+
+        byte[] sample = Files.readAllBytes(SAMPLE);
+        IdProofDocument truncated = awaitProcessed(
+                addEmployee("Truncated", Arrays.copyOf(sample, sample.length / 2)).getIdProofPath());
+        assertEquals(Status.INVALID, truncated.getStatus());
+        assertEquals("The PDF is truncated", truncated.getError());
+        assertFalse(truncated.isThumbnail());
+    }
+
+    @Test
+    public void aDocumentIsMarkedFailedOnceItsAttemptsAreUsedUp() throws Exception {
+        // Stands in for a document whose earlier attempts threw or died with their instance
+        IdProofDocument stuck = new IdProofDocument("attempts-used-up.pdf");
+        stuck.setCreatedAt(LocalDateTime.now().minusHours(1));
+        stuck.setAttempts(3);
+        idProofDocumentRepository.save(stuck);
+        IdProofDocument missing = new IdProofDocument("attempts-counted.pdf");
+        missing.setCreatedAt(LocalDateTime.now().minusHours(1));
+        idProofDocumentRepository.save(missing);
+
+        documentProcessor.sweep();
+        IdProofDocument failed = awaitProcessed("attempts-used-up.pdf");
+        assertEquals(Status.FAILED, failed.getStatus());
+        assertEquals("Processing did not finish in 3 attempts", failed.getError());
+        assertEquals(3, failed.getAttempts());
+
+        IdProofDocument processed = awaitProcessed("attempts-counted.pdf");
+        assertEquals("The document is missing from storage", processed.getError());
+        assertEquals(1, processed.getAttempts());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.ArchivedEmployee;
+import com.example.employeemanagement.model.AuditEvent;
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeHistory;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.repository.ArchivedEmployeeRepository;
+import com.example.employeemanagement.repository.EmployeeHistoryRepository;
+import com.example.employeemanagement.repository.EmployeeJdbcRepository;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// No grace period, so a deleted employee's history is archived by the next run
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:employee_archiver;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/employee-archiver/audit-wal",
+        "employee.archive.grace-period=0s",
+        "employee.archive.hot-history-months=3",
+        "employee.archive.retention-months=84"})
+@ActiveProfiles("test")
+public class EmployeeArchiverTest {
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeArchiver employeeArchiver;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ArchivedEmployeeRepository archivedEmployeeRepository;
+
+    @Autowired
+    private EmployeeHistoryRepository employeeHistoryRepository;
+
+    @Autowired
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Employee addEmployee(String lastName, String department) throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName("Archive");
+        employee.setLastName(lastName);
+        employee.setDateOfBirth(LocalDate.of(1975, 6, 1));
+        employee.setDepartment(department);
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        return employeeService.addEmployee(employee, null);
+    }
+
+    private static List<String> ids(Slice<EmployeeSummary> slice) {
+        return slice.getContent().stream().map(EmployeeSummary::getEmployeeId).toList();
+    }
+
+    @Test
+    public void deletedEmployeesMoveToTheArchiveWithTheirHistory() throws Exception {
+        String deleted = addEmployee("Deleted", "Archived").getEmployeeId();
+        String kept = addEmployee("Kept", "Archived").getEmployeeId();
+        employeeService.deleteEmployees(List.of(deleted));
+        auditLog.flush();
+
+        assertFalse(employeeRepository.existsById(deleted));
+        ArchivedEmployee archived = archivedEmployeeRepository.findById(deleted).orElseThrow();
+        assertEquals("Deleted", archived.getLastName());
+        assertFalse(archived.isHistoryArchived());
+        // The audit trail, DELETED included, survives the delete
+        assertEquals(2, employeeHistoryRepository.countByEmployeeEmployeeId(deleted));
+
+        // Searches leave the archive alone unless asked
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria(null, null, null, null, "Archived", null, null);
+        assertEquals(List.of(kept), ids(employeeService.searchEmployeesAfter(criteria, null, 10, false)));
+        Slice<EmployeeSummary> withArchived = employeeService.searchEmployeesAfter(criteria, null, 1, true);
+        assertEquals(List.of(deleted), ids(withArchived));
+        assertTrue(withArchived.hasNext());
+        assertEquals(List.of(kept), ids(employeeService.searchEmployeesAfter(criteria, deleted, 1, true)));
+        List<String> exported = new ArrayList<>();
+        employeeService.exportEmployees(criteria, true, employee -> exported.add(employee.getEmployeeId()));
+        assertEquals(List.of(kept, deleted), exported);
+
+        EmployeeArchiver.Run run = employeeArchiver.archive();
+        assertTrue(run.historyMoved() >= 2);
+        assertEquals(0, employeeHistoryRepository.countByEmployeeEmployeeId(deleted));
+        List<EmployeeJdbcRepository.HistoryRow> history = employeeJdbcRepository.findArchivedHistory(deleted, 0, 10);
+        assertEquals(List.of("DELETED", "CREATED"), history.stream().map(EmployeeJdbcRepository.HistoryRow::action).toList());
+        assertTrue(archivedEmployeeRepository.findById(deleted).orElseThrow().isHistoryArchived());
+        // The change feed still reads the moved rows, in ID order, when a subscriber catches up past them
+        List<String> feed = employeeJdbcRepository.findAllHistoryBetween(0, Long.MAX_VALUE, 1000).stream()
+                .filter(row -> row.employeeId().equals(deleted)).map(EmployeeJdbcRepository.HistoryRow::action).toList();
+        assertEquals(List.of("CREATED", "DELETED"), feed);
+        // The employee still working here keeps their recent history in place
+        assertEquals(1, employeeHistoryRepository.countByEmployeeEmployeeId(kept));
+    }
+
+    @Test
+    public void oldHistoryMovesByMonthAndExpiresAfterRetention() throws Exception {
+        String id = addEmployee("Veteran", "Tenured").getEmployeeId();
+        auditLog.flush();
+        LocalDateTime now = LocalDateTime.now();
+        List<AuditEvent> old = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            old.add(new AuditEvent(0, id, "ID_PROOF_UPDATED", "Tenured", now.minusMonths(5).plusMinutes(i)));
+        }
+        old.add(new AuditEvent(0, id, "ID_PROOF_UPDATED", "Tenured", now.minusYears(10)));
+        employeeJdbcRepository.insertHistoryEvents(old);
+
+        EmployeeArchiver.Run run = employeeArchiver.archive();
+        assertTrue(run.historyMoved() >= 26);
+        assertTrue(run.historyExpired() >= 1);
+        assertEquals(1, employeeHistoryRepository.countByEmployeeEmployeeId(id));
+        assertEquals(25, employeeJdbcRepository.findArchivedHistory(id, 0, 100).size());
+        assertEquals(EmployeeJdbcRepository.archiveMonth(now.minusMonths(5)), jdbcTemplate.queryForObject(
+                "SELECT MIN(archive_month) FROM employee_history_archive WHERE employee_id = ?", Integer.class, id));
+
+        // The history page carries on into the archive: the current row, then the archived months
+        Slice<EmployeeHistory> first = employeeService.getEmployeeHistory(id, 0);
+        assertEquals(20, first.getNumberOfElements());
+        assertEquals("CREATED", first.getContent().get(0).getAction());
+        assertEquals("ID_PROOF_UPDATED", first.getContent().get(1).getAction());
+        assertTrue(first.hasNext());
+        Slice<EmployeeHistory> second = employeeService.getEmployeeHistory(id, 1);
+        assertEquals(6, second.getNumberOfElements());
+        assertFalse(second.hasNext());
+        assertTrue(second.getContent().get(5).getTimestamp().isBefore(first.getContent().get(19).getTimestamp()));
+
+        // Deleted employees go once their deletion is past retention
+        String leaver = addEmployee("Leaver", "Tenured").getEmployeeId();
+        employeeService.deleteEmployees(List.of(leaver));
+        auditLog.flush();
+        employeeArchiver.archive();
+        jdbcTemplate.update("UPDATE employee_archive SET deleted_at = ? WHERE employee_id = ?",
+                Timestamp.valueOf(now.minusYears(8)), leaver);
+        assertTrue(employeeArchiver.archive().employeesExpired() >= 1);
+        assertFalse(archivedEmployeeRepository.existsById(leaver));
+    }
+}
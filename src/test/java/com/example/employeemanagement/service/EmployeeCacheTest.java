@@ -0,0 +1,161 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class EmployeeCacheTest {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeCacheTest.class);
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeSearchBackend searchBackend;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void clean() {
+        List<String> ids = employeeRepository.findAll().stream().map(Employee::getEmployeeId).toList();
+        ids.forEach(searchBackend::onEmployeeDeleted);
+        employeeRepository.deleteAll();
+        employeeCache.evictEmployees(ids);
+        employeeCache.invalidateSearches();
+    }
+
+    @AfterEach
+    public void enableCache() {
+        ReflectionTestUtils.setField(employeeCache, "enabled", true);
+    }
+
+    private Employee addEmployee(String firstName, String lastName, String department) throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        employee.setDepartment(department);
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        return employeeService.addEmployee(employee, null);
+    }
+
+    private Page<EmployeeSummary> searchDepartment(String department) {
+        return employeeService.searchEmployees(null, null, null, null, department, null, null, PageRequest.of(0, 10));
+    }
+
+    @Test
+    public void updateEvictsCachedEmployee() throws Exception {
+        Employee employee = addEmployee("Cache", "Me", "Engineering");
+        long hits = employeeCache.getEmployeeStats().hitCount();
+
+        employeeService.getEmployeeById(employee.getEmployeeId());
+        Employee cached = employeeService.getEmployeeById(employee.getEmployeeId());
+        assertEquals(hits + 1, employeeCache.getEmployeeStats().hitCount());
+
+        byte[] pdf = new byte[20 * 1024];
+        employeeService.updateEmployee(employee.getEmployeeId(),
+                new MockMultipartFile("idProof", "id.pdf", "application/pdf", pdf));
+
+        Employee reloaded = employeeService.getEmployeeById(employee.getEmployeeId());
+        assertNotEquals(cached.getIdProofPath(), reloaded.getIdProofPath());
+    }
+
+    @Test
+    public void anotherNodesChangeIsEvictedWhenTheChangeFeedPollsItsHistoryRow() throws Exception {
+        Employee employee = addEmployee("Remote", "Change", "Engineering");
+        employeeService.getEmployeeById(employee.getEmployeeId());
+
+        // What another node's update writes: the row, and its history row
+        jdbcTemplate.update("UPDATE employee SET id_proof_path = 'elsewhere.pdf' WHERE employee_id = ?",
+                employee.getEmployeeId());
+        jdbcTemplate.update("INSERT INTO employee_history (action, timestamp, employee_id, department) "
+                + "VALUES ('ID_PROOF_UPDATED', CURRENT_TIMESTAMP, ?, 'Engineering')", employee.getEmployeeId());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!"elsewhere.pdf".equals(employeeService.getEmployeeById(employee.getEmployeeId()).getIdProofPath())) {
+            assertTrue(System.nanoTime() < deadline, "Still serving the cached employee");
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    public void addAndDeleteInvalidateCachedSearches() throws Exception {
+        Employee first = addEmployee("Search", "One", "Finance");
+        assertEquals(1, searchDepartment("Finance").getTotalElements());
+        long hits = employeeCache.getSearchStats().hitCount();
+        assertEquals(1, searchDepartment("Finance").getTotalElements());
+        assertEquals(hits + 1, employeeCache.getSearchStats().hitCount());
+
+        addEmployee("Search", "Two", "Finance");
+        assertEquals(2, searchDepartment("Finance").getTotalElements());
+
+        employeeService.deleteEmployees(List.of(first.getEmployeeId()));
+        Page<EmployeeSummary> page = searchDepartment("Finance");
+        assertEquals(1, page.getTotalElements());
+        assertEquals("Two", page.getContent().get(0).getLastName());
+    }
+
+    @Test
+    public void cachedReadsOutperformUncachedReads() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(addEmployee((char) ('A' + i % 26) + "bench", "Mark", "Sales").getEmployeeId());
+        }
+
+        ReflectionTestUtils.setField(employeeCache, "enabled", false);
+        double uncached = readsPerSecond(ids);
+        ReflectionTestUtils.setField(employeeCache, "enabled", true);
+        double cached = readsPerSecond(ids);
+
+        log.info("Employee lookups + searches: {} ops/s uncached, {} ops/s cached",
+                Math.round(uncached), Math.round(cached));
+        assertTrue(cached > uncached);
+    }
+
+    private double readsPerSecond(List<String> ids) {
+        int operations = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < 40; round++) {
+            for (String id : ids) {
+                employeeService.getEmployeeById(id);
+                operations++;
+            }
+            searchDepartment("Sales");
+            operations++;
+        }
+        return operations / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.ImportFormat;
+import com.example.employeemanagement.model.ImportJob;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Searches go through the index, so anything the import reports to the search backend can be seen
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:employee_import;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/employee-import/audit-wal",
+        "employee.search.backend=index"})
+@ActiveProfiles("test")
+public class EmployeeImportServiceTest {
+    private static final String[] INITIALS = {"Ann", "Ben", "Cid", "Dee", "Eve", "Fay", "Gus", "Hal", "Ivy", "Jon"};
+
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeSearchBackend searchBackend;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void importsCsvInBatchesAndReportsRowErrors() throws Exception {
+        employeeRepository.deleteAll();
+        int rows = 5000;
+        Path csv = tempDir.resolve("employees.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("firstName,lastName,middleName,dateOfBirth,department,salary,permanentAddress,currentAddress\n");
+            for (int i = 0; i < rows; i++) {
+                String first = INITIALS[i % INITIALS.length];
+                String last = INITIALS[(i / INITIALS.length) % INITIALS.length];
+                writer.write(first + "," + last + ",," + "1990-01-01,Engineering,1000,\"1 Main St, Springfield\",Same\n");
+            }
+            writer.write("Too,Young,,2020-01-01,HR,1,a,b\n");
+            writer.write("Bad,Salary,,1990-01-01,HR,lots,a,b\n");
+            writer.write("Missing,Columns\n");
+        }
+
+        ImportJob job = new ImportJob("test");
+        employeeImportService.runImport(job, csv, ImportFormat.CSV);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(rows, job.getRowsImported());
+        assertEquals(3, job.getRowsFailed());
+        assertEquals(rows + 2, job.getErrors().get(0).row());
+        assertEquals(rows, employeeRepository.count());
+        assertEquals(rows, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employee_history h JOIN employee e ON e.employee_id = h.employee_id "
+                        + "WHERE h.action = 'CREATED'", Long.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void aRowThatCannotBeStoredIsNeitherSearchableNorHoldsALoginId() throws Exception {
+        Path csv = tempDir.resolve("unstorable.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("firstName,lastName,middleName,dateOfBirth,department,salary,permanentAddress,currentAddress\n");
+            writer.write("Kept,Row,,1990-01-01,Imports,1000,a,b\n");
+            // Longer than the column: fails the batch, the single insert and its retry with a new login ID
+            writer.write("Xavier,Xu,,1990-01-01,Imports,1000," + "x".repeat(300) + ",b\n");
+        }
+
+        ImportJob job = new ImportJob("unstorable");
+        employeeImportService.runImport(job, csv, ImportFormat.CSV);
+
+        assertEquals(1, job.getRowsImported());
+        assertEquals(1, job.getRowsFailed());
+        assertEquals(3, job.getErrors().get(0).row());
+        assertEquals(1, searchBackend.count(new EmployeeSearchCriteria(null, "kept", null, null, null, null, null)));
+        assertEquals(0, searchBackend.count(new EmployeeSearchCriteria(null, "xavier", null, null, null, null, null)));
+        Map<String, BitSet> loginSlots = (Map<String, BitSet>) ReflectionTestUtils.getField(idAllocator, "loginSlots");
+        assertTrue(loginSlots.get("xx") == null || loginSlots.get("xx").isEmpty(), String.valueOf(loginSlots.get("xx")));
+    }
+}
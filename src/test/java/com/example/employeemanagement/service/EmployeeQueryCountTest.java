@@ -0,0 +1,132 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeHistory;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Asserts how many SQL statements the results grid and the view page issue, using Hibernate statistics.
+// The results grid is served by the search index here, which loads only the page's summaries.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:employee_query_count;DB_CLOSE_DELAY=-1",
+        "employee.audit.wal-dir=target/employee-query-count/audit-wal",
+        "employee.search.backend=index"})
+@ActiveProfiles("test")
+public class EmployeeQueryCountTest {
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeSearchBackend searchBackend;
+
+    @Autowired
+    private JpqlEmployeeSearchBackend jpqlSearchBackend;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        List<String> ids = employeeRepository.findAll().stream().map(Employee::getEmployeeId).toList();
+        ids.forEach(searchBackend::onEmployeeDeleted);
+        employeeRepository.deleteAll();
+        employeeCache.evictEmployees(ids);
+        employeeCache.invalidateSearches();
+        for (int i = 0; i < 25; i++) {
+            Employee employee = new Employee();
+            employee.setFirstName((char) ('A' + i) + "count");
+            employee.setLastName("Query");
+            employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            employee.setDepartment("Support");
+            employee.setSalary(1000);
+            employee.setPermanentAddress("Permanent");
+            employee.setCurrentAddress("Current");
+            employeeService.addEmployee(employee, null);
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void resultsPageLoadsOnlySummaries() {
+        Page<EmployeeSummary> page = employeeService.searchEmployees(
+                null, null, null, null, "Support", null, null, PageRequest.of(0, 10));
+
+        assertEquals(10, page.getNumberOfElements());
+        assertEquals(25, page.getTotalElements());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    public void jpqlResultsPageIssuesSelectAndCount() {
+        Page<EmployeeSummary> page = jpqlSearchBackend.search(
+                new EmployeeSearchCriteria(null, null, null, null, "Support", null, null), PageRequest.of(1, 10));
+
+        assertEquals(10, page.getNumberOfElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void keysetResultsPageIssuesOneStatement() {
+        Slice<EmployeeSummary> slice = jpqlSearchBackend.searchAfter(
+                new EmployeeSearchCriteria(null, null, null, null, "Support", null, null), null, 10);
+
+        assertTrue(slice.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void viewPageLoadsOneHistoryPage() {
+        String employeeId = employeeRepository.findAll().get(0).getEmployeeId();
+        Timestamp at = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < 30; i++) {
+            jdbcTemplate.update("INSERT INTO employee_history (action, timestamp, employee_id) VALUES (?, ?, ?)",
+                    "ID_PROOF_UPDATED", at, employeeId);
+        }
+        statistics.clear();
+
+        employeeService.getEmployeeById(employeeId);
+        Slice<EmployeeHistory> history = employeeService.getEmployeeHistory(employeeId, 0);
+
+        assertEquals(20, history.getNumberOfElements());
+        assertTrue(history.hasNext());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+}
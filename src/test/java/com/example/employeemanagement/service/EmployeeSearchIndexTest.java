@@ -0,0 +1,96 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EmployeeSearchIndexTest {
+
+    private EmployeeSearchIndex newIndex() {
+        EmployeeSearchIndex index = new EmployeeSearchIndex();
+        index.put("123451", "Alice", "Johnson", "aj", "Engineering", LocalDate.of(1990, 5, 1));
+        index.put("234561", "Bob", "Johnston", "bj", "Finance", LocalDate.of(1985, 1, 15));
+        index.put("345671", "Carol", "Smith", "cs", "Engineering", LocalDate.of(2000, 12, 31));
+        return index;
+    }
+
+    @Test
+    public void matchesSubstringsCaseInsensitively() {
+        EmployeeSearchIndex index = newIndex();
+        assertEquals(List.of("123451", "234561"),
+                index.search(new EmployeeSearchCriteria(null, null, "JOHNS", null, null, null, null)));
+        assertEquals(List.of("234561"),
+                index.search(new EmployeeSearchCriteria(null, null, "hnst", null, null, null, null)));
+        assertEquals(List.of("345671"),
+                index.search(new EmployeeSearchCriteria("567", null, null, null, null, null, null)));
+    }
+
+    @Test
+    public void shortTermsAndFiltersAreVerifiedAgainstEntries() {
+        EmployeeSearchIndex index = newIndex();
+        assertEquals(List.of("123451", "345671"),
+                index.search(new EmployeeSearchCriteria(null, "a", null, null, "Engineering", null, null)));
+        assertEquals(List.of("123451"),
+                index.search(new EmployeeSearchCriteria(null, null, null, null, "",
+                        LocalDate.of(1986, 1, 1), LocalDate.of(1999, 1, 1))));
+    }
+
+    @Test
+    public void reflectsUpdatesAndRemovals() {
+        EmployeeSearchIndex index = newIndex();
+        index.put("345671", "Carol", "Johnson", "cj", "Engineering", LocalDate.of(2000, 12, 31));
+        index.remove("123451");
+        assertEquals(List.of("234561", "345671"),
+                index.search(new EmployeeSearchCriteria(null, null, "john", null, null, null, null)));
+        assertEquals(List.of(),
+                index.search(new EmployeeSearchCriteria(null, null, "smith", null, null, null, null)));
+    }
+
+    @Test
+    public void intersectsTermsOfDifferentSelectivity() {
+        EmployeeSearchIndex index = newIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.put(String.format("9%05d", i), "Common", "Name" + i, "cn" + i, "Sales", LocalDate.of(1980, 1, 1));
+        }
+        index.put("999999", "Common", "Rare", "cr", "Sales", LocalDate.of(1980, 1, 1));
+        // "com" is on 1001 postings and "rar" on one, whichever term comes first
+        assertEquals(List.of("999999"),
+                index.search(new EmployeeSearchCriteria(null, "common", "rare", null, null, null, null)));
+        assertEquals(List.of(),
+                index.search(new EmployeeSearchCriteria(null, "common", "johnson", null, null, null, null)));
+    }
+
+    @Test
+    public void pagesSeekFromTheCursorAcrossEveryKindOfPosting() {
+        EmployeeSearchIndex index = new EmployeeSearchIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.put(String.format("%06d", i), "First" + i, "Last", "fl" + i, i % 2 == 0 ? "Even" : "Odd",
+                    LocalDate.of(1980, 1, 1).plusDays(i));
+        }
+        EmployeeSearchCriteria all = new EmployeeSearchCriteria();
+        assertEquals(List.of("000500", "000501"), index.search(all, "000499", 2));
+        assertEquals(1000, index.count(all));
+
+        EmployeeSearchCriteria odd = new EmployeeSearchCriteria(null, null, "last", null, "Odd", null, null);
+        assertEquals(List.of("000991", "000993"), index.search(odd, "000990", 2));
+        assertEquals(List.of("000999"), index.search(odd, "000997", 2));
+        assertEquals(500, index.count(odd));
+
+        // Ten days of births: read from the date postings rather than by walking every entry
+        EmployeeSearchCriteria born = new EmployeeSearchCriteria(null, null, null, null, "Even",
+                LocalDate.of(1980, 1, 1).plusDays(100), LocalDate.of(1980, 1, 1).plusDays(109));
+        assertEquals(List.of("000100", "000102", "000104"), index.search(born, null, 3));
+        assertEquals(List.of("000106", "000108"), index.search(born, "000104", 3));
+        assertEquals(5, index.count(born));
+
+        index.remove("000106");
+        index.put("000108", "First108", "Last", "fl108", "Odd", LocalDate.of(1980, 1, 1).plusDays(108));
+        assertEquals(List.of(), index.search(born, "000104", 3));
+        assertEquals(3, index.count(born));
+        assertEquals(0, index.count(new EmployeeSearchCriteria(null, null, null, null, "Unknown", null, null)));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class EmployeeServiceTest {
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @BeforeEach
+    public void clean() throws Exception {
+        auditLog.flush();
+        employeeRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM employee_history");
+    }
+
+    private Employee addEmployee(String firstName, String lastName) throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        employee.setDepartment("Engineering");
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        return employeeService.addEmployee(employee, null);
+    }
+
+    @Test
+    public void deleteEmployeesRemovesRowsAndKeepsAuditTrail() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            // Vary the initials: each login ID prefix only has 1001 slots
+            ids.add(addEmployee((char) ('A' + i % 26) + "del", (char) ('A' + i / 26 % 26) + "me").getEmployeeId());
+        }
+        Employee kept = addEmployee("Keep", "Me");
+
+        employeeService.deleteEmployees(ids);
+        auditLog.flush();
+
+        assertEquals(1, employeeRepository.count());
+        assertEquals(kept.getEmployeeId(), employeeRepository.findAll().get(0).getEmployeeId());
+        assertEquals(1200, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employee_history WHERE action = 'DELETED'", Long.class));
+    }
+
+    @Test
+    public void deleteEmployeesIsAllOrNothingWhenAnIdIsUnknown() throws Exception {
+        Employee employee = addEmployee("Del", "Me");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> employeeService.deleteEmployees(List.of(employee.getEmployeeId(), "missing")));
+        auditLog.flush();
+
+        assertEquals(1, employeeRepository.count());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employee_history WHERE action = 'DELETED'", Long.class));
+    }
+
+    @Test
+    public void concurrentDeletesOfOneEmployeeReportItOnce() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            String id = addEmployee("Race", "Me").getEmployeeId();
+            CyclicBarrier start = new CyclicBarrier(2);
+            Callable<Boolean> delete = () -> {
+                start.await();
+                try {
+                    employeeService.deleteEmployees(List.of(id));
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            };
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Future<Boolean> first = executor.submit(delete);
+                Future<Boolean> second = executor.submit(delete);
+                assertEquals(1, (first.get() ? 1 : 0) + (second.get() ? 1 : 0));
+            } finally {
+                executor.shutdown();
+            }
+            auditLog.flush();
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM employee_history WHERE action = 'DELETED' AND employee_id = ?", Long.class, id));
+        }
+    }
+
+    @Test
+    public void addEmployeeReturnsBeforeHistoryIsWritten() throws Exception {
+        long published = auditLog.getPublishedCount();
+        long batches = auditLog.getBatchCount();
+
+        Employee employee = addEmployee("Fast", "Path");
+
+        // The CREATED event is buffered, not written as part of the add
+        assertEquals(published + 1, auditLog.getPublishedCount());
+        assertEquals(batches, auditLog.getBatchCount());
+        assertEquals(0, historyCount(employee.getEmployeeId()));
+
+        auditLog.flush();
+        assertEquals(1, historyCount(employee.getEmployeeId()));
+    }
+
+    private long historyCount(String employeeId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employee_history WHERE employee_id = ?", Long.class, employeeId);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.employeemanagement.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileSystemDocumentStoreTest {
+    @TempDir
+    Path root;
+
+    private static MockMultipartFile upload() {
+        return new MockMultipartFile("idProof", "id.pdf", "application/pdf",
+                "%PDF-1.4 shared content\n%%EOF".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void aStoredKeyIsNotDeletedUntilItsUploaderReleasesIt() throws Exception {
+        FileSystemDocumentStore store = new FileSystemDocumentStore(root.toString(), false);
+        String first = store.store(upload());
+        store.release(first);
+
+        // A second upload of the same content reuses the file; its reference is not committed yet
+        String second = store.store(upload());
+        assertFalse(store.deleteIfUnreferenced(second, () -> false));
+        assertTrue(store.resolve(second).isPresent());
+
+        store.release(second);
+        assertFalse(store.deleteIfUnreferenced(second, () -> true));
+        assertTrue(store.resolve(second).isPresent());
+        assertTrue(store.deleteIfUnreferenced(second, () -> false));
+        assertFalse(store.resolve(second).isPresent());
+
+        // Uploading it again after the delete puts the file back
+        String third = store.store(upload());
+        assertTrue(store.resolve(third).isPresent());
+    }
+}
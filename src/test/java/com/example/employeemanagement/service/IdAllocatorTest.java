@@ -0,0 +1,133 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class IdAllocatorTest {
+    private static final int THREADS = 64;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void concurrentAddsNeverProduceDuplicateIds() throws Exception {
+        int perThread = 10;
+        employeeRepository.deleteAll();
+        List<Employee> added = runConcurrently(() -> {
+            List<Employee> employees = new ArrayList<>();
+            for (int i = 0; i < perThread; i++) {
+                // Same initials for everyone so login IDs compete for one prefix bucket
+                Employee employee = new Employee();
+                employee.setFirstName("Alice");
+                employee.setLastName("Smith");
+                employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+                employee.setDepartment("Engineering");
+                employee.setSalary(1000);
+                employees.add(employeeService.addEmployee(employee, null));
+            }
+            return employees;
+        });
+
+        Set<String> employeeIds = new HashSet<>();
+        Set<String> loginIds = new HashSet<>();
+        for (Employee employee : added) {
+            assertTrue(employeeIds.add(employee.getEmployeeId()), "duplicate " + employee.getEmployeeId());
+            assertTrue(loginIds.add(employee.getLoginId()), "duplicate " + employee.getLoginId());
+        }
+        assertEquals(THREADS * perThread, employeeRepository.count());
+    }
+
+    @Test
+    public void allocationLatencyStaysBoundedUnderContention() throws Exception {
+        int perThread = 1000;
+        List<Long> nanos = runConcurrently(() -> {
+            List<Long> timings = new ArrayList<>();
+            for (int i = 0; i < perThread; i++) {
+                long start = System.nanoTime();
+                idAllocator.nextEmployeeId();
+                timings.add(System.nanoTime() - start);
+            }
+            return timings;
+        });
+
+        Collections.sort(nanos);
+        long p99Micros = nanos.get((int) (nanos.size() * 0.99)) / 1_000;
+        assertTrue(p99Micros < 50_000, "p99 allocation latency was " + p99Micros + " us");
+    }
+
+    @Test
+    public void idsOfArchivedEmployeesAreNotHandedOutAgain() {
+        long last = IdAllocator.employeeNumber(idAllocator.nextEmployeeId());
+        for (long number = last + 1; number <= last + 5; number++) {
+            jdbcTemplate.update("INSERT INTO employee_archive (employee_id, salary, history_archived) VALUES (?, 0, TRUE)",
+                    String.format("%05d", number) + "1");
+        }
+        // As after a restart: the taken IDs are loaded again
+        ReflectionTestUtils.setField(idAllocator, "legacyEmployeeIds", null);
+        idAllocator.load();
+
+        assertEquals(last + 6, IdAllocator.employeeNumber(idAllocator.nextEmployeeId()));
+    }
+
+    private <T> List<T> runConcurrently(Callable<List<T>> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<T> results = new ArrayList<>();
+            for (Future<List<T>> future : executor.invokeAll(Collections.nCopies(THREADS, task))) {
+                results.addAll(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void loginIdsWithoutThreeAsciiDigitsLeaveTheSlotsAlone() {
+        // Signed or non-ASCII suffixes, which Integer.parseInt would accept
+        for (String loginId : List.of("zq-12", "zq+99", "zq\u0661\u0662\u0663", "zq1a2")) {
+            idAllocator.markLoginIdTaken(loginId);
+            idAllocator.releaseLoginId(loginId);
+            idAllocator.markLoginIdTaken(loginId);
+        }
+        idAllocator.markLoginIdTaken("zq012");
+        Map<String, BitSet> slots = (Map<String, BitSet>) ReflectionTestUtils.getField(idAllocator, "loginSlots");
+        assertEquals(Set.of(13), slots.get("zq").stream().boxed().collect(Collectors.toSet()));
+        idAllocator.releaseLoginId("zq012");
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.model.Employee;
+import com.example.employeemanagement.model.EmployeeSearchCriteria;
+import com.example.employeemanagement.model.EmployeeSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Three embedded databases as shards, keyed by department
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding_catalog;DB_CLOSE_DELAY=-1",
+        "employee.sharding.shard-urls=" + ShardingTest.SHARD_0 + "," + ShardingTest.SHARD_1 + "," + ShardingTest.SHARD_2,
+        "employee.sharding.key=department",
+        "employee.search.backend=jpql",
+        "employee.cache.enabled=false",
+        "employee.audit.wal-dir=target/sharding/audit-wal"})
+@ActiveProfiles("test")
+public class ShardingTest {
+    static final String SHARD_0 = "jdbc:h2:mem:sharding_0;DB_CLOSE_DELAY=-1";
+    static final String SHARD_1 = "jdbc:h2:mem:sharding_1;DB_CLOSE_DELAY=-1";
+    static final String SHARD_2 = "jdbc:h2:mem:sharding_2;DB_CLOSE_DELAY=-1";
+    private static final String[] SHARDS = {SHARD_0, SHARD_1, SHARD_2};
+    private static final String[] DEPARTMENTS = {"Engineering", "Support", "HR", "Finance", "Legal"};
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeSearchBackend searchBackend;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @BeforeEach
+    public void clean() throws Exception {
+        for (String shard : SHARDS) {
+            execute(shard, "DELETE FROM employee");
+        }
+    }
+
+    private static void execute(String url, String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static long count(String url, String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private Employee addEmployee(String lastName, String department) throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName("Shard");
+        employee.setLastName(lastName);
+        employee.setDateOfBirth(LocalDate.of(1985, 3, 1));
+        employee.setDepartment(department);
+        employee.setSalary(1000);
+        employee.setPermanentAddress("Permanent");
+        employee.setCurrentAddress("Current");
+        return employeeService.addEmployee(employee, null);
+    }
+
+    private List<String> addEmployees(int count) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(addEmployee("Member" + i, DEPARTMENTS[i % DEPARTMENTS.length]).getEmployeeId());
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private static List<String> ids(List<EmployeeSummary> employees) {
+        return employees.stream().map(EmployeeSummary::getEmployeeId).toList();
+    }
+
+    @Test
+    public void employeesLiveOnTheirDepartmentsShard() throws Exception {
+        Employee employee = addEmployee("Placed", "Finance");
+        int shard = shardRouter.shardOfDepartment("Finance");
+        assertEquals(shard, shardRouter.shardOf(employee.getEmployeeId()));
+        for (int i = 0; i < SHARDS.length; i++) {
+            assertEquals(i == shard ? 1 : 0, count(SHARDS[i],
+                    "SELECT COUNT(*) FROM employee WHERE employee_id = '" + employee.getEmployeeId() + "'"));
+        }
+        assertEquals("Placed", employeeService.getEmployeeById(employee.getEmployeeId()).getLastName());
+
+        // History is written next to the employee
+        auditLog.flush();
+        assertEquals(1, count(SHARDS[shard],
+                "SELECT COUNT(*) FROM employee_history WHERE employee_id = '" + employee.getEmployeeId() + "'"));
+        assertEquals(1, employeeService.getEmployeeHistory(employee.getEmployeeId(), 0).getNumberOfElements());
+    }
+
+    @Test
+    public void searchesMergeShardsIntoOneOrder() throws Exception {
+        List<String> all = addEmployees(23);
+        assertEquals(SHARDS.length, all.stream().map(shardRouter::shardOf).distinct().count());
+        EmployeeSearchCriteria everyone = new EmployeeSearchCriteria();
+        everyone.setFirstName("Shard");
+
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 5; page++) {
+            Page<EmployeeSummary> results = searchBackend.search(everyone, PageRequest.of(page, 5));
+            assertEquals(23, results.getTotalElements());
+            assertEquals(5, results.getTotalPages());
+            paged.addAll(ids(results.getContent()));
+        }
+        assertEquals(all, paged);
+
+        List<String> keyset = new ArrayList<>();
+        String after = null;
+        Slice<EmployeeSummary> slice;
+        do {
+            slice = searchBackend.searchAfter(everyone, after, 4);
+            keyset.addAll(ids(slice.getContent()));
+            after = keyset.isEmpty() ? null : keyset.get(keyset.size() - 1);
+        } while (slice.hasNext());
+        assertEquals(all, keyset);
+        assertEquals(23, searchBackend.count(everyone));
+    }
+
+    @Test
+    public void departmentSearchesOnlyQueryTheDepartmentsShard() throws Exception {
+        addEmployees(10);
+        int shard = shardRouter.shardOfDepartment("Support");
+        // A stray row on another shard is invisible to a search that is pruned to Support's shard
+        String stray = SHARDS[(shard + 1) % SHARDS.length];
+        execute(stray, "INSERT INTO employee (employee_id, first_name, last_name, login_id, date_of_birth, "
+                + "department, salary) VALUES ('STRAY1', 'Shard', 'Stray', 'ssstray', DATE '1990-01-01', 'Support', 1)");
+
+        EmployeeSearchCriteria support = new EmployeeSearchCriteria();
+        support.setDepartment("Support");
+        Page<EmployeeSummary> results = searchBackend.search(support, PageRequest.of(0, 10));
+        assertEquals(2, results.getTotalElements());
+        assertFalse(ids(results.getContent()).contains("STRAY1"));
+
+        EmployeeSearchCriteria stragglers = new EmployeeSearchCriteria();
+        stragglers.setLastName("Stray");
+        assertEquals(List.of("STRAY1"), ids(searchBackend.search(stragglers, PageRequest.of(0, 10)).getContent()));
+    }
+
+    @Test
+    public void deletesReachEveryShard() throws Exception {
+        List<String> ids = addEmployees(6);
+        assertThrows(IllegalArgumentException.class,
+                () -> employeeService.deleteEmployees(List.of(ids.get(0), "0099991")));
+        assertEquals(6, searchBackend.count(new EmployeeSearchCriteria()));
+
+        employeeService.deleteEmployees(ids.subList(0, 5));
+        assertEquals(List.of(ids.get(5)), ids(searchBackend.searchAfter(new EmployeeSearchCriteria(), null, 10).getContent()));
+        assertThrows(IllegalArgumentException.class, () -> employeeService.getEmployeeById(ids.get(0)));
+    }
+}